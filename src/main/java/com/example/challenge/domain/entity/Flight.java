@@ -22,6 +22,19 @@ public class Flight {
     @EqualsAndHashCode.Include
     private Long id;
 
+    /**
+     * Version of the flight row, checked when the flight is saved and bumped on every change to it.
+     */
+    @Version
+    private Integer version;
+
+    /**
+     * Revision of the seats of the flight, bumped on every change to them. Kept apart from the version so that seat
+     * sales never fail the version check of a flight update; only {@code FlightRepository} writes it, in place.
+     */
+    @Column(insertable = false, updatable = false)
+    private int seatRevision;
+
     @NotBlank
     private String flightNumber;
 
@@ -40,6 +53,14 @@ public class Flight {
     @Positive
     private int seatCapacity;
 
+    /**
+     * Seat number to hand out once the numbers freed by removed seats are used up. Only written when the flight is
+     * inserted; {@code FlightDao} advances it with SQL while the flight row is locked.
+     */
+    @Column(updatable = false)
+    @Builder.Default
+    private int nextSeatNumber = 1;
+
     @OneToMany(mappedBy = "flight", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     @JsonManagedReference
     @Singular
@@ -2,5 +2,10 @@ package com.example.challenge.domain.enums;
 
 public enum SeatStatus {
     AVAILABLE,
+    /**
+     * Claimed by a payment that is waiting for the bank; becomes UNAVAILABLE if the payment succeeds,
+     * AVAILABLE again if it fails.
+     */
+    HELD,
     UNAVAILABLE
 }
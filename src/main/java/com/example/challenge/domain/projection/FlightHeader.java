@@ -0,0 +1,22 @@
+package com.example.challenge.domain.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * The columns of a flight shown in responses, read without loading the flight entity or its seats.
+ */
+@Getter
+@AllArgsConstructor
+public class FlightHeader {
+
+    private final Long flightId;
+    private final String flightNumber;
+    private final String origin;
+    private final String destination;
+    private final LocalDateTime departureTime;
+    private final LocalDateTime arrivalTime;
+    private final int seatCapacity;
+}
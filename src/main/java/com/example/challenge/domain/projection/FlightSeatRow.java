@@ -0,0 +1,29 @@
+package com.example.challenge.domain.projection;
+
+import com.example.challenge.domain.enums.SeatStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One row of a flight joined to one of its seats, read straight from a JDBC result set.
+ * The seat columns are null for a flight without seats.
+ */
+@Getter
+@AllArgsConstructor
+public class FlightSeatRow {
+
+    private final Long flightId;
+    private final String flightNumber;
+    private final String origin;
+    private final String destination;
+    private final LocalDateTime departureTime;
+    private final LocalDateTime arrivalTime;
+    private final int seatCapacity;
+    private final Long seatId;
+    private final String seatNumber;
+    private final BigDecimal seatPrice;
+    private final SeatStatus seatStatus;
+}
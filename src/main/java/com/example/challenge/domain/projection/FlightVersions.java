@@ -0,0 +1,15 @@
+package com.example.challenge.domain.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Version and seat revision of a flight, read without loading the flight.
+ */
+@Getter
+@AllArgsConstructor
+public class FlightVersions {
+
+    private final Integer version;
+    private final Integer seatRevision;
+}
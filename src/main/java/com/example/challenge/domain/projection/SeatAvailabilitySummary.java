@@ -0,0 +1,21 @@
+package com.example.challenge.domain.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * Aggregated seat availability of a single flight, computed by the database
+ * without loading any seat entities.
+ */
+@Getter
+@AllArgsConstructor
+public class SeatAvailabilitySummary {
+
+    private final Long flightId;
+    private final Long availableSeatCount;
+    private final Long soldSeatCount;
+    private final BigDecimal minAvailablePrice;
+    private final BigDecimal maxAvailablePrice;
+}
@@ -0,0 +1,26 @@
+package com.example.challenge.domain.projection;
+
+import com.example.challenge.domain.enums.SeatStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A seat joined to the header of its flight, read with a single query without loading either entity.
+ */
+@Getter
+@AllArgsConstructor
+public class SeatDetailsView {
+
+    private final Long seatId;
+    private final String seatNumber;
+    private final BigDecimal price;
+    private final SeatStatus status;
+    private final String flightNumber;
+    private final String origin;
+    private final String destination;
+    private final LocalDateTime departureTime;
+    private final LocalDateTime arrivalTime;
+}
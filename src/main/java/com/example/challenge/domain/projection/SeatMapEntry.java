@@ -0,0 +1,19 @@
+package com.example.challenge.domain.projection;
+
+import com.example.challenge.domain.enums.SeatStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * The columns of a seat needed to draw a seat map, read without loading the seat entity.
+ */
+@Getter
+@AllArgsConstructor
+public class SeatMapEntry {
+
+    private final String seatNumber;
+    private final BigDecimal price;
+    private final SeatStatus status;
+}
@@ -0,0 +1,15 @@
+package com.example.challenge.domain.projection;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Versions of a seat and of the flight it belongs to, read without loading either entity.
+ */
+@Getter
+@AllArgsConstructor
+public class SeatVersions {
+
+    private final Integer seatVersion;
+    private final Integer flightVersion;
+}
@@ -0,0 +1,20 @@
+package com.example.challenge.domain.projection;
+
+import com.example.challenge.domain.enums.SeatStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/**
+ * The columns of a seat shown in responses, read without loading the seat entity or its flight.
+ */
+@Getter
+@AllArgsConstructor
+public class SeatView {
+
+    private final Long seatId;
+    private final String seatNumber;
+    private final BigDecimal price;
+    private final SeatStatus status;
+}
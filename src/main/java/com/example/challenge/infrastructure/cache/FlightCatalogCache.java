@@ -0,0 +1,205 @@
+package com.example.challenge.infrastructure.cache;
+
+import com.example.challenge.domain.enums.SeatStatus;
+import com.example.challenge.web.model.v1.response.FlightDetailsResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Read-through, size-bounded cache of flight details keyed by flight ID.
+ * <p>
+ * Every mutation of a flight or its seats must call {@link #invalidate(Long)}, which bumps the catalog
+ * version and evicts the flight. A value loaded from the database is only stored if the catalog version did
+ * not change while it was being loaded, so a load racing with a mutation can never re-populate stale data.
+ * When the mutation runs inside a transaction, the flight bypasses the cache until the transaction completes
+ * and is evicted again afterwards, so a committed change is visible to every read that starts after the commit.
+ * Every mutation is also passed on to the registered {@link FlightCatalogListener}s.
+ */
+@Slf4j
+@Component
+public class FlightCatalogCache {
+
+    private static final String METRIC_PREFIX = "flight.catalog.cache";
+
+    private final Map<Long, FlightDetailsResponse> entries;
+    private final Map<Long, Integer> pendingMutations = new HashMap<>();
+    private long version;
+    private final List<FlightCatalogListener> listeners = new CopyOnWriteArrayList<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public FlightCatalogCache(@Value("${flight.catalog-cache.max-entries:1000}") int maxEntries,
+                              MeterRegistry meterRegistry) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, FlightDetailsResponse> eldest) {
+                if (size() > maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.hits = Counter.builder(METRIC_PREFIX + ".requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder(METRIC_PREFIX + ".requests").tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder(METRIC_PREFIX + ".evictions").register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".size", this, FlightCatalogCache::size).register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".version", this, FlightCatalogCache::getVersion).register(meterRegistry);
+    }
+
+    /**
+     * Returns the details of a flight, loading and caching them on a miss.
+     *
+     * @param flightId the ID of the flight
+     * @param loader   loads the flight details from the database
+     * @return the flight details
+     */
+    public FlightDetailsResponse get(Long flightId, Function<Long, FlightDetailsResponse> loader) {
+        long loadVersion;
+        synchronized (this) {
+            FlightDetailsResponse cached = lookup(flightId);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+            loadVersion = version;
+        }
+        misses.increment();
+        FlightDetailsResponse loaded = loader.apply(flightId);
+        store(Map.of(flightId, loaded), loadVersion);
+        return loaded;
+    }
+
+    /**
+     * Returns the details of several flights in the given order, loading all misses with a single call.
+     *
+     * @param flightIds the IDs of the flights
+     * @param loader    loads the details of the missing flights from the database
+     * @return the flight details in the order of the given IDs; flights the loader did not return are skipped
+     */
+    public List<FlightDetailsResponse> getAll(List<Long> flightIds,
+                                              Function<List<Long>, List<FlightDetailsResponse>> loader) {
+        Map<Long, FlightDetailsResponse> found = new HashMap<>();
+        List<Long> missingIds = new ArrayList<>();
+        long loadVersion;
+        synchronized (this) {
+            for (Long flightId : flightIds) {
+                FlightDetailsResponse cached = lookup(flightId);
+                if (cached != null) {
+                    found.put(flightId, cached);
+                } else {
+                    missingIds.add(flightId);
+                }
+            }
+            loadVersion = version;
+        }
+        hits.increment(found.size());
+        misses.increment(missingIds.size());
+        if (!missingIds.isEmpty()) {
+            Map<Long, FlightDetailsResponse> loaded = loader.apply(missingIds).stream()
+                    .collect(Collectors.toMap(details -> details.getFlight().getFlightId(), Function.identity()));
+            found.putAll(loaded);
+            store(loaded, loadVersion);
+        }
+        return flightIds.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Bumps the catalog version and evicts the flight. Inside a transaction the flight also bypasses
+     * the cache until the transaction completes, and is evicted once more after completion.
+     *
+     * @param flightId the ID of the changed flight
+     */
+    public void invalidate(Long flightId) {
+        evict(flightId);
+        listeners.forEach(listener -> listener.flightChanged(flightId));
+    }
+
+    /**
+     * Same as {@link #invalidate(Long)} for a change limited to the status of one seat, which lets
+     * listeners update the seat in place instead of dropping everything they hold for the flight.
+     *
+     * @param flightId   the ID of the flight the seat belongs to
+     * @param seatNumber the number of the changed seat
+     * @param status     the new status of the seat
+     */
+    public void seatStatusChanged(Long flightId, String seatNumber, SeatStatus status) {
+        evict(flightId);
+        listeners.forEach(listener -> listener.seatStatusChanged(flightId, seatNumber, status));
+    }
+
+    public void addListener(FlightCatalogListener listener) {
+        listeners.add(listener);
+    }
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void evict(Long flightId) {
+        boolean inTransaction = TransactionSynchronizationManager.isSynchronizationActive();
+        synchronized (this) {
+            version++;
+            entries.remove(flightId);
+            if (inTransaction) {
+                pendingMutations.merge(flightId, 1, Integer::sum);
+            }
+        }
+        if (inTransaction) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    completeMutation(flightId);
+                }
+            });
+        }
+        log.debug("Invalidated flight ID: {} in catalog cache", flightId);
+    }
+
+    private synchronized void completeMutation(Long flightId) {
+        version++;
+        entries.remove(flightId);
+        pendingMutations.computeIfPresent(flightId, (id, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private FlightDetailsResponse lookup(Long flightId) {
+        return pendingMutations.containsKey(flightId) ? null : entries.get(flightId);
+    }
+
+    private synchronized void store(Map<Long, FlightDetailsResponse> loaded, long loadVersion) {
+        if (version != loadVersion) {
+            log.debug("Catalog changed while loading flights, skipping cache population");
+            return;
+        }
+        loaded.forEach((flightId, details) -> {
+            if (!pendingMutations.containsKey(flightId)) {
+                entries.put(flightId, details);
+            }
+        });
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.challenge.infrastructure.cache;
+
+import com.example.challenge.domain.enums.SeatStatus;
+
+/**
+ * Receives the flight mutations reported to {@link FlightCatalogCache}, so caches derived from
+ * flight data can follow them. Notifications are delivered synchronously at the mutation site,
+ * possibly inside a transaction that has not committed yet.
+ */
+public interface FlightCatalogListener {
+
+    /**
+     * Called when anything about a flight or its seats changed.
+     *
+     * @param flightId the ID of the changed flight
+     */
+    void flightChanged(Long flightId);
+
+    /**
+     * Called when only the status of a single seat changed.
+     *
+     * @param flightId   the ID of the flight the seat belongs to
+     * @param seatNumber the number of the seat
+     * @param status     the new status of the seat
+     */
+    default void seatStatusChanged(Long flightId, String seatNumber, SeatStatus status) {
+        flightChanged(flightId);
+    }
+}
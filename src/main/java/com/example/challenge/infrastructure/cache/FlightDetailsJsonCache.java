@@ -0,0 +1,204 @@
+package com.example.challenge.infrastructure.cache;
+
+import com.example.challenge.domain.enums.SeatStatus;
+import com.example.challenge.web.model.v1.response.FlightDetailsResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache of flight details already encoded as JSON, and gzip-compressed on demand, keyed by flight ID and tagged
+ * with the ETag of the flight's version and seat revision. A lookup with a different tag is a miss, so an encoding
+ * is never served for another version; entries are also dropped once every flight change reported to
+ * {@link FlightCatalogCache} has committed.
+ * The cache is bounded by the total size of the encodings it holds and evicts the least recently used flights.
+ */
+@Slf4j
+@Component
+public class FlightDetailsJsonCache implements FlightCatalogListener {
+
+    private static final String METRIC_PREFIX = "flight.details.json.cache";
+
+    private final long maxBytes;
+    private final ObjectMapper objectMapper;
+    private final Map<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public FlightDetailsJsonCache(@Value("${flight.details-json-cache.max-bytes:16777216}") long maxBytes,
+                                  ObjectMapper objectMapper,
+                                  FlightCatalogCache flightCatalogCache,
+                                  MeterRegistry meterRegistry) {
+        this.maxBytes = maxBytes;
+        this.objectMapper = objectMapper;
+        this.hits = Counter.builder(METRIC_PREFIX + ".requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder(METRIC_PREFIX + ".requests").tag("result", "miss").register(meterRegistry);
+        this.evictions = Counter.builder(METRIC_PREFIX + ".evictions").register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".bytes", this, FlightDetailsJsonCache::getTotalBytes).register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".hit.ratio", this, FlightDetailsJsonCache::getHitRatio).register(meterRegistry);
+        flightCatalogCache.addListener(this);
+    }
+
+    /**
+     * Returns the JSON encoding of a flight's details at the given version, encoding and caching it on a miss.
+     *
+     * @param flightId the ID of the flight
+     * @param eTag     the ETag of the flight's current version
+     * @param gzip     whether to return the gzip-compressed encoding
+     * @param loader   loads the flight details on a miss
+     * @return the encoded flight details
+     */
+    public byte[] get(Long flightId, String eTag, boolean gzip, Supplier<FlightDetailsResponse> loader) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(flightId);
+            if (entry != null && !entry.eTag.equals(eTag)) {
+                remove(flightId);
+                entry = null;
+            }
+            if (entry != null && (!gzip || entry.gzip != null)) {
+                hits.increment();
+                return gzip ? entry.gzip : entry.json;
+            }
+        }
+        misses.increment();
+        if (entry == null) {
+            entry = new Entry(eTag, encode(loader.get()));
+            store(flightId, entry);
+        }
+        if (!gzip) {
+            return entry.json;
+        }
+        byte[] compressed = compress(entry.json);
+        synchronized (this) {
+            if (entry.gzip == null) {
+                entry.gzip = compressed;
+                if (entries.get(flightId) == entry) {
+                    totalBytes += compressed.length;
+                    evictOverflow();
+                }
+            }
+            return entry.gzip;
+        }
+    }
+
+    @Override
+    public void flightChanged(Long flightId) {
+        afterCommit(() -> {
+            synchronized (this) {
+                remove(flightId);
+            }
+        });
+    }
+
+    @Override
+    public void seatStatusChanged(Long flightId, String seatNumber, SeatStatus status) {
+        flightChanged(flightId);
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private double getHitRatio() {
+        double requests = hits.count() + misses.count();
+        return requests == 0 ? 0 : hits.count() / requests;
+    }
+
+    private synchronized void store(Long flightId, Entry entry) {
+        if (entry.size() > maxBytes) {
+            log.debug("Encoded details of flight ID: {} exceed the cache size, not caching", flightId);
+            return;
+        }
+        remove(flightId);
+        entries.put(flightId, entry);
+        totalBytes += entry.size();
+        evictOverflow();
+    }
+
+    private void remove(Long flightId) {
+        Entry removed = entries.remove(flightId);
+        if (removed != null) {
+            totalBytes -= removed.size();
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void evictOverflow() {
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            totalBytes -= eldest.next().size();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private byte[] encode(FlightDetailsResponse details) {
+        try {
+            return objectMapper.writeValueAsBytes(details);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode flight details", e);
+        }
+    }
+
+    private static byte[] compress(byte[] json) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4 + 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static final class Entry {
+
+        private final String eTag;
+        private final byte[] json;
+        private byte[] gzip;
+
+        private Entry(String eTag, byte[] json) {
+            this.eTag = eTag;
+            this.json = json;
+        }
+
+        private long size() {
+            return json.length + (gzip != null ? gzip.length : 0);
+        }
+    }
+}
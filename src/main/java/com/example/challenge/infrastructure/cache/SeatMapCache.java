@@ -0,0 +1,203 @@
+package com.example.challenge.infrastructure.cache;
+
+import com.example.challenge.domain.enums.SeatStatus;
+import com.example.challenge.domain.projection.SeatMapEntry;
+import com.example.challenge.web.model.v1.response.SeatMapResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Size-bounded cache of per-flight seat maps: one availability bit and one price per seat number.
+ * <p>
+ * Seat status changes reported through {@link FlightCatalogCache} flip the seat's bit in place, and any
+ * other flight change evicts the map. Both are applied once the surrounding transaction commits, and each
+ * one bumps a version so a load racing with a change never stores a map that misses it.
+ */
+@Slf4j
+@Component
+public class SeatMapCache implements FlightCatalogListener {
+
+    private final Map<Long, SeatMap> entries;
+    private long version;
+
+    public SeatMapCache(@Value("${flight.seat-map-cache.max-entries:1000}") int maxEntries,
+                        FlightCatalogCache flightCatalogCache) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, SeatMap> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        flightCatalogCache.addListener(this);
+    }
+
+    /**
+     * Returns the seat map of a flight, loading and caching it on a miss.
+     *
+     * @param flightId the ID of the flight
+     * @param loader   loads the seats of the flight from the database
+     * @return the encoded seat map
+     */
+    public SeatMapResponse get(Long flightId, Function<Long, List<SeatMapEntry>> loader) {
+        long loadVersion;
+        synchronized (this) {
+            SeatMap cached = entries.get(flightId);
+            if (cached != null) {
+                return cached.toResponse(flightId);
+            }
+            loadVersion = version;
+        }
+        SeatMap loaded = SeatMap.of(loader.apply(flightId));
+        synchronized (this) {
+            if (version == loadVersion) {
+                entries.put(flightId, loaded);
+            }
+            return loaded.toResponse(flightId);
+        }
+    }
+
+    @Override
+    public void flightChanged(Long flightId) {
+        afterCommit(() -> {
+            synchronized (this) {
+                version++;
+                entries.remove(flightId);
+            }
+            log.debug("Evicted seat map of flight ID: {}", flightId);
+        });
+    }
+
+    @Override
+    public void seatStatusChanged(Long flightId, String seatNumber, SeatStatus status) {
+        afterCommit(() -> {
+            synchronized (this) {
+                version++;
+                SeatMap seatMap = entries.get(flightId);
+                if (seatMap != null && !seatMap.setAvailable(seatNumber, status == SeatStatus.AVAILABLE)) {
+                    entries.remove(flightId);
+                }
+            }
+            log.debug("Applied status: {} of seat: {} to seat map of flight ID: {}", status, seatNumber, flightId);
+        });
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Seat map of a single flight. Seat number n is stored at index n - 1; seats are numbered
+     * from 1 by {@code FlightUtils}, anything else is left out of the map.
+     */
+    private static final class SeatMap {
+
+        private final int seatCount;
+        private final BitSet available;
+        private final List<SeatMapResponse.PriceRun> prices;
+
+        private SeatMap(int seatCount, BitSet available, List<SeatMapResponse.PriceRun> prices) {
+            this.seatCount = seatCount;
+            this.available = available;
+            this.prices = prices;
+        }
+
+        static SeatMap of(List<SeatMapEntry> seats) {
+            Map<Integer, SeatMapEntry> seatsByIndex = new HashMap<>();
+            int seatCount = 0;
+            for (SeatMapEntry seat : seats) {
+                int index = indexOf(seat.getSeatNumber());
+                if (index < 0) {
+                    log.warn("Skipping seat number: {} that cannot be placed on a seat map", seat.getSeatNumber());
+                    continue;
+                }
+                seatsByIndex.put(index, seat);
+                seatCount = Math.max(seatCount, index + 1);
+            }
+
+            BitSet available = new BitSet(seatCount);
+            List<SeatMapResponse.PriceRun> prices = new ArrayList<>();
+            for (int index = 0; index < seatCount; index++) {
+                SeatMapEntry seat = seatsByIndex.get(index);
+                BigDecimal price = seat != null ? seat.getPrice() : null;
+                if (seat != null && seat.getStatus() == SeatStatus.AVAILABLE) {
+                    available.set(index);
+                }
+                SeatMapResponse.PriceRun last = prices.isEmpty() ? null : prices.get(prices.size() - 1);
+                if (last != null && samePrice(last.getPrice(), price)) {
+                    last.setCount(last.getCount() + 1);
+                } else {
+                    prices.add(new SeatMapResponse.PriceRun(price, 1));
+                }
+            }
+            return new SeatMap(seatCount, available, prices);
+        }
+
+        /**
+         * @return false if the seat number is not on this map, so the map has to be rebuilt
+         */
+        boolean setAvailable(String seatNumber, boolean isAvailable) {
+            int index = indexOf(seatNumber);
+            if (index < 0 || index >= seatCount) {
+                return false;
+            }
+            available.set(index, isAvailable);
+            return true;
+        }
+
+        SeatMapResponse toResponse(Long flightId) {
+            long[] words = available.toLongArray();
+            ByteBuffer buffer = ByteBuffer.allocate(((seatCount + 63) / 64) * Long.BYTES);
+            for (long word : words) {
+                buffer.putLong(word);
+            }
+            List<SeatMapResponse.PriceRun> priceRuns = new ArrayList<>(prices.size());
+            prices.forEach(run -> priceRuns.add(new SeatMapResponse.PriceRun(run.getPrice(), run.getCount())));
+            return SeatMapResponse.builder()
+                    .flightId(flightId)
+                    .seatCount(seatCount)
+                    .availability(Base64.getEncoder().encodeToString(buffer.array()))
+                    .prices(priceRuns)
+                    .build();
+        }
+
+        private static int indexOf(String seatNumber) {
+            try {
+                return Integer.parseInt(seatNumber) - 1;
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+
+        private static boolean samePrice(BigDecimal left, BigDecimal right) {
+            return left == null || right == null ? Objects.equals(left, right) : left.compareTo(right) == 0;
+        }
+    }
+}
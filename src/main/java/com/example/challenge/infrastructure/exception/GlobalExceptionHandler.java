@@ -6,6 +6,7 @@ import org.springframework.context.MessageSource;
 import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -74,6 +75,18 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(ex.getStatus()).body(response);
     }
 
+    /**
+     * Reports a write based on a stale read of a versioned entity as a conflict, so the client can reload and retry.
+     *
+     * @param ex the {@link ObjectOptimisticLockingFailureException} thrown when a version check fails
+     * @return a {@link ResponseEntity} containing the localized error message
+     */
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, Object>> handleOptimisticLockingFailure(ObjectOptimisticLockingFailureException ex) {
+        log.warn("Concurrent modification of {} with ID: {}", ex.getPersistentClassName(), ex.getIdentifier());
+        return handleBusinessException(new BusinessException("business.error.concurrent_modification", HttpStatus.CONFLICT));
+    }
+
     /**
      * Handles all unhandled exceptions and provides a generic error response.
      *
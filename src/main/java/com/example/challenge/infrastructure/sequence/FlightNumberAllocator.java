@@ -0,0 +1,109 @@
+package com.example.challenge.infrastructure.sequence;
+
+import com.example.challenge.utils.FlightUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out unique flight numbers: a route prefix followed by a counter kept per prefix.
+ * <p>
+ * Numbers come from blocks of {@code flight.number-allocator.block-size} reserved in the {@code flight_number_block}
+ * table, so the database is visited once per block and never to check whether a number is taken. Within a block,
+ * numbers are taken with a lock-free increment. Each reservation commits on its own, so every instance sharing the
+ * database reserves disjoint blocks; numbers of a block not used before a restart are skipped, never reused.
+ * The unique constraint on {@code flight.flight_number} guards against anything else writing flight numbers.
+ */
+@Slf4j
+@Component
+public class FlightNumberAllocator {
+
+    private static final int FIRST_NUMBER = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate reservationTransaction;
+    private final int blockSize;
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    public FlightNumberAllocator(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${flight.number-allocator.block-size:100}") int blockSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.reservationTransaction = new TransactionTemplate(transactionManager);
+        this.reservationTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Allocates the next flight number of a route.
+     *
+     * @param origin      the origin of the flight
+     * @param destination the destination of the flight
+     * @return a flight number no other flight has been given
+     */
+    public String allocate(String origin, String destination) {
+        String prefix = FlightUtils.getFlightNumberPrefix(origin, destination);
+        while (true) {
+            Block block = blocks.get(prefix);
+            if (block != null) {
+                int number = block.next.getAndIncrement();
+                if (number < block.end) {
+                    return prefix + number;
+                }
+            }
+            refill(prefix, block);
+        }
+    }
+
+    /**
+     * Replaces an exhausted block, unless another thread already did.
+     */
+    private synchronized void refill(String prefix, Block exhausted) {
+        if (blocks.get(prefix) == exhausted) {
+            blocks.put(prefix, reserve(prefix));
+        }
+    }
+
+    private Block reserve(String prefix) {
+        while (true) {
+            try {
+                Integer end = reservationTransaction.execute(status -> {
+                    int updated = jdbcTemplate.update(
+                            "UPDATE flight_number_block SET next_value = next_value + ? WHERE prefix = ?", blockSize, prefix);
+                    if (updated == 0) {
+                        jdbcTemplate.update("INSERT INTO flight_number_block (prefix, next_value) VALUES (?, ?)",
+                                prefix, FIRST_NUMBER + blockSize);
+                        return FIRST_NUMBER + blockSize;
+                    }
+                    return jdbcTemplate.queryForObject(
+                            "SELECT next_value FROM flight_number_block WHERE prefix = ?", Integer.class, prefix);
+                });
+                log.debug("Reserved flight numbers {} to {} of prefix: {}", end - blockSize, end - 1, prefix);
+                return new Block(end - blockSize, end);
+            } catch (DuplicateKeyException e) {
+                // Another instance reserved the first block of the prefix at the same time, take the next one
+                log.debug("Concurrent first reservation of prefix: {}, retrying", prefix);
+            }
+        }
+    }
+
+    private static final class Block {
+
+        private final AtomicInteger next;
+        private final int end;
+
+        private Block(int start, int end) {
+            this.next = new AtomicInteger(start);
+            this.end = end;
+        }
+    }
+}
@@ -2,13 +2,19 @@ package com.example.challenge.mapper;
 
 import com.example.challenge.domain.entity.Flight;
 import com.example.challenge.domain.enums.SeatStatus;
-import com.example.challenge.utils.FlightUtils;
+import com.example.challenge.domain.projection.FlightHeader;
+import com.example.challenge.domain.projection.SeatAvailabilitySummary;
+import com.example.challenge.domain.projection.SeatView;
 import com.example.challenge.web.model.v1.request.CreateFlightRequest;
+import com.example.challenge.web.model.v1.request.CreateFlightScheduleRequest;
 import com.example.challenge.web.model.v1.request.UpdateFlightRequest;
 import com.example.challenge.web.model.v1.response.FlightDetailsResponse;
 import com.example.challenge.web.model.v1.response.FlightResponse;
+import com.example.challenge.web.model.v1.response.FlightSummaryResponse;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -35,6 +41,24 @@ public class FlightMapper {
                 .build();
     }
 
+    /**
+     * Maps a CreateFlightScheduleRequest to a single Flight entity of the schedule.
+     *
+     * @param request       the CreateFlightScheduleRequest containing the route and seat capacity
+     * @param departureTime the departure time of the scheduled flight
+     * @param arrivalTime   the arrival time of the scheduled flight
+     * @return a Flight entity for the given departure
+     */
+    public Flight mapToFlight(CreateFlightScheduleRequest request, LocalDateTime departureTime, LocalDateTime arrivalTime) {
+        return Flight.builder()
+                .origin(request.getOrigin())
+                .destination(request.getDestination())
+                .departureTime(departureTime)
+                .arrivalTime(arrivalTime)
+                .seatCapacity(request.getSeatCapacity())
+                .build();
+    }
+
     /**
      * Maps a Flight entity to a FlightResponse.
      *
@@ -64,7 +88,6 @@ public class FlightMapper {
         flight.setDestination(request.getDestination());
         flight.setDepartureTime(request.getDepartureTime());
         flight.setArrivalTime(request.getArrivalTime());
-        flight.setFlightNumber(FlightUtils.generateFlightNumber(request.getOrigin(), request.getDestination()));
     }
 
     /**
@@ -84,6 +107,76 @@ public class FlightMapper {
                 .build();
     }
 
+    /**
+     * Maps a flight header projection to a FlightResponse.
+     *
+     * @param header the flight header projection
+     * @return a FlightResponse containing basic flight details
+     */
+    public FlightResponse mapToFlightResponse(FlightHeader header) {
+        return FlightResponse.builder()
+                .flightId(header.getFlightId())
+                .flightNumber(header.getFlightNumber())
+                .origin(header.getOrigin())
+                .destination(header.getDestination())
+                .departureTime(header.getDepartureTime())
+                .arrivalTime(header.getArrivalTime())
+                .seatCapacity(header.getSeatCapacity())
+                .build();
+    }
+
+    /**
+     * Maps a flight header and seat projections to a FlightDetailsResponse, splitting the seats
+     * into available and unavailable ones in a single pass.
+     *
+     * @param header the flight header projection
+     * @param seats  the seat projections of the flight
+     * @return a FlightDetailsResponse containing detailed flight information along with seat details
+     */
+    public FlightDetailsResponse mapToFlightDetailsResponse(FlightHeader header, List<SeatView> seats) {
+        List<FlightDetailsResponse.AvailableSeatInfo> availableSeats = new ArrayList<>(seats.size());
+        List<FlightDetailsResponse.UnavailableSeatInfo> unavailableSeats = new ArrayList<>();
+        for (SeatView seat : seats) {
+            if (seat.getStatus() == SeatStatus.AVAILABLE) {
+                availableSeats.add(FlightDetailsResponse.AvailableSeatInfo.builder()
+                        .seatId(seat.getSeatId())
+                        .seatNumber(seat.getSeatNumber())
+                        .seatPrice(seat.getPrice())
+                        .build());
+            } else {
+                unavailableSeats.add(FlightDetailsResponse.UnavailableSeatInfo.builder()
+                        .seatId(seat.getSeatId())
+                        .seatNumber(seat.getSeatNumber())
+                        .build());
+            }
+        }
+
+        return FlightDetailsResponse.builder()
+                .flight(mapToFlightResponse(header))
+                .availableSeats(availableSeats)
+                .unavailableSeats(unavailableSeats)
+                .build();
+    }
+
+    /**
+     * Maps a Flight entity and its aggregated seat availability to a FlightSummaryResponse.
+     *
+     * @param flight  the Flight entity, its seats are not accessed
+     * @param summary the seat availability of the flight, or null if the flight has no seats
+     * @return a FlightSummaryResponse containing flight information and seat counts
+     */
+    public FlightSummaryResponse mapToFlightSummaryResponse(Flight flight, SeatAvailabilitySummary summary) {
+        FlightSummaryResponse.FlightSummaryResponseBuilder builder = FlightSummaryResponse.builder()
+                .flight(mapToFlightResponse(flight));
+        if (summary != null) {
+            builder.availableSeatCount(summary.getAvailableSeatCount())
+                    .soldSeatCount(summary.getSoldSeatCount())
+                    .minAvailablePrice(summary.getMinAvailablePrice())
+                    .maxAvailablePrice(summary.getMaxAvailablePrice());
+        }
+        return builder.build();
+    }
+
     /**
      * Maps available seats of a flight to a list of AvailableSeatInfo.
      *
@@ -109,7 +202,7 @@ public class FlightMapper {
      */
     private List<FlightDetailsResponse.UnavailableSeatInfo> mapUnavailableSeats(Flight flight) {
         return flight.getSeats().stream()
-                .filter(seat -> seat.getStatus() == SeatStatus.UNAVAILABLE)
+                .filter(seat -> seat.getStatus() != SeatStatus.AVAILABLE)
                 .map(seat -> FlightDetailsResponse.UnavailableSeatInfo.builder()
                         .seatId(seat.getId())
                         .seatNumber(seat.getSeatNumber())
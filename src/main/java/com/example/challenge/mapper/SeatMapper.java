@@ -2,8 +2,9 @@ package com.example.challenge.mapper;
 
 import com.example.challenge.domain.entity.Flight;
 import com.example.challenge.domain.entity.Seat;
-import com.example.challenge.utils.FlightUtils;
+import com.example.challenge.domain.projection.SeatDetailsView;
 import com.example.challenge.web.model.v1.request.CreateSeatRequest;
+import com.example.challenge.web.model.v1.request.SeatBatchRequest;
 import com.example.challenge.web.model.v1.response.SeatDetailsResponse;
 import com.example.challenge.web.model.v1.response.SeatResponse;
 import org.springframework.stereotype.Component;
@@ -18,19 +19,37 @@ public class SeatMapper {
     /**
      * Maps an AddSeatRequest to a Seat entity.
      *
-     * @param request the AddSeatRequest containing seat creation details
-     * @param flight  the Flight entity to which the seat belongs
+     * @param request    the AddSeatRequest containing seat creation details
+     * @param flight     the Flight entity to which the seat belongs
+     * @param seatNumber the seat number allocated for the seat
      * @return a Seat entity populated with the request's details
      */
-    public Seat mapToSeat(CreateSeatRequest request, Flight flight) {
+    public Seat mapToSeat(CreateSeatRequest request, Flight flight, String seatNumber) {
         return Seat.builder()
-                .seatNumber(FlightUtils.getNextSeatNumber(flight)) // Generates the next seat number
+                .seatNumber(seatNumber)
                 .price(request.getPrice())
                 .status(request.getStatus())
                 .flight(flight)
                 .build();
     }
 
+    /**
+     * Maps an add operation of a seat batch to a Seat entity.
+     *
+     * @param operation  the add operation containing the seat's price and status
+     * @param flight     the Flight entity to which the seat belongs
+     * @param seatNumber the seat number allocated for the seat, or null if it is allocated when the seat is written
+     * @return a Seat entity populated with the operation's details
+     */
+    public Seat mapToSeat(SeatBatchRequest.SeatOperation operation, Flight flight, String seatNumber) {
+        return Seat.builder()
+                .seatNumber(seatNumber)
+                .price(operation.getPrice())
+                .status(operation.getStatus())
+                .flight(flight)
+                .build();
+    }
+
     /**
      * Maps a Seat entity to a SeatResponse.
      * This response contains basic information about the seat, such as its ID, number, price, and status.
@@ -67,4 +86,29 @@ public class SeatMapper {
                         .build())
                 .build();
     }
+
+    /**
+     * Maps a seat details projection to a SeatDetailsResponse. The projection already carries the
+     * flight fields, so no Flight entity is involved.
+     *
+     * @param view the seat joined to its flight header
+     * @return a SeatDetailsResponse containing detailed seat and flight information
+     */
+    public SeatDetailsResponse mapToSeatDetailsResponse(SeatDetailsView view) {
+        return SeatDetailsResponse.builder()
+                .seat(SeatResponse.builder()
+                        .seatId(view.getSeatId())
+                        .seatNumber(view.getSeatNumber())
+                        .price(view.getPrice())
+                        .status(view.getStatus())
+                        .build())
+                .flight(SeatDetailsResponse.FlightInfo.builder()
+                        .flightNumber(view.getFlightNumber())
+                        .origin(view.getOrigin())
+                        .destination(view.getDestination())
+                        .departureTime(view.getDepartureTime())
+                        .arrivalTime(view.getArrivalTime())
+                        .build())
+                .build();
+    }
 }
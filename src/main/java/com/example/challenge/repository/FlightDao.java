@@ -1,14 +1,44 @@
 package com.example.challenge.repository;
 
 import com.example.challenge.domain.entity.Flight;
+import com.example.challenge.domain.entity.Seat;
+import com.example.challenge.domain.enums.SeatStatus;
+import com.example.challenge.domain.projection.FlightHeader;
+import com.example.challenge.domain.projection.FlightSeatRow;
+import com.example.challenge.domain.projection.FlightVersions;
+import com.example.challenge.infrastructure.cache.FlightCatalogCache;
 import com.example.challenge.infrastructure.exception.BusinessException;
+import com.example.challenge.utils.FlightCursor;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Helper class for FlightRepository, encapsulating database operations
@@ -19,7 +49,23 @@ import java.util.List;
 @RequiredArgsConstructor
 public class FlightDao {
 
+    /**
+     * Seats of a flight that can be removed: unsold and never referenced by a payment.
+     */
+    private static final String REMOVABLE_SEAT_CONDITION = "s.flight_id = ? AND s.status = ? " +
+            "AND NOT EXISTS (SELECT 1 FROM payment p WHERE p.seat_id = s.id) ";
+
     private final FlightRepository flightRepository;
+    private final SeatRepository seatRepository;
+    private final FlightCatalogCache flightCatalogCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+
+    @Value("${flight.export.fetch-size:500}")
+    private int exportFetchSize;
+
+    @Value("${flight.seat-insert.batch-size:500}")
+    private int seatInsertBatchSize;
 
     /**
      * Retrieves a flight with its seats by ID.
@@ -39,18 +85,173 @@ public class FlightDao {
     }
 
     /**
-     * Retrieves all flights with their associated seats.
-     * @return list of flights
+     * Retrieves a flight by ID without its seats, which are left uninitialized.
+     *
+     * @param flightId the ID of the flight
+     * @return the flight entity
+     * @throws BusinessException if the flight is not found
+     */
+    @Transactional(readOnly = true)
+    public Flight getFlightWithoutSeats(Long flightId) {
+        return flightRepository.findById(flightId)
+                .orElseThrow(() -> {
+                    log.error("Flight with ID: {} not found", flightId);
+                    return new BusinessException("business.error.flight_not_found", HttpStatus.NOT_FOUND);
+                });
+    }
+
+    /**
+     * Retrieves the header fields of a flight as a read-only projection, without loading the flight entity or its seats.
+     *
+     * @param flightId the ID of the flight
+     * @return the flight header
+     * @throws BusinessException if the flight is not found
+     */
+    @Transactional(readOnly = true)
+    public FlightHeader getFlightHeader(Long flightId) {
+        return flightRepository.findHeaderById(flightId)
+                .orElseThrow(() -> {
+                    log.error("Flight with ID: {} not found", flightId);
+                    return new BusinessException("business.error.flight_not_found", HttpStatus.NOT_FOUND);
+                });
+    }
+
+    /**
+     * Retrieves the version and the seat revision of a flight with a single primary key lookup, without loading
+     * the flight.
+     *
+     * @param flightId the ID of the flight
+     * @return the version and seat revision of the flight
+     * @throws BusinessException if the flight is not found
+     */
+    @Transactional(readOnly = true)
+    public FlightVersions getFlightVersions(Long flightId) {
+        return flightRepository.findVersionsById(flightId)
+                .orElseThrow(() -> {
+                    log.error("Flight with ID: {} not found", flightId);
+                    return new BusinessException("business.error.flight_not_found", HttpStatus.NOT_FOUND);
+                });
+    }
+
+    /**
+     * Checks whether a flight exists, without loading it.
+     *
+     * @param flightId the ID of the flight
+     * @throws BusinessException if the flight is not found
      */
     @Transactional(readOnly = true)
-    public List<Flight> getAllFlightsWithSeats() {
-        return flightRepository.findAllWithSeats();
+    public void assertFlightExists(Long flightId) {
+        if (!flightRepository.existsById(flightId)) {
+            log.error("Flight with ID: {} not found", flightId);
+            throw new BusinessException("business.error.flight_not_found", HttpStatus.NOT_FOUND);
+        }
     }
 
     /**
-     * Deletes a flight by its ID.
+     * Retrieves one page of IDs of flights departing after the given time.
+     * Filtering, ordering and limit/offset are all applied by the database.
+     *
+     * @param now      the reference time, flights departing after it are returned
+     * @param pageable the page request, including its sort order
+     * @return a page of flight IDs
+     */
+    @Transactional(readOnly = true)
+    public Page<Long> getFutureFlightIds(LocalDateTime now, Pageable pageable) {
+        return flightRepository.findFutureFlightIds(now, pageable);
+    }
+
+    /**
+     * Retrieves IDs of future flights positioned after the given cursor in (departure time, ID) order.
+     * Each call is a range scan starting at the cursor, so its cost does not depend on how deep the page is.
+     *
+     * @param now    the reference time, flights departing after it are returned
+     * @param cursor the position to continue after, or null to start from the first flight
+     * @param limit  the maximum number of IDs to return
+     * @return the flight IDs in (departure time, ID) order
+     */
+    @Transactional(readOnly = true)
+    public List<Long> getFutureFlightIdsAfter(LocalDateTime now, FlightCursor cursor, int limit) {
+        LocalDateTime afterDepartureTime = cursor != null ? cursor.getDepartureTime() : now;
+        Long afterFlightId = cursor != null ? cursor.getFlightId() : Long.MAX_VALUE;
+        return flightRepository.findFutureFlightIdsAfter(now, afterDepartureTime, afterFlightId, PageRequest.of(0, limit));
+    }
+
+    /**
+     * Streams every future flight joined to its seats through a forward-only, read-only cursor, fetching
+     * {@code flight.export.fetch-size} rows per round trip. Rows arrive ordered by departure time and flight,
+     * with the available seats of a flight before its unavailable ones; nothing is kept after a row is handled.
+     *
+     * @param now     the reference time, flights departing after it are returned
+     * @param handler called once per row, or once per flight without seats
+     */
+    public void forEachFutureFlightSeatRow(LocalDateTime now, Consumer<FlightSeatRow> handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT f.id, f.flight_number, f.origin, f.destination, f.departure_time, f.arrival_time, " +
+                            "       f.seat_capacity, s.id, s.seat_number, s.price, s.status " +
+                            "FROM flight f LEFT JOIN seat s ON s.flight_id = f.id " +
+                            "WHERE f.departure_time > ? " +
+                            "ORDER BY f.departure_time, f.id, s.status, s.id",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(exportFetchSize);
+            statement.setObject(1, now);
+            return statement;
+        }, (RowCallbackHandler) resultSet -> {
+            String seatStatus = resultSet.getString(11);
+            handler.accept(new FlightSeatRow(
+                    resultSet.getLong(1),
+                    resultSet.getString(2),
+                    resultSet.getString(3),
+                    resultSet.getString(4),
+                    resultSet.getObject(5, LocalDateTime.class),
+                    resultSet.getObject(6, LocalDateTime.class),
+                    resultSet.getInt(7),
+                    resultSet.getObject(8, Long.class),
+                    resultSet.getString(9),
+                    resultSet.getBigDecimal(10),
+                    seatStatus != null ? SeatStatus.valueOf(seatStatus) : null));
+        });
+    }
+
+    /**
+     * Retrieves one page of flights departing after the given time, without their seats.
+     *
+     * @param now      the reference time, flights departing after it are returned
+     * @param pageable the page request, including its sort order
+     * @return a page of flights whose seats are not loaded
+     */
+    @Transactional(readOnly = true)
+    public Page<Flight> getFutureFlights(LocalDateTime now, Pageable pageable) {
+        return flightRepository.findByDepartureTimeAfter(now, pageable);
+    }
+
+    /**
+     * Retrieves the flights with the given IDs along with their seats,
+     * preserving the order of the given IDs. IDs that no longer exist are skipped.
+     *
+     * @param flightIds the IDs of the flights
+     * @return list of flights in the order of the given IDs
+     */
+    @Transactional(readOnly = true)
+    public List<Flight> getFlightsWithSeats(List<Long> flightIds) {
+        if (flightIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Flight> flightsById = flightRepository.findAllWithSeatsByIdIn(flightIds).stream()
+                .collect(Collectors.toMap(Flight::getId, Function.identity()));
+        return flightIds.stream()
+                .map(flightsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Deletes a flight and its seats with two bulk statements in one transaction, without loading either.
+     * The available seats are deleted first, then the flight only if no seat is left; a seat sold since
+     * the caller's check therefore rolls the whole removal back.
      *
      * @param flightId the ID of the flight to delete
+     * @throws BusinessException if the flight is not found or has sold seats
      */
     @Transactional
     public void deleteFlightById(Long flightId) {
@@ -58,8 +259,369 @@ public class FlightDao {
             log.warn("Flight with ID {} does not exist. Skipping delete operation.", flightId);
             throw new BusinessException("business.error.flight_not_found", HttpStatus.NOT_FOUND);
         }
-        flightRepository.deleteById(flightId);
-        log.info("Flight with ID {} successfully deleted.", flightId);
+        int deletedSeats = seatRepository.deleteAvailableByFlightId(flightId);
+        if (flightRepository.deleteWithoutSeatsById(flightId) == 0) {
+            log.warn("Cannot delete flight with ID: {} because some of its seats are sold", flightId);
+            throw new BusinessException("business.error.flight_has_sold_seats", HttpStatus.CONFLICT);
+        }
+        flightCatalogCache.invalidate(flightId);
+        log.info("Flight with ID {} successfully deleted with {} seats.", flightId, deletedSeats);
+    }
+
+    /**
+     * Saves a new flight and creates its seats, numbered from 1 to the seat capacity, in the same transaction.
+     * Seats are written with JDBC batches of {@code flight.seat-insert.batch-size} rows instead of being cascaded,
+     * as identity-generated entities are inserted one statement at a time. The seat number counter of the flight
+     * starts after its last seat.
+     *
+     * @param flight    the new flight, without seats
+     * @param seatPrice the price of every seat
+     * @return the saved flight, detached; its seat collection is not populated
+     */
+    @Transactional
+    public Flight createFlightWithSeats(Flight flight, BigDecimal seatPrice) {
+        flight.setNextSeatNumber(flight.getSeatCapacity() + 1);
+        Flight savedFlight = flightRepository.save(flight);
+        insertSeats(savedFlight.getId(), seatNumbersUpTo(savedFlight.getSeatCapacity()), seatPrice);
+        // The seats were written behind the persistence context, so an enclosing transaction must reload the flight
+        entityManager.detach(savedFlight);
+        flightCatalogCache.invalidate(savedFlight.getId());
+        return savedFlight;
+    }
+
+    /**
+     * Creates a chunk of new flights with their seats in one transaction. The flights are written with a single
+     * JDBC batch returning their generated IDs, and the seats of each flight with JDBC batches of
+     * {@code flight.seat-insert.batch-size} rows; no entity enters the persistence context.
+     *
+     * @param flights    the new flights, without seats
+     * @param seatPrices the price of every seat of each flight, in the order of the flights
+     * @return the IDs of the created flights, in the order of the flights
+     */
+    @Transactional
+    public List<Long> importFlights(List<Flight> flights, List<BigDecimal> seatPrices) {
+        List<Long> flightIds = jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO flight (version, flight_number, origin, destination, departure_time, arrival_time, " +
+                            "seat_capacity, next_seat_number) VALUES (0, ?, ?, ?, ?, ?, ?, ?)", new String[]{"ID"})) {
+                for (Flight flight : flights) {
+                    statement.setString(1, flight.getFlightNumber());
+                    statement.setString(2, flight.getOrigin());
+                    statement.setString(3, flight.getDestination());
+                    statement.setObject(4, flight.getDepartureTime());
+                    statement.setObject(5, flight.getArrivalTime());
+                    statement.setInt(6, flight.getSeatCapacity());
+                    statement.setInt(7, flight.getSeatCapacity() + 1);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                List<Long> generatedIds = new ArrayList<>(flights.size());
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        generatedIds.add(keys.getLong(1));
+                    }
+                }
+                return generatedIds;
+            }
+        });
+        if (flightIds == null || flightIds.size() != flights.size()) {
+            throw new IllegalStateException("Expected " + flights.size() + " generated flight IDs, got " + flightIds);
+        }
+        for (int i = 0; i < flights.size(); i++) {
+            insertSeats(flightIds.get(i), seatNumbersUpTo(flights.get(i).getSeatCapacity()), seatPrices.get(i));
+        }
+        log.debug("Imported {} flights", flights.size());
+        return flightIds;
+    }
+
+    /**
+     * Writes the seat changes of a batch to a flight in one transaction and sets the seat capacity of the flight
+     * to its seat count with a single recount. Updated seats are flushed as one JDBC batch, removed seats are deleted
+     * with one statement and their numbers freed, and added seats are numbered by {@link #allocateSeatNumbers},
+     * reusing the freed numbers first, then inserted with JDBC batches that assign their generated IDs.
+     *
+     * @param flight       the flight, locked by the caller
+     * @param removedSeats the available seats to remove
+     * @param addedSeats   the new seats, given their numbers and IDs once inserted
+     * @return the new seat capacity of the flight
+     * @throws BusinessException if a seat to remove was sold concurrently
+     */
+    @Transactional
+    public int applySeatChanges(Flight flight, List<Seat> removedSeats, List<Seat> addedSeats) {
+        Long flightId = flight.getId();
+        seatRepository.flush();
+        if (!removedSeats.isEmpty()) {
+            int removed = seatRepository.deleteAvailableByIdIn(removedSeats.stream()
+                    .map(Seat::getId)
+                    .collect(Collectors.toList()));
+            if (removed != removedSeats.size()) {
+                log.warn("Only {} of {} seats of flight ID: {} could be removed", removed, removedSeats.size(), flightId);
+                throw new BusinessException("business.error.concurrent_modification", HttpStatus.CONFLICT);
+            }
+            freeSeatNumbers(flightId, removedSeats.stream()
+                    .map(Seat::getSeatNumber)
+                    .collect(Collectors.toList()));
+        }
+        if (!addedSeats.isEmpty()) {
+            List<String> seatNumbers = allocateSeatNumbers(flightId, addedSeats.size());
+            for (int i = 0; i < addedSeats.size(); i++) {
+                addedSeats.get(i).setSeatNumber(seatNumbers.get(i));
+            }
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "INSERT INTO seat (version, seat_number, price, status, flight_id) VALUES (0, ?, ?, ?, ?)",
+                        new String[]{"ID"})) {
+                    for (Seat seat : addedSeats) {
+                        statement.setString(1, seat.getSeatNumber());
+                        statement.setBigDecimal(2, seat.getPrice());
+                        statement.setString(3, seat.getStatus().name());
+                        statement.setLong(4, flightId);
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                    try (ResultSet keys = statement.getGeneratedKeys()) {
+                        for (Seat seat : addedSeats) {
+                            if (!keys.next()) {
+                                throw new IllegalStateException("Missing generated ID of seat " + seat.getSeatNumber());
+                            }
+                            seat.setId(keys.getLong(1));
+                            seat.setVersion(0);
+                        }
+                    }
+                }
+                return null;
+            });
+        }
+        Integer seatCapacity = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM seat WHERE flight_id = ?", Integer.class, flightId);
+        jdbcTemplate.update("UPDATE flight SET seat_capacity = ?, version = version + 1 WHERE id = ?", seatCapacity, flightId);
+        // The flight row was changed behind the persistence context
+        entityManager.detach(flight);
+        flightCatalogCache.invalidate(flightId);
+        log.debug("Applied seat changes to flight ID: {}, seat capacity is now {}", flightId, seatCapacity);
+        return seatCapacity;
+    }
+
+    /**
+     * Locks a flight, applies the changes to it, sets the price of its available seats and brings its number of seats
+     * to its seat capacity, without loading or regenerating any seat. Repricing is a single bulk update of the seats whose price differs.
+     * Growing adds seats numbered by {@link #allocateSeatNumbers} with one JDBC batch; shrinking
+     * removes the highest-numbered seats that are neither sold nor referenced by a payment with one bulk delete,
+     * and frees their numbers. Every other seat keeps its ID. The changes are applied to the flight as read under the
+     * lock rather than merged from an earlier read, so seat sales and seat changes in between do not make the update
+     * fail, and the seats are counted under the lock, so concurrent seat additions or removals cannot change the count
+     * the difference is computed from.
+     *
+     * @param flightId  the ID of the flight
+     * @param changes   the changes to apply to the locked flight, including its new seat capacity
+     * @param seatPrice the price of available and added seats
+     * @return the saved flight, detached; its seat collection does not reflect the seat changes
+     * @throws BusinessException if the flight does not exist, or if not enough seats can be removed to reach
+     *                           the seat capacity
+     */
+    @Transactional
+    public Flight updateFlightWithSeats(Long flightId, Consumer<Flight> changes, BigDecimal seatPrice) {
+        Flight flight = flightRepository.findByIdForUpdate(flightId)
+                .orElseThrow(() -> {
+                    log.error("Flight with ID: {} not found", flightId);
+                    return new BusinessException("business.error.flight_not_found", HttpStatus.NOT_FOUND);
+                });
+        int seatCount = seatRepository.countByFlightId(flightId);
+        changes.accept(flight);
+        Flight savedFlight = flightRepository.saveAndFlush(flight);
+        // Seats are changed behind the persistence context, so drop the flight and its seats from it first
+        entityManager.detach(savedFlight);
+        int repriced = seatRepository.setAvailableSeatPrice(List.of(flightId), 1, Integer.MAX_VALUE, seatPrice);
+        log.debug("Repriced {} seats of flight ID: {}", repriced, flightId);
+        int change = savedFlight.getSeatCapacity() - seatCount;
+        if (change > 0) {
+            insertSeats(flightId, allocateSeatNumbers(flightId, change), seatPrice);
+        } else if (change < 0) {
+            // Pick the seats first, so a rejected shrink leaves the seats untouched even inside an enclosing transaction
+            List<String> removedSeatNumbers = jdbcTemplate.queryForList(
+                    "SELECT s.seat_number FROM seat s WHERE " + REMOVABLE_SEAT_CONDITION +
+                            "ORDER BY CAST(s.seat_number AS INT) DESC " +
+                            "FETCH FIRST ? ROWS ONLY",
+                    String.class, flightId, SeatStatus.AVAILABLE.name(), -change);
+            if (removedSeatNumbers.size() < -change) {
+                log.warn("Cannot remove {} seats from flight ID: {}, only {} are unsold",
+                        -change, flightId, removedSeatNumbers.size());
+                throw new BusinessException("business.error.flight_capacity_cannot_be_updated_due_to_sold_seats", HttpStatus.CONFLICT);
+            }
+            // The picked seats are the removable seats numbered from the lowest picked number up
+            int removed = jdbcTemplate.update(
+                    "DELETE FROM seat WHERE id IN (" +
+                            "  SELECT s.id FROM seat s WHERE " + REMOVABLE_SEAT_CONDITION +
+                            "  AND CAST(s.seat_number AS INT) >= ?)",
+                    flightId, SeatStatus.AVAILABLE.name(),
+                    Integer.parseInt(removedSeatNumbers.get(removedSeatNumbers.size() - 1)));
+            if (removed != -change) {
+                log.warn("Removed {} instead of {} seats from flight ID: {}", removed, -change, flightId);
+                throw new BusinessException("business.error.concurrent_modification", HttpStatus.CONFLICT);
+            }
+            freeSeatNumbers(flightId, removedSeatNumbers);
+            log.debug("Removed {} seats from flight ID: {}", removed, flightId);
+        }
+        flightRepository.incrementSeatRevision(flightId);
+        flightCatalogCache.invalidate(flightId);
+        return savedFlight;
+    }
+
+    /**
+     * Allocates numbers for new seats of a flight whose row the caller has locked: the lowest numbers freed by removed
+     * seats first, then numbers taken from the seat number counter of the flight. Only the numbers handed out are
+     * read, through the primary keys of the free numbers and of the seat numbers, so the cost does not depend on how
+     * many seats the flight has. Numbers already used by seats written without the allocator are skipped.
+     *
+     * @param flightId the ID of the flight, locked by the caller
+     * @param count    the number of seat numbers to allocate
+     * @return the seat numbers in ascending order
+     */
+    @Transactional
+    public List<String> allocateSeatNumbers(Long flightId, int count) {
+        SortedSet<Integer> seatNumbers = new TreeSet<>();
+        while (seatNumbers.size() < count) {
+            List<Integer> candidates = takeSeatNumbers(flightId, count - seatNumbers.size());
+            candidates.removeAll(findUsedSeatNumbers(flightId, candidates));
+            seatNumbers.addAll(candidates);
+        }
+        return seatNumbers.stream()
+                .map(String::valueOf)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Records the numbers of removed seats of a flight as free, for {@link #allocateSeatNumbers} to hand out again.
+     * As with allocation, the caller must hold the lock of the flight row.
+     *
+     * @param flightId    the ID of the flight
+     * @param seatNumbers the numbers of the removed seats
+     */
+    @Transactional
+    public void freeSeatNumbers(Long flightId, Collection<String> seatNumbers) {
+        // Seat numbers that are not numeric were not allocated here, and cannot collide with allocated ones
+        List<Integer> numericSeatNumbers = seatNumbers.stream()
+                .filter(seatNumber -> !seatNumber.isEmpty() && seatNumber.chars().allMatch(Character::isDigit))
+                .map(Integer::valueOf)
+                .collect(Collectors.toList());
+        jdbcTemplate.batchUpdate("INSERT INTO free_seat_number (flight_id, seat_number) VALUES (?, ?)",
+                numericSeatNumbers, seatInsertBatchSize, (statement, seatNumber) -> {
+                    statement.setLong(1, flightId);
+                    statement.setInt(2, seatNumber);
+                });
+    }
+
+    /**
+     * Sets the price of the available seats numbered within the range on every given flight with one bulk update,
+     * then bumps the seat revisions of the flights and evicts them from the caches. No seat entity is loaded.
+     *
+     * @param flightIds      the IDs of the flights
+     * @param fromSeatNumber the lowest seat number to reprice
+     * @param toSeatNumber   the highest seat number to reprice
+     * @param price          the new price
+     * @return the number of seats whose price changed
+     */
+    @Transactional
+    public int setAvailableSeatPrice(List<Long> flightIds, int fromSeatNumber, int toSeatNumber, BigDecimal price) {
+        int repriced = seatRepository.setAvailableSeatPrice(flightIds, fromSeatNumber, toSeatNumber, price);
+        seatsRepriced(flightIds, repriced);
+        return repriced;
+    }
+
+    /**
+     * Multiplies the price of the available seats numbered within the range on every given flight by a factor
+     * with one bulk update, then bumps the seat revisions of the flights and evicts them from the caches.
+     *
+     * @param flightIds      the IDs of the flights
+     * @param fromSeatNumber the lowest seat number to reprice
+     * @param toSeatNumber   the highest seat number to reprice
+     * @param factor         the factor to multiply the prices by
+     * @return the number of repriced seats
+     */
+    @Transactional
+    public int scaleAvailableSeatPrice(List<Long> flightIds, int fromSeatNumber, int toSeatNumber, BigDecimal factor) {
+        int repriced = seatRepository.scaleAvailableSeatPrice(flightIds, fromSeatNumber, toSeatNumber, factor);
+        seatsRepriced(flightIds, repriced);
+        return repriced;
+    }
+
+    private void seatsRepriced(List<Long> flightIds, int repriced) {
+        if (repriced == 0) {
+            return;
+        }
+        flightRepository.incrementSeatRevisions(flightIds);
+        flightIds.forEach(flightCatalogCache::invalidate);
+        log.debug("Repriced {} seats across {} flights", repriced, flightIds.size());
+    }
+
+    /**
+     * Takes the lowest free seat numbers of a flight, then as many numbers as are still missing from its counter.
+     */
+    private List<Integer> takeSeatNumbers(Long flightId, int count) {
+        List<Integer> seatNumbers = jdbcTemplate.queryForList(
+                "SELECT seat_number FROM free_seat_number WHERE flight_id = ? ORDER BY seat_number FETCH FIRST ? ROWS ONLY",
+                Integer.class, flightId, count);
+        if (!seatNumbers.isEmpty()) {
+            // Exactly the numbers taken, so a number freed meanwhile is left for the next allocation
+            List<Object> arguments = new ArrayList<>(seatNumbers.size() + 1);
+            arguments.add(flightId);
+            arguments.addAll(seatNumbers);
+            jdbcTemplate.update("DELETE FROM free_seat_number WHERE flight_id = ? AND seat_number IN (" +
+                    String.join(", ", Collections.nCopies(seatNumbers.size(), "?")) + ")", arguments.toArray());
+        }
+        int remaining = count - seatNumbers.size();
+        if (remaining > 0) {
+            int nextSeatNumber = takeNextSeatNumbers(flightId, remaining);
+            IntStream.range(nextSeatNumber, nextSeatNumber + remaining).forEach(seatNumbers::add);
+        }
+        return seatNumbers;
+    }
+
+    /**
+     * Advances the seat number counter of a flight past the given number of seats.
+     *
+     * @return the first of the seat numbers taken
+     */
+    private int takeNextSeatNumbers(Long flightId, int count) {
+        Integer nextSeatNumber = jdbcTemplate.queryForObject(
+                "SELECT next_seat_number FROM flight WHERE id = ?", Integer.class, flightId);
+        jdbcTemplate.update("UPDATE flight SET next_seat_number = next_seat_number + ? WHERE id = ?", count, flightId);
+        return nextSeatNumber;
+    }
+
+    private List<Integer> findUsedSeatNumbers(Long flightId, List<Integer> seatNumbers) {
+        List<Object> arguments = new ArrayList<>(seatNumbers.size() + 1);
+        arguments.add(flightId);
+        seatNumbers.forEach(seatNumber -> arguments.add(String.valueOf(seatNumber)));
+        return jdbcTemplate.queryForList(
+                "SELECT CAST(seat_number AS INT) FROM seat WHERE flight_id = ? AND seat_number IN (" +
+                        String.join(", ", Collections.nCopies(seatNumbers.size(), "?")) + ")",
+                Integer.class, arguments.toArray());
+    }
+
+    /**
+     * Inserts available seats with the given numbers for a flight using JDBC batches.
+     *
+     * @param flightId    the ID of the flight
+     * @param seatNumbers the numbers of the seats to insert
+     * @param seatPrice   the price of every seat
+     */
+    private void insertSeats(Long flightId, List<String> seatNumbers, BigDecimal seatPrice) {
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO seat (version, seat_number, price, status, flight_id) VALUES (0, ?, ?, ?, ?)",
+                seatNumbers, seatInsertBatchSize, (statement, seatNumber) -> {
+                    statement.setString(1, seatNumber);
+                    statement.setBigDecimal(2, seatPrice);
+                    statement.setString(3, SeatStatus.AVAILABLE.name());
+                    statement.setLong(4, flightId);
+                });
+        log.debug("Inserted {} seats for flight ID: {}", seatNumbers.size(), flightId);
+    }
+
+    private static List<String> seatNumbersUpTo(int seatCapacity) {
+        return IntStream.rangeClosed(1, seatCapacity)
+                .mapToObj(String::valueOf)
+                .collect(Collectors.toList());
     }
 
     /**
@@ -69,6 +631,13 @@ public class FlightDao {
      */
     @Transactional
     public Flight saveFlight(Flight flight) {
-        return flightRepository.save(flight);
+        boolean existingFlight = flight.getId() != null;
+        Flight savedFlight = flightRepository.save(flight);
+        if (existingFlight) {
+            // Seat changes cascade without touching the flight row, so bump the seat revision explicitly
+            flightRepository.incrementSeatRevision(savedFlight.getId());
+        }
+        flightCatalogCache.invalidate(savedFlight.getId());
+        return savedFlight;
     }
 }
@@ -1,11 +1,21 @@
 package com.example.challenge.repository;
 
 import com.example.challenge.domain.entity.Flight;
+import com.example.challenge.domain.projection.FlightHeader;
+import com.example.challenge.domain.projection.FlightVersions;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -15,6 +25,82 @@ public interface FlightRepository extends JpaRepository<Flight, Long> {
     @Query("SELECT f FROM Flight f LEFT JOIN FETCH f.seats WHERE f.id = :flightId")
     Optional<Flight> findByIdWithSeats(@Param("flightId") Long flightId);
 
-    @Query("SELECT DISTINCT f FROM Flight f LEFT JOIN FETCH f.seats")
-    List<Flight> findAllWithSeats();
+    /**
+     * Loads a flight without its seats and locks its row until the transaction ends,
+     * serializing changes to the seats of the flight.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT f FROM Flight f WHERE f.id = :flightId")
+    Optional<Flight> findByIdForUpdate(@Param("flightId") Long flightId);
+
+    @Query(value = "SELECT f.id FROM Flight f WHERE f.departureTime > :now",
+            countQuery = "SELECT COUNT(f) FROM Flight f WHERE f.departureTime > :now")
+    Page<Long> findFutureFlightIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    /**
+     * Keyset page of future flight IDs after the given (departure time, ID) position. The redundant
+     * {@code departure_time >= :afterDepartureTime} predicate lets the database start the
+     * (departure_time, id) index range at the cursor; the OR condition alone is only applied as a filter.
+     * H2 otherwise prefers the departure_time index, which cannot return the rows in ID order and so reads
+     * and sorts every later flight, hence the index hint.
+     */
+    @Query(value = "SELECT f.id FROM flight f USE INDEX (idx_flight_departure_time_id) " +
+            "WHERE f.departure_time > :now " +
+            "  AND f.departure_time >= :afterDepartureTime " +
+            "  AND (f.departure_time > :afterDepartureTime " +
+            "       OR (f.departure_time = :afterDepartureTime AND f.id > :afterFlightId)) " +
+            "ORDER BY f.departure_time, f.id",
+            nativeQuery = true)
+    List<Long> findFutureFlightIdsAfter(@Param("now") LocalDateTime now,
+                                        @Param("afterDepartureTime") LocalDateTime afterDepartureTime,
+                                        @Param("afterFlightId") Long afterFlightId,
+                                        Pageable pageable);
+
+    @Query("SELECT new com.example.challenge.domain.projection.FlightHeader(" +
+            "  f.id, f.flightNumber, f.origin, f.destination, f.departureTime, f.arrivalTime, f.seatCapacity) " +
+            "FROM Flight f " +
+            "WHERE f.id = :flightId")
+    Optional<FlightHeader> findHeaderById(@Param("flightId") Long flightId);
+
+    @Query("SELECT new com.example.challenge.domain.projection.FlightVersions(f.version, f.seatRevision) " +
+            "FROM Flight f " +
+            "WHERE f.id = :flightId")
+    Optional<FlightVersions> findVersionsById(@Param("flightId") Long flightId);
+
+    /**
+     * Bumps the seat revision of a flight whose seats changed, leaving its version to changes of the flight itself.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Flight f SET f.seatRevision = f.seatRevision + 1 WHERE f.id = :flightId")
+    int incrementSeatRevision(@Param("flightId") Long flightId);
+
+    /**
+     * Bumps the seat revision of every given flight, for bulk seat changes spanning several flights.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Flight f SET f.seatRevision = f.seatRevision + 1 WHERE f.id IN :flightIds")
+    int incrementSeatRevisions(@Param("flightIds") Collection<Long> flightIds);
+
+    /**
+     * Changes the seat capacity of a flight by the given number of seats in place and bumps its version,
+     * so concurrent seat additions and removals never overwrite each other's capacity change.
+     */
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Flight f SET f.seatCapacity = f.seatCapacity + :delta, f.version = f.version + 1 WHERE f.id = :flightId")
+    int adjustSeatCapacity(@Param("flightId") Long flightId, @Param("delta") int delta);
+
+    /**
+     * Deletes a flight only if it has no seats left, so a seat sold after its flight was checked blocks the delete.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Flight f WHERE f.id = :flightId AND NOT EXISTS (SELECT s.id FROM Seat s WHERE s.flight.id = :flightId)")
+    int deleteWithoutSeatsById(@Param("flightId") Long flightId);
+
+    Page<Flight> findByDepartureTimeAfter(LocalDateTime now, Pageable pageable);
+
+    @Query("SELECT DISTINCT f FROM Flight f LEFT JOIN FETCH f.seats WHERE f.id IN :flightIds")
+    List<Flight> findAllWithSeatsByIdIn(@Param("flightIds") Collection<Long> flightIds);
 }
@@ -3,31 +3,44 @@ package com.example.challenge.repository;
 import com.example.challenge.domain.entity.Payment;
 import com.example.challenge.domain.enums.PaymentStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
 
-    boolean existsBySeatIdAndStatus(Long seatId, PaymentStatus status);
-
-    @Query("SELECT CASE WHEN COUNT(p) > 0 THEN TRUE ELSE FALSE END " +
-            "FROM Payment p " +
-            "WHERE p.seat.id = :seatId " +
-            "  AND p.createdAt < :newPaymentCreatedAt " +
-            "  AND (p.status = 'PENDING' OR p.status = 'WAITING')")
-    boolean existsBySeatIdAndOlderPending(@Param("seatId") Long seatId,
-                                          @Param("newPaymentCreatedAt") LocalDateTime newPaymentCreatedAt);
+    List<Payment> findAllByStatusOrderByCreatedAtAscIdAsc(PaymentStatus status);
 
+    /**
+     * Finds the PENDING payments whose seat is still HELD for them, i.e. payments whose bank call never completed.
+     */
     @Query("SELECT p FROM Payment p " +
-            "WHERE p.seat.id = :seatId " +
-            "  AND p.status IN :statuses")
-    List<Payment> findAllBySeatIdAndStatusIn(@Param("seatId") Long seatId,
-                                             @Param("statuses") Collection<PaymentStatus> statuses);
-
-    Payment findFirstBySeatIdAndStatusOrderByCreatedAtAsc(Long seatId, PaymentStatus status);
+            "WHERE p.status = com.example.challenge.domain.enums.PaymentStatus.PENDING " +
+            "  AND p.seat.status = com.example.challenge.domain.enums.SeatStatus.HELD " +
+            "ORDER BY p.createdAt, p.id")
+    List<Payment> findPendingOfHeldSeats();
+
+    /**
+     * Changes the status of a payment only if it still has the expected status, in one statement.
+     *
+     * @return 1 if the payment was updated, 0 if its status had changed
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Payment p SET p.status = :status WHERE p.id = :paymentId AND p.status = :expectedStatus")
+    int updateStatus(@Param("paymentId") Long paymentId,
+                     @Param("expectedStatus") PaymentStatus expectedStatus,
+                     @Param("status") PaymentStatus status);
+
+    /**
+     * Fails the given payments that are still WAITING, in one statement.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Payment p SET p.status = com.example.challenge.domain.enums.PaymentStatus.FAILED " +
+            "WHERE p.id IN :paymentIds " +
+            "  AND p.status = com.example.challenge.domain.enums.PaymentStatus.WAITING")
+    int failWaiting(@Param("paymentIds") Collection<Long> paymentIds);
 
 }
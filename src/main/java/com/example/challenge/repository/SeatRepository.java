@@ -1,8 +1,15 @@
 package com.example.challenge.repository;
 
 import com.example.challenge.domain.entity.Seat;
+import com.example.challenge.domain.enums.SeatStatus;
+import com.example.challenge.domain.projection.SeatAvailabilitySummary;
+import com.example.challenge.domain.projection.SeatDetailsView;
+import com.example.challenge.domain.projection.SeatMapEntry;
+import com.example.challenge.domain.projection.SeatVersions;
+import com.example.challenge.domain.projection.SeatView;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
@@ -10,10 +17,140 @@ import org.springframework.stereotype.Repository;
 
 import javax.persistence.LockModeType;
 import javax.persistence.QueryHint;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface SeatRepository extends JpaRepository<Seat, Long> {
 
-    int countByFlightId(Long flightId);
+    /**
+     * Counts the seats of a flight on the seat table alone; the derived query joined the flight table and filtered
+     * on its ID, which made the database read every seat.
+     */
+    @Query("SELECT COUNT(s) FROM Seat s WHERE s.flight.id = :flightId")
+    int countByFlightId(@Param("flightId") Long flightId);
 
-}
\ No newline at end of file
+    boolean existsByFlightIdAndStatusNot(Long flightId, SeatStatus status);
+
+    /**
+     * Claims a seat for a payment in one statement: the seat is moved to HELD only if it is still AVAILABLE and has
+     * not changed since it was read, so of any number of concurrent claims exactly one updates the row.
+     *
+     * @return 1 if the seat was claimed, 0 if another payment or update got there first
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Seat s SET s.status = com.example.challenge.domain.enums.SeatStatus.HELD, s.version = s.version + 1 " +
+            "WHERE s.id = :seatId " +
+            "  AND s.version = :version " +
+            "  AND s.status = com.example.challenge.domain.enums.SeatStatus.AVAILABLE")
+    int claim(@Param("seatId") Long seatId, @Param("version") Integer version);
+
+    /**
+     * Claims a seat whatever its version, for the next payment waiting for it. As with {@link #claim}, of any number
+     * of concurrent claims exactly one updates the row.
+     *
+     * @return 1 if the seat was claimed, 0 if it is not AVAILABLE
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Seat s SET s.status = com.example.challenge.domain.enums.SeatStatus.HELD, s.version = s.version + 1 " +
+            "WHERE s.id = :seatId " +
+            "  AND s.status = com.example.challenge.domain.enums.SeatStatus.AVAILABLE")
+    int claimAvailable(@Param("seatId") Long seatId);
+
+    /**
+     * Moves a HELD seat to the given status once the payment holding it has completed, in one statement.
+     *
+     * @return 1 if the seat was updated, 0 if it was not HELD
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Seat s SET s.status = :status, s.version = s.version + 1 " +
+            "WHERE s.id = :seatId " +
+            "  AND s.status = com.example.challenge.domain.enums.SeatStatus.HELD")
+    int releaseHold(@Param("seatId") Long seatId, @Param("status") SeatStatus status);
+
+    /**
+     * Deletes the available seats of a flight with one statement, without loading them.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM Seat s WHERE s.flight.id = :flightId AND s.status = com.example.challenge.domain.enums.SeatStatus.AVAILABLE")
+    int deleteAvailableByFlightId(@Param("flightId") Long flightId);
+
+    /**
+     * Deletes the given seats with one statement, skipping any seat that is no longer available.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM Seat s WHERE s.id IN :seatIds AND s.status = com.example.challenge.domain.enums.SeatStatus.AVAILABLE")
+    int deleteAvailableByIdIn(@Param("seatIds") Collection<Long> seatIds);
+
+    @Query("SELECT new com.example.challenge.domain.projection.SeatAvailabilitySummary(" +
+            "  s.flight.id, " +
+            "  SUM(CASE WHEN s.status = 'AVAILABLE' THEN 1 ELSE 0 END), " +
+            "  SUM(CASE WHEN s.status <> 'AVAILABLE' THEN 1 ELSE 0 END), " +
+            "  MIN(CASE WHEN s.status = 'AVAILABLE' THEN s.price END), " +
+            "  MAX(CASE WHEN s.status = 'AVAILABLE' THEN s.price END)) " +
+            "FROM Seat s " +
+            "WHERE s.flight.id IN :flightIds " +
+            "GROUP BY s.flight.id")
+    List<SeatAvailabilitySummary> summarizeAvailabilityByFlightIds(@Param("flightIds") Collection<Long> flightIds);
+
+    @Query("SELECT s.flight.id FROM Seat s WHERE s.id = :seatId")
+    Optional<Long> findFlightIdById(@Param("seatId") Long seatId);
+
+    @Query("SELECT s.status FROM Seat s WHERE s.id = :seatId")
+    Optional<SeatStatus> findStatusById(@Param("seatId") Long seatId);
+
+    @Query("SELECT new com.example.challenge.domain.projection.SeatVersions(s.version, s.flight.version) " +
+            "FROM Seat s " +
+            "WHERE s.id = :seatId")
+    Optional<SeatVersions> findVersionsById(@Param("seatId") Long seatId);
+
+    @Query("SELECT new com.example.challenge.domain.projection.SeatMapEntry(s.seatNumber, s.price, s.status) " +
+            "FROM Seat s " +
+            "WHERE s.flight.id = :flightId")
+    List<SeatMapEntry> findSeatMapEntriesByFlightId(@Param("flightId") Long flightId);
+
+    @Query("SELECT new com.example.challenge.domain.projection.SeatView(s.id, s.seatNumber, s.price, s.status) " +
+            "FROM Seat s " +
+            "WHERE s.flight.id = :flightId " +
+            "ORDER BY s.id")
+    List<SeatView> findSeatViewsByFlightId(@Param("flightId") Long flightId);
+
+    @Query("SELECT new com.example.challenge.domain.projection.SeatDetailsView(" +
+            "  s.id, s.seatNumber, s.price, s.status, " +
+            "  f.flightNumber, f.origin, f.destination, f.departureTime, f.arrivalTime) " +
+            "FROM Seat s JOIN s.flight f " +
+            "WHERE s.id = :seatId")
+    Optional<SeatDetailsView> findDetailsViewById(@Param("seatId") Long seatId);
+
+    /**
+     * Sets the price of the available seats of the given flights numbered within the range, in one statement.
+     * Only seats whose price actually changes are updated and have their version bumped.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Seat s SET s.price = :price, s.version = s.version + 1 " +
+            "WHERE s.flight.id IN :flightIds " +
+            "  AND s.status = 'AVAILABLE' " +
+            "  AND s.price <> :price " +
+            "  AND CAST(s.seatNumber AS integer) BETWEEN :fromSeatNumber AND :toSeatNumber")
+    int setAvailableSeatPrice(@Param("flightIds") Collection<Long> flightIds,
+                              @Param("fromSeatNumber") int fromSeatNumber,
+                              @Param("toSeatNumber") int toSeatNumber,
+                              @Param("price") BigDecimal price);
+
+    /**
+     * Multiplies the price of the available seats of the given flights numbered within the range by a factor,
+     * rounded to cents, in one statement.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Seat s SET s.price = ROUND(s.price * :factor, 2), s.version = s.version + 1 " +
+            "WHERE s.flight.id IN :flightIds " +
+            "  AND s.status = 'AVAILABLE' " +
+            "  AND CAST(s.seatNumber AS integer) BETWEEN :fromSeatNumber AND :toSeatNumber")
+    int scaleAvailableSeatPrice(@Param("flightIds") Collection<Long> flightIds,
+                                @Param("fromSeatNumber") int fromSeatNumber,
+                                @Param("toSeatNumber") int toSeatNumber,
+                                @Param("factor") BigDecimal factor);
+
+}
@@ -0,0 +1,67 @@
+package com.example.challenge.service;
+
+import com.example.challenge.domain.enums.BankResponseCode;
+import com.example.challenge.web.model.v1.request.BankPaymentRequest;
+import com.example.challenge.web.model.v1.response.BankPaymentResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simulated bank that answers each payment after a latency of two to seven seconds, times out one payment
+ * in ten and rejects roughly a third of the rest. Responses are scheduled on a timer of
+ * {@code flight.bank.timer-threads} threads, so any number of outstanding bank calls cost no thread at all.
+ */
+@Slf4j
+@Service
+public class AsyncBankService {
+
+    private static final int[] DELAYS_MILLIS = {2000, 3000, 5000, 7000};
+
+    private final ScheduledExecutorService timer;
+
+    public AsyncBankService(@Value("${flight.bank.timer-threads:1}") int timerThreads) {
+        this.timer = Executors.newScheduledThreadPool(timerThreads, new CustomizableThreadFactory("bank-timer-"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    /**
+     * Simulates a bank payment with random response codes, variable latency, and occasional timeouts.
+     *
+     * @param request the payment request
+     * @return a future completed with the bank response once the simulated latency has passed,
+     * or completed exceptionally if the bank times out
+     */
+    public CompletableFuture<BankPaymentResponse> pay(BankPaymentRequest request) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int delay = DELAYS_MILLIS[random.nextInt(DELAYS_MILLIS.length)];
+        // Decide the outcome up front, the timer thread only completes the future
+        boolean timesOut = random.nextInt(100) < 10;
+        boolean isSuccessful = random.nextInt(100) >= 30;
+
+        CompletableFuture<BankPaymentResponse> response = new CompletableFuture<>();
+        timer.schedule(() -> {
+            if (timesOut) {
+                log.error("Timeout occurred while processing payment.");
+                response.completeExceptionally(new RuntimeException("Bank Service Timeout"));
+                return;
+            }
+            String responseCode = isSuccessful ? BankResponseCode.SUCCESS.getCode() : BankResponseCode.FAILED.getCode();
+            log.info("Payment processing completed. Response Code: {}", responseCode);
+            response.complete(new BankPaymentResponse(responseCode));
+        }, delay, TimeUnit.MILLISECONDS);
+        return response;
+    }
+}
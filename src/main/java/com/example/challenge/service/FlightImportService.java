@@ -0,0 +1,9 @@
+package com.example.challenge.service;
+
+import com.example.challenge.web.model.v1.response.FlightImportResponse;
+
+import java.io.InputStream;
+
+public interface FlightImportService {
+    FlightImportResponse importFlights(InputStream inputStream);
+}
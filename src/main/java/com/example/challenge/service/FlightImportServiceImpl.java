@@ -0,0 +1,206 @@
+package com.example.challenge.service;
+
+import com.example.challenge.domain.entity.Flight;
+import com.example.challenge.infrastructure.exception.BusinessException;
+import com.example.challenge.infrastructure.sequence.FlightNumberAllocator;
+import com.example.challenge.mapper.FlightMapper;
+import com.example.challenge.repository.FlightDao;
+import com.example.challenge.utils.NdjsonLineReader;
+import com.example.challenge.web.model.v1.request.CreateFlightRequest;
+import com.example.challenge.web.model.v1.response.FlightImportResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Service implementation for importing flights in bulk from newline-delimited JSON.
+ * Each line is a {@link CreateFlightRequest}; lines are parsed and validated one at a time, and valid flights
+ * are written in chunks of {@code flight.import.chunk-size}, each chunk in its own transaction.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FlightImportServiceImpl implements FlightImportService {
+
+    private final FlightDao flightDao;
+    private final FlightMapper flightMapper;
+    private final FlightNumberAllocator flightNumberAllocator;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final MessageSource messageSource;
+
+    /**
+     * Imports run one at a time, so an import never holds more than one connection of the pool.
+     */
+    private final Semaphore importPermit = new Semaphore(1);
+
+    @Value("${flight.import.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${flight.import.max-line-length:65536}")
+    private int maxLineLength;
+
+    @Value("${flight.import.max-reported-failures:1000}")
+    private int maxReportedFailures;
+
+    /**
+     * Creates a flight with its seats for every valid line of the input. Only the current chunk is kept in memory,
+     * and a connection is taken only while a chunk is written, never while the input is read. Rejected lines are
+     * reported with their line number, up to {@code flight.import.max-reported-failures} of them; they do not stop
+     * the import, and chunks already written stay committed.
+     *
+     * @param inputStream the newline-delimited JSON input, read as UTF-8
+     * @return the number of imported flights and the rejected lines
+     * @throws BusinessException if another import is running
+     */
+    @Override
+    public FlightImportResponse importFlights(InputStream inputStream) {
+        if (!importPermit.tryAcquire()) {
+            log.warn("Rejecting flight import because another import is running");
+            throw new BusinessException("business.error.flight_import_in_progress", HttpStatus.TOO_MANY_REQUESTS);
+        }
+        try {
+            return importLines(new NdjsonLineReader(
+                    new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)), maxLineLength));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            importPermit.release();
+        }
+    }
+
+    private FlightImportResponse importLines(NdjsonLineReader reader) throws IOException {
+        log.debug("Starting flight import with chunk size: {}", chunkSize);
+        ObjectReader requestReader = objectMapper.readerFor(CreateFlightRequest.class);
+        ImportProgress progress = new ImportProgress();
+        Chunk chunk = new Chunk(chunkSize);
+        while (reader.next()) {
+            String line = reader.getLine();
+            long lineNumber = reader.getLineNumber();
+            if (line == null) {
+                progress.fail(lineNumber, Map.of("line", message("validation.exception.line_too_long")));
+                continue;
+            }
+            if (line.isBlank()) {
+                continue;
+            }
+            CreateFlightRequest request;
+            try {
+                request = requestReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                progress.fail(lineNumber, Map.of("line", message("validation.exception.malformed_json")));
+                continue;
+            }
+            Set<ConstraintViolation<CreateFlightRequest>> violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                Map<String, String> errors = new LinkedHashMap<>();
+                violations.forEach(violation -> errors.put(violation.getPropertyPath().toString(), violation.getMessage()));
+                progress.fail(lineNumber, errors);
+                continue;
+            }
+            Flight flight = flightMapper.mapToFlight(request);
+            flight.setFlightNumber(flightNumberAllocator.allocate(request.getOrigin(), request.getDestination()));
+            chunk.add(lineNumber, flight, request.getSeatPrice());
+            if (chunk.isFull()) {
+                writeChunk(chunk, progress);
+            }
+        }
+        writeChunk(chunk, progress);
+        log.info("Imported {} flights, rejected {} lines", progress.importedFlightCount, progress.failedLineCount);
+        return FlightImportResponse.builder()
+                .importedFlightCount(progress.importedFlightCount)
+                .failedLineCount(progress.failedLineCount)
+                .failures(progress.failures)
+                .build();
+    }
+
+    private void writeChunk(Chunk chunk, ImportProgress progress) {
+        if (chunk.lineNumbers.isEmpty()) {
+            return;
+        }
+        try {
+            flightDao.importFlights(chunk.flights, chunk.seatPrices);
+            progress.importedFlightCount += chunk.flights.size();
+            log.debug("Imported chunk of {} flights ending at line: {}", chunk.flights.size(),
+                    chunk.lineNumbers.get(chunk.lineNumbers.size() - 1));
+        } catch (DataAccessException e) {
+            log.error("Could not write chunk of {} flights, rejecting its lines", chunk.flights.size(), e);
+            Map<String, String> errors = Map.of("line", message("business.error.flight_import_chunk_failed"));
+            chunk.lineNumbers.forEach(lineNumber -> progress.fail(lineNumber, errors));
+        }
+        chunk.clear();
+    }
+
+    private String message(String key) {
+        return messageSource.getMessage(key, null, LocaleContextHolder.getLocale());
+    }
+
+    private static final class Chunk {
+
+        private final int size;
+        private final List<Long> lineNumbers;
+        private final List<Flight> flights;
+        private final List<BigDecimal> seatPrices;
+
+        private Chunk(int size) {
+            this.size = size;
+            this.lineNumbers = new ArrayList<>(size);
+            this.flights = new ArrayList<>(size);
+            this.seatPrices = new ArrayList<>(size);
+        }
+
+        private void add(long lineNumber, Flight flight, BigDecimal seatPrice) {
+            lineNumbers.add(lineNumber);
+            flights.add(flight);
+            seatPrices.add(seatPrice);
+        }
+
+        private boolean isFull() {
+            return flights.size() >= size;
+        }
+
+        private void clear() {
+            lineNumbers.clear();
+            flights.clear();
+            seatPrices.clear();
+        }
+    }
+
+    private final class ImportProgress {
+
+        private long importedFlightCount;
+        private long failedLineCount;
+        private final List<FlightImportResponse.LineFailure> failures = new ArrayList<>();
+
+        private void fail(long lineNumber, Map<String, String> errors) {
+            failedLineCount++;
+            if (failures.size() < maxReportedFailures) {
+                failures.add(new FlightImportResponse.LineFailure(lineNumber, errors));
+            }
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.challenge.service;
+
+import com.example.challenge.web.model.v1.request.CreateFlightScheduleRequest;
+import com.example.challenge.web.model.v1.response.FlightScheduleJobResponse;
+
+public interface FlightScheduleService {
+
+    FlightScheduleJobResponse scheduleFlights(CreateFlightScheduleRequest request);
+
+    FlightScheduleJobResponse getJob(String jobId);
+}
@@ -0,0 +1,232 @@
+package com.example.challenge.service;
+
+import com.example.challenge.domain.entity.Flight;
+import com.example.challenge.infrastructure.exception.BusinessException;
+import com.example.challenge.infrastructure.sequence.FlightNumberAllocator;
+import com.example.challenge.mapper.FlightMapper;
+import com.example.challenge.repository.FlightDao;
+import com.example.challenge.web.model.v1.request.CreateFlightScheduleRequest;
+import com.example.challenge.web.model.v1.response.FlightScheduleJobResponse;
+import com.example.challenge.web.model.v1.response.FlightScheduleJobResponse.JobStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.MessageSource;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Service implementation for generating the flights of a recurring schedule in the background.
+ * A schedule is expanded into its flights when it is submitted, and a job then writes them in chunks of
+ * {@code flight.schedule.chunk-size}, each chunk in its own transaction. Jobs run one at a time on a dedicated
+ * worker thread, so generation never holds a request thread and never more than one connection of the pool;
+ * up to {@code flight.schedule.queue-capacity} jobs wait for the worker, and further schedules are rejected.
+ */
+@Slf4j
+@Service
+public class FlightScheduleServiceImpl implements FlightScheduleService {
+
+    private final FlightDao flightDao;
+    private final FlightMapper flightMapper;
+    private final FlightNumberAllocator flightNumberAllocator;
+    private final MessageSource messageSource;
+    private final ThreadPoolTaskExecutor executor;
+    private final int chunkSize;
+    private final int maxDays;
+    private final int retainedJobs;
+
+    /**
+     * Jobs by ID in submission order; finished jobs are dropped oldest first beyond {@code flight.schedule.retained-jobs}.
+     */
+    private final Map<String, Job> jobs = new LinkedHashMap<>();
+
+    public FlightScheduleServiceImpl(FlightDao flightDao,
+                                     FlightMapper flightMapper,
+                                     FlightNumberAllocator flightNumberAllocator,
+                                     MessageSource messageSource,
+                                     @Value("${flight.schedule.chunk-size:50}") int chunkSize,
+                                     @Value("${flight.schedule.max-days:366}") int maxDays,
+                                     @Value("${flight.schedule.queue-capacity:10}") int queueCapacity,
+                                     @Value("${flight.schedule.retained-jobs:100}") int retainedJobs) {
+        this.flightDao = flightDao;
+        this.flightMapper = flightMapper;
+        this.flightNumberAllocator = flightNumberAllocator;
+        this.messageSource = messageSource;
+        this.chunkSize = chunkSize;
+        this.maxDays = maxDays;
+        this.retainedJobs = retainedJobs;
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setThreadNamePrefix("flight-schedule-");
+        this.executor.setCorePoolSize(1);
+        this.executor.setMaxPoolSize(1);
+        this.executor.setQueueCapacity(queueCapacity);
+        this.executor.initialize();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Expands a schedule into one flight per matching day of its date range and queues a job creating them with
+     * their seats. Departures that are not in the future are left out.
+     *
+     * @param request the route, days of the week, times, date range, seat capacity and seat price of the schedule
+     * @return the queued job
+     * @throws BusinessException if the date range is invalid or has no future departure, or if the job queue is full
+     */
+    @Override
+    public FlightScheduleJobResponse scheduleFlights(CreateFlightScheduleRequest request) {
+        List<Flight> flights = expandSchedule(request);
+        Job job = new Job(UUID.randomUUID().toString(), flights.size());
+        register(job);
+        try {
+            executor.execute(() -> run(job, flights, request.getSeatPrice()));
+        } catch (TaskRejectedException e) {
+            unregister(job);
+            log.warn("Rejecting schedule of {} flights from {} to {} because the job queue is full",
+                    flights.size(), request.getOrigin(), request.getDestination());
+            throw new BusinessException("business.error.flight_schedule_queue_full", HttpStatus.TOO_MANY_REQUESTS);
+        }
+        log.info("Queued schedule job ID: {} of {} flights from {} to {}",
+                job.id, flights.size(), request.getOrigin(), request.getDestination());
+        return toResponse(job);
+    }
+
+    /**
+     * Retrieves the progress of a schedule job.
+     *
+     * @param jobId the ID of the job
+     * @return the status of the job and the number of flights created so far
+     * @throws BusinessException if the job is not found
+     */
+    @Override
+    public FlightScheduleJobResponse getJob(String jobId) {
+        Job job;
+        synchronized (jobs) {
+            job = jobs.get(jobId);
+        }
+        if (job == null) {
+            throw new BusinessException("business.error.flight_schedule_job_not_found", HttpStatus.NOT_FOUND);
+        }
+        return toResponse(job);
+    }
+
+    private List<Flight> expandSchedule(CreateFlightScheduleRequest request) {
+        LocalDate startDate = request.getStartDate();
+        LocalDate endDate = request.getEndDate();
+        if (endDate.isBefore(startDate) || ChronoUnit.DAYS.between(startDate, endDate) >= maxDays) {
+            throw new BusinessException("business.error.invalid_flight_schedule", HttpStatus.BAD_REQUEST);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<Flight> flights = new ArrayList<>();
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            if (!request.getDaysOfWeek().contains(date.getDayOfWeek())) {
+                continue;
+            }
+            LocalDateTime departureTime = date.atTime(request.getDepartureTime());
+            if (!departureTime.isAfter(now)) {
+                continue;
+            }
+            LocalDateTime arrivalTime = date.atTime(request.getArrivalTime());
+            if (!arrivalTime.isAfter(departureTime)) {
+                arrivalTime = arrivalTime.plusDays(1);
+            }
+            flights.add(flightMapper.mapToFlight(request, departureTime, arrivalTime));
+        }
+        if (flights.isEmpty()) {
+            throw new BusinessException("business.error.invalid_flight_schedule", HttpStatus.BAD_REQUEST);
+        }
+        return flights;
+    }
+
+    private void run(Job job, List<Flight> flights, BigDecimal seatPrice) {
+        job.status = JobStatus.RUNNING;
+        log.debug("Starting schedule job ID: {} with chunk size: {}", job.id, chunkSize);
+        try {
+            for (int from = 0; from < flights.size(); from += chunkSize) {
+                List<Flight> chunk = flights.subList(from, Math.min(from + chunkSize, flights.size()));
+                chunk.forEach(flight -> flight.setFlightNumber(
+                        flightNumberAllocator.allocate(flight.getOrigin(), flight.getDestination())));
+                flightDao.importFlights(chunk, Collections.nCopies(chunk.size(), seatPrice));
+                job.createdFlightCount += chunk.size();
+            }
+            job.status = JobStatus.COMPLETED;
+            log.info("Schedule job ID: {} created {} flights", job.id, job.createdFlightCount);
+        } catch (RuntimeException e) {
+            log.error("Schedule job ID: {} failed after creating {} of {} flights",
+                    job.id, job.createdFlightCount, job.totalFlightCount, e);
+            job.errorKey = "business.error.flight_schedule_failed";
+            job.status = JobStatus.FAILED;
+        }
+    }
+
+    private void register(Job job) {
+        synchronized (jobs) {
+            Iterator<Job> eldest = jobs.values().iterator();
+            while (jobs.size() >= retainedJobs && eldest.hasNext()) {
+                if (eldest.next().isFinished()) {
+                    eldest.remove();
+                }
+            }
+            jobs.put(job.id, job);
+        }
+    }
+
+    private void unregister(Job job) {
+        synchronized (jobs) {
+            jobs.remove(job.id);
+        }
+    }
+
+    private FlightScheduleJobResponse toResponse(Job job) {
+        // Read the status first, so the count is at least the one the status was reached with
+        JobStatus status = job.status;
+        return FlightScheduleJobResponse.builder()
+                .jobId(job.id)
+                .status(status)
+                .totalFlightCount(job.totalFlightCount)
+                .createdFlightCount(job.createdFlightCount)
+                .error(job.errorKey != null
+                        ? messageSource.getMessage(job.errorKey, null, LocaleContextHolder.getLocale())
+                        : null)
+                .build();
+    }
+
+    /**
+     * Progress of a schedule job, written by the worker thread only.
+     */
+    private static final class Job {
+
+        private final String id;
+        private final int totalFlightCount;
+        private volatile JobStatus status = JobStatus.QUEUED;
+        private volatile int createdFlightCount;
+        private volatile String errorKey;
+
+        private Job(String id, int totalFlightCount) {
+            this.id = id;
+            this.totalFlightCount = totalFlightCount;
+        }
+
+        private boolean isFinished() {
+            return status == JobStatus.COMPLETED || status == JobStatus.FAILED;
+        }
+    }
+}
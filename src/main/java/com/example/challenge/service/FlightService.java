@@ -1,18 +1,32 @@
 package com.example.challenge.service;
 
 import com.example.challenge.web.model.v1.request.CreateFlightRequest;
+import com.example.challenge.web.model.v1.request.RepriceSeatsRequest;
+import com.example.challenge.web.model.v1.response.FlightCursorPageResponse;
 import com.example.challenge.web.model.v1.response.FlightDetailsResponse;
 import com.example.challenge.web.model.v1.request.UpdateFlightRequest;
 import com.example.challenge.web.model.v1.response.FlightResponse;
+import com.example.challenge.web.model.v1.response.FlightSummaryResponse;
+import com.example.challenge.web.model.v1.response.RepriceSeatsResponse;
+import com.example.challenge.web.model.v1.response.SeatMapResponse;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.io.OutputStream;
+
 
 public interface FlightService {
     FlightResponse addFlight(CreateFlightRequest request);
     void removeFlight(Long flightId);
     FlightResponse updateFlight(Long flightId, UpdateFlightRequest request);
+    RepriceSeatsResponse repriceSeats(RepriceSeatsRequest request);
     Page<FlightDetailsResponse> listFlights(Pageable pageable);
+    Page<FlightSummaryResponse> listFlightSummaries(Pageable pageable);
+    FlightCursorPageResponse listFlightsAfterCursor(String cursor, int size);
     FlightDetailsResponse getFlightDetails(Long flightId);
+    String getFlightDetailsETag(Long flightId);
+    byte[] getEncodedFlightDetails(Long flightId, String eTag, boolean gzip);
+    SeatMapResponse getSeatMap(Long flightId);
+    void exportFlights(OutputStream outputStream);
 }
 
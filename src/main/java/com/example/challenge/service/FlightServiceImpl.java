@@ -1,28 +1,53 @@
 package com.example.challenge.service;
 
 import com.example.challenge.domain.entity.Flight;
-import com.example.challenge.domain.entity.Seat;
 import com.example.challenge.domain.enums.SeatStatus;
+import com.example.challenge.domain.projection.FlightVersions;
+import com.example.challenge.domain.projection.SeatAvailabilitySummary;
+import com.example.challenge.domain.projection.SeatMapEntry;
+import com.example.challenge.infrastructure.cache.FlightCatalogCache;
+import com.example.challenge.infrastructure.cache.FlightDetailsJsonCache;
+import com.example.challenge.infrastructure.cache.SeatMapCache;
 import com.example.challenge.infrastructure.exception.BusinessException;
+import com.example.challenge.infrastructure.sequence.FlightNumberAllocator;
 import com.example.challenge.repository.FlightDao;
 import com.example.challenge.repository.SeatRepository;
+import com.example.challenge.utils.FlightCursor;
+import com.example.challenge.utils.FlightNdjsonWriter;
 import com.example.challenge.utils.FlightUtils;
 import com.example.challenge.mapper.FlightMapper;
 import com.example.challenge.web.model.v1.request.CreateFlightRequest;
+import com.example.challenge.web.model.v1.request.RepriceSeatsRequest;
+import com.example.challenge.web.model.v1.response.FlightCursorPageResponse;
 import com.example.challenge.web.model.v1.response.FlightDetailsResponse;
 import com.example.challenge.web.model.v1.request.UpdateFlightRequest;
 import com.example.challenge.web.model.v1.response.FlightResponse;
+import com.example.challenge.web.model.v1.response.FlightSummaryResponse;
+import com.example.challenge.web.model.v1.response.RepriceSeatsResponse;
+import com.example.challenge.web.model.v1.response.SeatMapResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
-import org.springframework.util.CollectionUtils;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -34,9 +59,18 @@ import java.util.stream.Collectors;
 @Service
 public class FlightServiceImpl implements FlightService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of(
+            "id", "flightNumber", "origin", "destination", "departureTime", "arrivalTime", "seatCapacity");
+
     private final FlightDao flightDao;
     private final SeatRepository seatRepository;
     private final FlightMapper flightMapper;
+    private final FlightCatalogCache flightCatalogCache;
+    private final SeatMapCache seatMapCache;
+    private final FlightDetailsJsonCache flightDetailsJsonCache;
+    private final ObjectMapper objectMapper;
+    private final FlightNumberAllocator flightNumberAllocator;
 
     /**
      * Adds a new flight based on the provided request.
@@ -48,26 +82,23 @@ public class FlightServiceImpl implements FlightService {
     public FlightResponse addFlight(CreateFlightRequest request) {
         log.debug("Starting to add a new flight with request: {}", request);
         Flight flight = flightMapper.mapToFlight(request);
-        flight.setFlightNumber(FlightUtils.generateFlightNumber(request.getOrigin(), request.getDestination()));
-        flight.setSeats(FlightUtils.generateSeats(flight, request.getSeatPrice()));
-        Flight savedFlight = flightDao.saveFlight(flight);
+        flight.setFlightNumber(flightNumberAllocator.allocate(request.getOrigin(), request.getDestination()));
+        Flight savedFlight = flightDao.createFlightWithSeats(flight, request.getSeatPrice());
         log.info("Successfully added a new flight with ID: {}", savedFlight.getId());
         return flightMapper.mapToFlightResponse(savedFlight);
     }
 
     /**
      * Removes a flight by its ID. Throws an exception if the flight is not found
-     * or if some seats are already sold.
+     * or if some seats are already sold or held for a payment. The sold check is a single EXISTS query and the
+     * flight is deleted with bulk statements, so no seat is loaded.
      *
      * @param flightId the ID of the flight to remove
      */
     @Override
     public void removeFlight(Long flightId) {
         log.debug("Attempting to remove flight with ID: {}", flightId);
-        Flight flight = flightDao.getFlightById(flightId);
-        boolean hasSoldSeats = flight.getSeats().stream()
-                .anyMatch(seat -> seat.getStatus() == SeatStatus.UNAVAILABLE);
-        if (hasSoldSeats) {
+        if (seatRepository.existsByFlightIdAndStatusNot(flightId, SeatStatus.AVAILABLE)) {
             log.warn("Cannot remove flight with ID: {} because some seats have been sold", flightId);
             throw new BusinessException("business.error.flight_has_sold_seats", HttpStatus.CONFLICT);
         }
@@ -77,7 +108,10 @@ public class FlightServiceImpl implements FlightService {
 
     /**
      * Updates a flight by its ID using the provided request.
-     * Handles seat price updates, capacity changes, and ensures no conflicts with sold seats.
+     * Seat prices and capacity are changed with bulk statements without loading any seat: unsold seats are
+     * repriced in place, and a capacity change adds or removes only the seats that make up the difference,
+     * so the IDs of the remaining seats are preserved. A new flight number is allocated only when the route changes,
+     * before the flight is locked, as the allocator may need a connection of its own.
      *
      * @param flightId the ID of the flight to update
      * @param request the request containing updated flight details
@@ -86,74 +120,133 @@ public class FlightServiceImpl implements FlightService {
     @Override
     public FlightResponse updateFlight(Long flightId, UpdateFlightRequest request) {
         log.debug("Attempting to update flight with ID: {} using request: {}", flightId, request);
-        Flight flight = flightDao.getFlightById(flightId);
-
-        // Generate seats if none exist
-        if (CollectionUtils.isEmpty(flight.getSeats())) {
-            log.debug("No seats found for flight ID: {}. Generating new seats.", flightId);
-            flight.setSeats(FlightUtils.generateSeats(flight, request.getSeatPrice()));
-        }
-
-        // Prevent seat capacity update if sold seats exist
-        boolean hasSoldSeats = flight.getSeats().stream()
-                .anyMatch(seat -> seat.getStatus() == SeatStatus.UNAVAILABLE);
-        if (hasSoldSeats && request.getSeatCapacity() != flight.getSeatCapacity()) {
-            log.warn("Cannot change the seat capacity for flight ID: {} because some seats have been sold", flightId);
-            throw new BusinessException("business.error.flight_capacity_cannot_be_updated_due_to_sold_seats", HttpStatus.CONFLICT);
-        }
+        Flight currentFlight = flightDao.getFlightWithoutSeats(flightId);
 
-        // Update seat prices if applicable
-        if (!request.getSeatPrice().equals(flight.getSeats().get(0).getPrice())) {
-            log.debug("Updating seat prices for flight ID: {}", flightId);
-            flight.getSeats().stream()
-                    .filter(seat -> seat.getStatus() != SeatStatus.UNAVAILABLE)
-                    .forEach(seat -> seat.setPrice(request.getSeatPrice()));
-        }
-
-        // Update seat capacity if applicable
-        if (request.getSeatCapacity() != flight.getSeatCapacity()) {
-            log.debug("Updating seat capacity for flight ID: {}", flightId);
+        // The flight number encodes the route, so it only changes along with it
+        String requestedRoutePrefix = FlightUtils.getFlightNumberPrefix(request.getOrigin(), request.getDestination());
+        String flightNumber = requestedRoutePrefix.equals(
+                FlightUtils.getFlightNumberPrefix(currentFlight.getOrigin(), currentFlight.getDestination()))
+                ? null : flightNumberAllocator.allocate(request.getOrigin(), request.getDestination());
+        Flight updatedFlight = flightDao.updateFlightWithSeats(flightId, flight -> {
+            String routePrefix = FlightUtils.getFlightNumberPrefix(flight.getOrigin(), flight.getDestination());
             flight.setSeatCapacity(request.getSeatCapacity());
-            List<Seat> newSeats = FlightUtils.generateSeats(flight, request.getSeatPrice());
-            seatRepository.deleteAll(flight.getSeats());
-            flight.setSeats(newSeats);
-        }
-
-        flightMapper.updateFlightFromRequest(flight, request);
-        Flight updatedFlight = flightDao.saveFlight(flight);
+            flightMapper.updateFlightFromRequest(flight, request);
+            if (!routePrefix.equals(requestedRoutePrefix)) {
+                if (flightNumber == null) {
+                    log.warn("Route of flight ID: {} changed while it was being updated", flightId);
+                    throw new BusinessException("business.error.concurrent_modification", HttpStatus.CONFLICT);
+                }
+                flight.setFlightNumber(flightNumber);
+            }
+        }, request.getSeatPrice());
         log.info("Successfully updated flight with ID: {}", updatedFlight.getId());
         return flightMapper.mapToFlightResponse(updatedFlight);
     }
 
     /**
-     * Fetches a list of all future flights.
+     * Reprices the available seats of several flights at once. Each rule sets a price or applies a percentage
+     * change to a seat number range, and runs as one update statement across all the flights; the rules are
+     * applied in order within a single transaction, and no seat entity is loaded.
      *
-     * @return a list of flight details responses
+     * @param request the flights and the price rules to apply
+     * @return the number of seat price changes applied
+     */
+    @Override
+    @Transactional
+    public RepriceSeatsResponse repriceSeats(RepriceSeatsRequest request) {
+        log.debug("Repricing seats of {} flights with {} rules", request.getFlightIds().size(), request.getRules().size());
+        List<Long> flightIds = request.getFlightIds().stream().distinct().collect(Collectors.toList());
+        request.getRules().forEach(this::validatePriceRule);
+        int repricedSeatCount = 0;
+        for (RepriceSeatsRequest.SeatPriceRule rule : request.getRules()) {
+            int from = rule.getFromSeatNumber() != null ? rule.getFromSeatNumber() : 1;
+            int to = rule.getToSeatNumber() != null ? rule.getToSeatNumber() : Integer.MAX_VALUE;
+            if (rule.getPrice() != null) {
+                repricedSeatCount += flightDao.setAvailableSeatPrice(flightIds, from, to, rule.getPrice());
+            } else {
+                BigDecimal factor = BigDecimal.ONE.add(rule.getPercentage().movePointLeft(2));
+                repricedSeatCount += flightDao.scaleAvailableSeatPrice(flightIds, from, to, factor);
+            }
+        }
+        log.info("Successfully repriced {} seats across {} flights", repricedSeatCount, flightIds.size());
+        return RepriceSeatsResponse.builder()
+                .repricedSeatCount(repricedSeatCount)
+                .build();
+    }
+
+    /**
+     * Fetches a page of future flights. The departure filter, ordering and pagination are
+     * applied by the database on flight IDs first, then details are read from the catalog cache
+     * and seats are loaded only for the flights of that page that are not cached.
+     *
+     * @param pageable the page request
+     * @return a page of flight details responses
      */
     @Override
     public Page<FlightDetailsResponse> listFlights(Pageable pageable) {
         log.debug("Fetching list of future flights with pagination: {}", pageable);
-        LocalDateTime now = LocalDateTime.now();
-        List<Flight> allFlights = flightDao.getAllFlightsWithSeats();
-        // Filter to only future flights
-        List<Flight> futureFlights = allFlights.stream()
-                .filter(flight -> flight.getDepartureTime().isAfter(now))
-                .collect(Collectors.toList());
-        // Map to responses
-        List<FlightDetailsResponse> responses = futureFlights.stream()
-                .map(flightMapper::mapToFlightDetailsResponse)
-                .collect(Collectors.toList());
-
-        int total = responses.size();
-        int start = (int) pageable.getOffset();
-        int end = Math.min((start + pageable.getPageSize()), total);
-        List<FlightDetailsResponse> paginatedList = start > end ? List.of() : responses.subList(start, end);
-
-        return new PageImpl<>(paginatedList, pageable, total);
+        Page<Long> flightIds = flightDao.getFutureFlightIds(LocalDateTime.now(), withStableSort(pageable));
+        List<FlightDetailsResponse> responses = flightCatalogCache.getAll(flightIds.getContent(),
+                missingIds -> flightDao.getFlightsWithSeats(missingIds).stream()
+                        .map(flightMapper::mapToFlightDetailsResponse)
+                        .collect(Collectors.toList()));
+        return new PageImpl<>(responses, flightIds.getPageable(), flightIds.getTotalElements());
+    }
+
+    /**
+     * Fetches a page of future flights using keyset pagination over (departure time, flight ID).
+     * Every page is a range scan starting at the cursor, and flights added before the cursor
+     * do not shift the following pages.
+     *
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size   the requested page size, clamped to 1..{@value #MAX_CURSOR_PAGE_SIZE}
+     * @return the flights of the page and the cursor of the next page, if any
+     */
+    @Override
+    public FlightCursorPageResponse listFlightsAfterCursor(String cursor, int size) {
+        log.debug("Fetching future flights after cursor: {} with size: {}", cursor, size);
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        FlightCursor position = StringUtils.hasText(cursor) ? FlightCursor.decode(cursor) : null;
+        // Fetch one extra ID to learn whether another page follows
+        List<Long> flightIds = flightDao.getFutureFlightIdsAfter(LocalDateTime.now(), position, pageSize + 1);
+        boolean hasNext = flightIds.size() > pageSize;
+        List<FlightDetailsResponse> content = flightCatalogCache.getAll(
+                hasNext ? flightIds.subList(0, pageSize) : flightIds,
+                missingIds -> flightDao.getFlightsWithSeats(missingIds).stream()
+                        .map(flightMapper::mapToFlightDetailsResponse)
+                        .collect(Collectors.toList()));
+        String nextCursor = null;
+        if (hasNext && !content.isEmpty()) {
+            FlightResponse last = content.get(content.size() - 1).getFlight();
+            nextCursor = new FlightCursor(last.getDepartureTime(), last.getFlightId()).encode();
+        }
+        return FlightCursorPageResponse.builder()
+                .content(content)
+                .nextCursor(nextCursor)
+                .build();
     }
 
     /**
-     * Fetches detailed information for a specific flight by its ID.
+     * Fetches a page of future flights with seat availability aggregated by the database.
+     * No seat entities are loaded; the full seat lists remain available through flight details.
+     *
+     * @param pageable the page request
+     * @return a page of flight summary responses
+     */
+    @Override
+    public Page<FlightSummaryResponse> listFlightSummaries(Pageable pageable) {
+        log.debug("Fetching summaries of future flights with pagination: {}", pageable);
+        Page<Flight> flights = flightDao.getFutureFlights(LocalDateTime.now(), withStableSort(pageable));
+        List<Long> flightIds = flights.map(Flight::getId).getContent();
+        Map<Long, SeatAvailabilitySummary> summaries = flightIds.isEmpty() ? Map.of()
+                : seatRepository.summarizeAvailabilityByFlightIds(flightIds).stream()
+                .collect(Collectors.toMap(SeatAvailabilitySummary::getFlightId, Function.identity()));
+        return flights.map(flight -> flightMapper.mapToFlightSummaryResponse(flight, summaries.get(flight.getId())));
+    }
+
+    /**
+     * Fetches detailed information for a specific flight by its ID. Reads constructor projections of the
+     * flight header and its seats instead of managed entities, so nothing is hydrated or dirty-checked.
      *
      * @param flightId the ID of the flight
      * @return the flight details response
@@ -161,10 +254,110 @@ public class FlightServiceImpl implements FlightService {
     @Override
     public FlightDetailsResponse getFlightDetails(Long flightId) {
         log.debug("Fetching flight details for flight ID: {}", flightId);
-        Flight flight = flightDao.getFlightById(flightId);
-        FlightDetailsResponse response = flightMapper.mapToFlightDetailsResponse(flight);
+        FlightDetailsResponse response = flightCatalogCache.get(flightId,
+                id -> flightMapper.mapToFlightDetailsResponse(
+                        flightDao.getFlightHeader(id), seatRepository.findSeatViewsByFlightId(id)));
         log.info("Successfully fetched details for flight ID: {}", flightId);
         return response;
     }
 
+    /**
+     * Builds a strong ETag for the details of a flight from its version, which every change to the flight bumps,
+     * and its seat revision, which every change to its seats bumps. Costs a single primary key lookup; no seat
+     * rows are read.
+     *
+     * @param flightId the ID of the flight
+     * @return the ETag of the current flight details
+     */
+    @Override
+    public String getFlightDetailsETag(Long flightId) {
+        FlightVersions versions = flightDao.getFlightVersions(flightId);
+        return "\"flight-" + flightId + "-" + versions.getVersion() + "-" + versions.getSeatRevision() + "\"";
+    }
+
+    /**
+     * Fetches the details of a flight already encoded as JSON, so repeated reads of an unchanged flight
+     * skip serialization entirely.
+     *
+     * @param flightId the ID of the flight
+     * @param eTag     the ETag of the flight's current version, as returned by {@link #getFlightDetailsETag(Long)}
+     * @param gzip     whether to return the gzip-compressed encoding
+     * @return the encoded flight details
+     */
+    @Override
+    public byte[] getEncodedFlightDetails(Long flightId, String eTag, boolean gzip) {
+        return flightDetailsJsonCache.get(flightId, eTag, gzip, () -> getFlightDetails(flightId));
+    }
+
+    /**
+     * Fetches the seat map of a flight: a packed availability bitmap and a run-length encoded price table,
+     * served from memory and kept current by seat status changes.
+     *
+     * @param flightId the ID of the flight
+     * @return the seat map response
+     */
+    @Override
+    public SeatMapResponse getSeatMap(Long flightId) {
+        log.debug("Fetching seat map for flight ID: {}", flightId);
+        SeatMapResponse response = seatMapCache.get(flightId, id -> {
+            List<SeatMapEntry> seats = seatRepository.findSeatMapEntriesByFlightId(id);
+            if (seats.isEmpty()) {
+                flightDao.assertFlightExists(id);
+            }
+            return seats;
+        });
+        log.info("Successfully fetched seat map for flight ID: {}", flightId);
+        return response;
+    }
+
+    /**
+     * Writes every future flight with its seats to the given stream as newline-delimited JSON,
+     * one {@link FlightDetailsResponse} per line. Rows are read through a database cursor and written
+     * as they arrive, so memory use does not grow with the size of the catalog.
+     *
+     * @param outputStream the stream to write to, left open
+     */
+    @Override
+    public void exportFlights(OutputStream outputStream) {
+        log.debug("Streaming future flights");
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            FlightNdjsonWriter writer = new FlightNdjsonWriter(generator);
+            flightDao.forEachFutureFlightSeatRow(LocalDateTime.now(), writer::write);
+            writer.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("Successfully streamed future flights");
+    }
+
+    private void validatePriceRule(RepriceSeatsRequest.SeatPriceRule rule) {
+        boolean hasExactlyOneChange = (rule.getPrice() == null) != (rule.getPercentage() == null);
+        boolean hasValidRange = rule.getFromSeatNumber() == null || rule.getToSeatNumber() == null
+                || rule.getFromSeatNumber() <= rule.getToSeatNumber();
+        if (!hasExactlyOneChange || !hasValidRange) {
+            log.warn("Rejecting invalid seat price rule: {}", rule);
+            throw new BusinessException("business.error.invalid_reprice_rule", HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Orders by departure time when no sort is requested and always appends the flight ID
+     * as a tie-breaker, so that pages do not overlap or skip flights departing at the same time.
+     * Only the flight columns in {@link #SORTABLE_PROPERTIES} are accepted, the sort ends up in the ORDER BY.
+     */
+    private Pageable withStableSort(Pageable pageable) {
+        if (pageable.isUnpaged()) {
+            return pageable;
+        }
+        for (Sort.Order order : pageable.getSort()) {
+            if (!SORTABLE_PROPERTIES.contains(order.getProperty())) {
+                log.warn("Rejecting sort by unknown flight property: {}", order.getProperty());
+                throw new BusinessException("business.error.invalid_sort_property", HttpStatus.BAD_REQUEST);
+            }
+        }
+        Sort sort = pageable.getSort().isSorted() ? pageable.getSort() : Sort.by("departureTime");
+        return PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort.and(Sort.by("id")));
+    }
+
 }
@@ -1,7 +1,9 @@
 package com.example.challenge.service;
 
 import com.example.challenge.web.model.v1.request.CreateSeatRequest;
+import com.example.challenge.web.model.v1.request.SeatBatchRequest;
 import com.example.challenge.web.model.v1.request.UpdateSeatRequest;
+import com.example.challenge.web.model.v1.response.SeatBatchResponse;
 import com.example.challenge.web.model.v1.response.SeatDetailsResponse;
 import com.example.challenge.web.model.v1.response.SeatResponse;
 
@@ -9,5 +11,7 @@ public interface SeatService {
     SeatResponse addSeat(Long flightId, CreateSeatRequest request);
     void removeSeat(Long seatId);
     SeatResponse updateSeat(Long seatId, UpdateSeatRequest request);
+    SeatBatchResponse applySeatOperations(Long flightId, SeatBatchRequest request);
     SeatDetailsResponse getSeatDetails(Long id);
+    String getSeatDetailsETag(Long seatId);
 }
@@ -3,18 +3,38 @@ package com.example.challenge.service;
 import com.example.challenge.domain.entity.Flight;
 import com.example.challenge.domain.entity.Seat;
 import com.example.challenge.domain.enums.SeatStatus;
+import com.example.challenge.domain.projection.SeatDetailsView;
+import com.example.challenge.domain.projection.SeatVersions;
+import com.example.challenge.infrastructure.cache.FlightCatalogCache;
 import com.example.challenge.infrastructure.exception.BusinessException;
 import com.example.challenge.mapper.SeatMapper;
+import com.example.challenge.repository.FlightDao;
 import com.example.challenge.repository.FlightRepository;
 import com.example.challenge.repository.SeatRepository;
 import com.example.challenge.web.model.v1.request.CreateSeatRequest;
+import com.example.challenge.web.model.v1.request.SeatBatchRequest;
 import com.example.challenge.web.model.v1.request.UpdateSeatRequest;
+import com.example.challenge.web.model.v1.response.SeatBatchResponse;
 import com.example.challenge.web.model.v1.response.SeatDetailsResponse;
 import com.example.challenge.web.model.v1.response.SeatResponse;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.MessageSource;
+import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @AllArgsConstructor
@@ -24,75 +44,85 @@ public class SeatServiceImpl implements SeatService {
     private final SeatRepository seatRepository;
     private final FlightRepository flightRepository;
     private final SeatMapper seatMapper;
+    private final FlightCatalogCache flightCatalogCache;
+    private final FlightDao flightDao;
+    private final MessageSource messageSource;
 
     /**
-     * Adds a new seat to the specified flight.
+     * Adds a new seat to the specified flight, numbered with the lowest seat number freed by a removed seat, or else
+     * the next number of the flight's counter. The flight row is locked while the number is allocated, so concurrent
+     * adds to the same flight are serialized and never receive the same number. The seat capacity is incremented
+     * in place; neither the seats, their numbers nor their count are loaded.
      *
      * @param flightId the ID of the flight
      * @param request  the AddSeatRequest with seat details
      * @return SeatResponse representing the newly added seat
      */
     @Override
+    @Transactional
     public SeatResponse addSeat(Long flightId, CreateSeatRequest request) {
         log.debug("Attempting to add a seat to flight with ID: {}", flightId);
+        checkRequestedStatus(request.getStatus());
 
-        Flight flight = flightRepository.findByIdWithSeats(flightId)
+        Flight flight = flightRepository.findByIdForUpdate(flightId)
                 .orElseThrow(() -> {
                     log.error("Flight with ID: {} not found", flightId);
                     return new BusinessException("business.error.flight_not_found", HttpStatus.NOT_FOUND);
                 });
 
-        Seat seat = seatMapper.mapToSeat(request, flight);
+        Seat seat = seatMapper.mapToSeat(request, flight, flightDao.allocateSeatNumbers(flightId, 1).get(0));
         Seat savedSeat = seatRepository.save(seat);
 
-        int newSeatCapacity = seatRepository.countByFlightId(flightId);
-        flight.setSeatCapacity(newSeatCapacity);
-        flightRepository.save(flight);
+        flightRepository.adjustSeatCapacity(flightId, 1);
+        flightCatalogCache.invalidate(flightId);
 
         log.info("Successfully added seat with ID: {} to flight with ID: {}", savedSeat.getId(), flightId);
         return seatMapper.mapToSeatResponse(savedSeat);
     }
 
     /**
-     * Removes a seat by its ID.
+     * Removes a seat by its ID, frees its seat number and decrements the seat capacity of its flight in place,
+     * in the same transaction and without loading the seats of the flight. The flight row is locked before the seat
+     * is read, as every other seat change does, so the removal cannot interleave with a capacity change.
      *
      * @param seatId the ID of the seat to be removed
      */
     @Override
+    @Transactional
     public void removeSeat(Long seatId) {
         log.debug("Attempting to remove seat with ID: {}", seatId);
 
+        Long flightId = seatRepository.findFlightIdById(seatId)
+                .orElseThrow(() -> seatNotFound(seatId));
+        flightRepository.findByIdForUpdate(flightId)
+                .orElseThrow(() -> seatNotFound(seatId));
         Seat seat = seatRepository.findById(seatId)
-                .orElseThrow(() -> {
-                    log.error("Seat with ID: {} not found", seatId);
-                    return new BusinessException("business.error.seat_not_found", HttpStatus.NOT_FOUND);
-                });
+                .orElseThrow(() -> seatNotFound(seatId));
 
-        if (seat.getStatus() == SeatStatus.UNAVAILABLE) {
-            log.warn("Cannot remove a sold seat with ID: {}", seatId);
-            throw new BusinessException("business.error.sold_seat_cannot_be_removed", HttpStatus.CONFLICT);
-        }
+        checkRemovable(seat);
 
-        Flight flight = seat.getFlight();
         seatRepository.delete(seat);
+        flightDao.freeSeatNumbers(flightId, List.of(seat.getSeatNumber()));
 
-        int newSeatCapacity = seatRepository.countByFlightId(flight.getId());
-        flight.setSeatCapacity(newSeatCapacity);
-        flightRepository.save(flight);
+        flightRepository.adjustSeatCapacity(flightId, -1);
+        flightCatalogCache.invalidate(flightId);
 
-        log.info("Successfully removed seat with ID: {} from flight with ID: {}", seatId, flight.getId());
+        log.info("Successfully removed seat with ID: {} from flight with ID: {}", seatId, flightId);
     }
 
     /**
-     * Updates the details of a seat.
+     * Updates the details of a seat and bumps the seat revision of its flight in the same transaction, so the seat
+     * never changes under an unchanged flight ETag.
      *
      * @param seatId  the ID of the seat to update
      * @param request the UpdateSeatRequest with updated details
      * @return SeatResponse representing the updated seat
      */
     @Override
+    @Transactional
     public SeatResponse updateSeat(Long seatId, UpdateSeatRequest request) {
         log.debug("Attempting to update seat with ID: {} using request: {}", seatId, request);
+        checkRequestedStatus(request.getStatus());
 
         Seat seat = seatRepository.findById(seatId)
                 .orElseThrow(() -> {
@@ -100,22 +130,116 @@ public class SeatServiceImpl implements SeatService {
                     return new BusinessException("business.error.seat_not_found", HttpStatus.NOT_FOUND);
                 });
 
-        // If the seat is sold (UNAVAILABLE), the price cannot be changed
-        if (seat.getStatus() == SeatStatus.UNAVAILABLE && !seat.getPrice().equals(request.getPrice())) {
-            log.warn("Cannot change the price of a sold (UNAVAILABLE) seat with ID: {}", seatId);
-            throw new BusinessException("business.error.sold_seat_price_cannot_be_updated", HttpStatus.FORBIDDEN);
-        }
+        checkNotHeld(seat);
+        checkPriceChange(seat, request.getPrice());
 
+        boolean onlyStatusChanged = seat.getPrice().compareTo(request.getPrice()) == 0
+                && seat.getStatus() != request.getStatus();
         seat.setPrice(request.getPrice());
         seat.setStatus(request.getStatus());
 
         Seat updatedSeat = seatRepository.save(seat);
+        flightRepository.incrementSeatRevision(seat.getFlight().getId());
+        if (onlyStatusChanged) {
+            flightCatalogCache.seatStatusChanged(seat.getFlight().getId(), seat.getSeatNumber(), seat.getStatus());
+        } else {
+            flightCatalogCache.invalidate(seat.getFlight().getId());
+        }
         log.info("Successfully updated seat with ID: {}", updatedSeat.getId());
         return seatMapper.mapToSeatResponse(updatedSeat);
     }
 
     /**
-     * Fetches the details of a specific seat by its ID.
+     * Applies a batch of seat additions, updates and removals to a flight in one transaction. Every operation is
+     * checked against the same rules as the single-seat endpoints; operations that break a rule are reported as
+     * rejected and skipped, the others are written with batched statements followed by a single recount of the
+     * seat capacity. The flight row is locked for the whole batch, so added seats get free seat numbers, reusing
+     * the numbers of seats removed, in the same batch or before, first.
+     *
+     * @param flightId the ID of the flight
+     * @param request  the operations to apply
+     * @return the result of every operation and the new seat capacity
+     */
+    @Override
+    @Transactional
+    public SeatBatchResponse applySeatOperations(Long flightId, SeatBatchRequest request) {
+        log.debug("Applying {} seat operations to flight with ID: {}", request.getOperations().size(), flightId);
+        List<SeatBatchRequest.SeatOperation> operations = request.getOperations();
+        operations.forEach(this::validateSeatOperation);
+
+        Flight flight = flightRepository.findByIdForUpdate(flightId)
+                .orElseThrow(() -> {
+                    log.error("Flight with ID: {} not found", flightId);
+                    return new BusinessException("business.error.flight_not_found", HttpStatus.NOT_FOUND);
+                });
+        Map<Long, Seat> seatsById = seatRepository.findAllById(operations.stream()
+                        .map(SeatBatchRequest.SeatOperation::getSeatId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet())).stream()
+                .filter(seat -> seat.getFlight().getId().equals(flightId))
+                .collect(Collectors.toMap(Seat::getId, Function.identity()));
+
+        SeatBatchResponse.SeatOperationResult[] results = new SeatBatchResponse.SeatOperationResult[operations.size()];
+        Set<Long> changedSeatIds = new HashSet<>();
+        List<Seat> removedSeats = new ArrayList<>();
+        List<Integer> addIndexes = new ArrayList<>();
+        for (int index = 0; index < operations.size(); index++) {
+            SeatBatchRequest.SeatOperation operation = operations.get(index);
+            if (operation.getType() == SeatBatchRequest.OperationType.ADD) {
+                addIndexes.add(index);
+                continue;
+            }
+            try {
+                Seat seat = seatsById.get(operation.getSeatId());
+                if (seat == null) {
+                    throw new BusinessException("business.error.seat_not_found", HttpStatus.NOT_FOUND);
+                }
+                if (!changedSeatIds.add(seat.getId())) {
+                    throw new BusinessException("business.error.duplicate_seat_operation", HttpStatus.CONFLICT);
+                }
+                if (operation.getType() == SeatBatchRequest.OperationType.REMOVE) {
+                    checkRemovable(seat);
+                    removedSeats.add(seat);
+                } else {
+                    checkNotHeld(seat);
+                    checkPriceChange(seat, operation.getPrice());
+                    seat.setPrice(operation.getPrice());
+                    seat.setStatus(operation.getStatus());
+                }
+                results[index] = applied(index, operation, seatMapper.mapToSeatResponse(seat));
+            } catch (BusinessException e) {
+                log.debug("Rejecting seat operation {} on flight ID: {}: {}", index, flightId, e.getMessageKey());
+                results[index] = SeatBatchResponse.SeatOperationResult.builder()
+                        .index(index)
+                        .type(operation.getType())
+                        .applied(false)
+                        .error(messageSource.getMessage(e.getMessageKey(), null, LocaleContextHolder.getLocale()))
+                        .build();
+            }
+        }
+
+        List<Seat> addedSeats = new ArrayList<>(addIndexes.size());
+        for (int index : addIndexes) {
+            // Numbered once the removed seats are deleted, so their numbers can be reused
+            addedSeats.add(seatMapper.mapToSeat(operations.get(index), flight, null));
+        }
+
+        int seatCapacity = flightDao.applySeatChanges(flight, removedSeats, addedSeats);
+        for (int i = 0; i < addIndexes.size(); i++) {
+            int index = addIndexes.get(i);
+            results[index] = applied(index, operations.get(index), seatMapper.mapToSeatResponse(addedSeats.get(i)));
+        }
+
+        log.info("Applied seat operations to flight with ID: {}, seat capacity is now {}", flightId, seatCapacity);
+        return SeatBatchResponse.builder()
+                .seatCapacity(seatCapacity)
+                .results(Arrays.asList(results))
+                .build();
+    }
+
+    /**
+     * Fetches the details of a specific seat by its ID, read as a single projection of the seat
+     * joined to its flight header instead of managed entities.
      *
      * @param seatId the ID of the seat
      * @return SeatDetailsResponse containing the seat and associated flight details
@@ -124,7 +248,7 @@ public class SeatServiceImpl implements SeatService {
     public SeatDetailsResponse getSeatDetails(Long seatId) {
         log.debug("Fetching seat details for seat ID: {}", seatId);
 
-        Seat seat = seatRepository.findById(seatId)
+        SeatDetailsView seat = seatRepository.findDetailsViewById(seatId)
                 .orElseThrow(() -> {
                     log.error("Seat with ID: {} not found", seatId);
                     return new BusinessException("business.error.seat_not_found", HttpStatus.NOT_FOUND);
@@ -134,4 +258,90 @@ public class SeatServiceImpl implements SeatService {
         log.info("Successfully fetched details for seat ID: {}", seatId);
         return seatDetails;
     }
-}
\ No newline at end of file
+
+    /**
+     * Builds a strong ETag for the details of a seat from the versions of the seat and its flight,
+     * read with a single primary key lookup.
+     *
+     * @param seatId the ID of the seat
+     * @return the ETag of the current seat details
+     */
+    @Override
+    public String getSeatDetailsETag(Long seatId) {
+        SeatVersions versions = seatRepository.findVersionsById(seatId)
+                .orElseThrow(() -> {
+                    log.error("Seat with ID: {} not found", seatId);
+                    return new BusinessException("business.error.seat_not_found", HttpStatus.NOT_FOUND);
+                });
+        return "\"seat-" + seatId + "-" + versions.getSeatVersion() + "-" + versions.getFlightVersion() + "\"";
+    }
+
+    /**
+     * A sold seat, or a seat held for a payment, cannot be removed.
+     */
+    private static BusinessException seatNotFound(Long seatId) {
+        log.error("Seat with ID: {} not found", seatId);
+        return new BusinessException("business.error.seat_not_found", HttpStatus.NOT_FOUND);
+    }
+
+    private void checkRemovable(Seat seat) {
+        checkNotHeld(seat);
+        if (seat.getStatus() == SeatStatus.UNAVAILABLE) {
+            log.warn("Cannot remove a sold seat with ID: {}", seat.getId());
+            throw new BusinessException("business.error.sold_seat_cannot_be_removed", HttpStatus.CONFLICT);
+        }
+    }
+
+    /**
+     * The price of a sold (UNAVAILABLE) seat cannot be changed.
+     */
+    private void checkPriceChange(Seat seat, BigDecimal price) {
+        if (seat.getStatus() == SeatStatus.UNAVAILABLE && !seat.getPrice().equals(price)) {
+            log.warn("Cannot change the price of a sold (UNAVAILABLE) seat with ID: {}", seat.getId());
+            throw new BusinessException("business.error.sold_seat_price_cannot_be_updated", HttpStatus.FORBIDDEN);
+        }
+    }
+
+    /**
+     * A seat held for a payment cannot be changed until the payment completes.
+     */
+    private void checkNotHeld(Seat seat) {
+        if (seat.getStatus() == SeatStatus.HELD) {
+            log.warn("Cannot change seat with ID: {} while it is held for a payment", seat.getId());
+            throw new BusinessException("business.error.seat_held_for_payment", HttpStatus.CONFLICT);
+        }
+    }
+
+    /**
+     * Seats are only held by purchases, never by a seat request.
+     */
+    private void checkRequestedStatus(SeatStatus status) {
+        if (status == SeatStatus.HELD) {
+            log.warn("Rejecting seat request with status: {}", status);
+            throw new BusinessException("business.error.seat_status_not_allowed", HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    private void validateSeatOperation(SeatBatchRequest.SeatOperation operation) {
+        boolean isAdd = operation.getType() == SeatBatchRequest.OperationType.ADD;
+        boolean needsSeat = !isAdd;
+        boolean needsValues = operation.getType() != SeatBatchRequest.OperationType.REMOVE;
+        boolean isValid = (operation.getSeatId() != null) == needsSeat
+                && (!needsValues || (operation.getPrice() != null && operation.getStatus() != null));
+        if (!isValid) {
+            log.warn("Rejecting invalid seat operation: {}", operation);
+            throw new BusinessException("business.error.invalid_seat_operation", HttpStatus.BAD_REQUEST);
+        }
+        checkRequestedStatus(operation.getStatus());
+    }
+
+    private static SeatBatchResponse.SeatOperationResult applied(int index, SeatBatchRequest.SeatOperation operation,
+                                                                SeatResponse seat) {
+        return SeatBatchResponse.SeatOperationResult.builder()
+                .index(index)
+                .type(operation.getType())
+                .applied(true)
+                .seat(seat)
+                .build();
+    }
+}
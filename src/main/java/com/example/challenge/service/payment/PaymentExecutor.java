@@ -0,0 +1,173 @@
+package com.example.challenge.service.payment;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Admits bank calls and runs the blocking stages of the payment pipeline off the request threads.
+ * <p>
+ * Up to {@code flight.bank-executor.max-outstanding-calls} bank calls may be waiting for the bank at once; further
+ * payments are rejected before the bank is called. Bank responses are handled on a pool of
+ * {@code flight.bank-executor.pool-size} platform threads with a queue of {@code flight.bank-executor.queue-capacity}
+ * responses, overflowing onto the thread that delivered the response, so a response the bank has sent is never
+ * dropped. The other stages stay on the thread that published their event.
+ * <p>
+ * With {@code flight.bank-executor.virtual-threads} enabled on a runtime that supports virtual threads (Java 21 and
+ * later), bank responses and every other stage run on their own virtual thread instead; on older runtimes the
+ * platform pool is used.
+ */
+@Slf4j
+@Component
+public class PaymentExecutor {
+
+    private static final String METRIC_PREFIX = "payment.bank.executor";
+
+    private final ThreadPoolTaskExecutor platformExecutor;
+    private final ExecutorService virtualExecutor;
+    private final int maxOutstandingCalls;
+    private final Semaphore outstandingCalls;
+    private final AtomicInteger activeVirtualThreads = new AtomicInteger();
+    private final Counter rejections;
+
+    public PaymentExecutor(MeterRegistry meterRegistry,
+                           @Value("${flight.bank-executor.pool-size:8}") int poolSize,
+                           @Value("${flight.bank-executor.queue-capacity:100}") int queueCapacity,
+                           @Value("${flight.bank-executor.virtual-threads:false}") boolean virtualThreads,
+                           @Value("${flight.bank-executor.max-outstanding-calls:10000}") int maxOutstandingCalls) {
+        this.virtualExecutor = virtualThreads ? newVirtualThreadExecutor() : null;
+        this.maxOutstandingCalls = maxOutstandingCalls;
+        this.outstandingCalls = new Semaphore(maxOutstandingCalls);
+        if (virtualExecutor != null) {
+            this.platformExecutor = null;
+            log.info("Running payment stages on virtual threads");
+        } else {
+            this.platformExecutor = new ThreadPoolTaskExecutor();
+            this.platformExecutor.setThreadNamePrefix("bank-response-");
+            this.platformExecutor.setCorePoolSize(poolSize);
+            this.platformExecutor.setMaxPoolSize(poolSize);
+            this.platformExecutor.setQueueCapacity(queueCapacity);
+            this.platformExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+            this.platformExecutor.initialize();
+            if (virtualThreads) {
+                log.warn("Virtual threads are not supported by Java {}, running payment stages on {} platform threads",
+                        Runtime.version().feature(), poolSize);
+            }
+        }
+        this.rejections = Counter.builder(METRIC_PREFIX + ".rejections").register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".active", this, PaymentExecutor::getActiveCount).register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".queue.size", this, PaymentExecutor::getQueueSize).register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".outstanding", this, PaymentExecutor::getOutstandingCallCount).register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (virtualExecutor != null) {
+            virtualExecutor.shutdown();
+        } else {
+            platformExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Admits a bank call; an admitted call must be ended with {@link #endBankCall()} once its response is handled.
+     *
+     * @return false if the outstanding bank call limit is reached, and the payment must not be sent to the bank
+     */
+    public boolean tryStartBankCall() {
+        if (outstandingCalls.tryAcquire()) {
+            return true;
+        }
+        rejections.increment();
+        return false;
+    }
+
+    public void endBankCall() {
+        outstandingCalls.release();
+    }
+
+    /**
+     * Runs the handling of a bank response: on a virtual thread when virtual threads are in use, otherwise on the
+     * platform pool, or on the calling thread when the pool and its queue are full.
+     *
+     * @param handling the handling of the bank response
+     */
+    public void executeBankResponse(Runnable handling) {
+        if (virtualExecutor != null) {
+            executeVirtual(handling);
+        } else {
+            platformExecutor.execute(handling);
+        }
+    }
+
+    /**
+     * Runs a payment stage other than the bank call: on a virtual thread when virtual threads are in use,
+     * otherwise on the calling thread.
+     *
+     * @param stage the payment stage
+     */
+    public void executeStage(Runnable stage) {
+        if (virtualExecutor != null) {
+            executeVirtual(stage);
+        } else {
+            stage.run();
+        }
+    }
+
+    public boolean isVirtual() {
+        return virtualExecutor != null;
+    }
+
+    public int getOutstandingCallCount() {
+        return maxOutstandingCalls - outstandingCalls.availablePermits();
+    }
+
+    public int getActiveCount() {
+        return virtualExecutor != null ? activeVirtualThreads.get() : platformExecutor.getActiveCount();
+    }
+
+    public int getQueueSize() {
+        return virtualExecutor != null ? 0 : platformExecutor.getThreadPoolExecutor().getQueue().size();
+    }
+
+    private void executeVirtual(Runnable task) {
+        virtualExecutor.execute(() -> {
+            activeVirtualThreads.incrementAndGet();
+            try {
+                task.run();
+            } finally {
+                activeVirtualThreads.decrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Looks up {@code Executors.newVirtualThreadPerTaskExecutor()}, which the Java 11 API this project compiles
+     * against does not have.
+     *
+     * @return a virtual thread per task executor, or null if the runtime cannot create one
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        } catch (InvocationTargetException e) {
+            // Java 19 and 20 have the method, but throw unless preview features are enabled
+            log.debug("Could not create a virtual thread executor", e.getCause());
+            return null;
+        }
+    }
+}
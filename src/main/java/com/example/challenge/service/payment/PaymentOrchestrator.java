@@ -1,14 +1,27 @@
 package com.example.challenge.service.payment;
 
+import com.example.challenge.domain.entity.Payment;
 import com.example.challenge.domain.enums.PaymentStatus;
+import com.example.challenge.domain.enums.SeatStatus;
 import com.example.challenge.service.payment.event.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.event.TransactionPhase;
 import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Moves payments through the pipeline. A payment holding its seat goes to the bank; a payment waiting for a held
+ * seat joins the {@link SeatPurchaseQueue} of the seat. When a payment fails, its seat is handed straight to the
+ * first payment waiting for it; when a payment succeeds, the payments waiting for its seat fail.
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
@@ -16,38 +29,115 @@ public class PaymentOrchestrator {
 
     private final PaymentRecorderService paymentRecorderService;
     private final PaymentProcessService paymentProcessService;
-    private final PaymentValidationService paymentValidationService;
+    private final PaymentExecutor paymentExecutor;
+    private final SeatPurchaseQueue seatPurchaseQueue;
 
     @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
     public void handlePaymentReceivedEvent(PaymentReceivedEvent event) {
-        log.info("Event: PaymentReceivedEvent => Payment Id={}, Price={}",
-                event.getPayment().getId(), event.getPayment().getPrice());
-        paymentValidationService.validatePayment(event);
+        Payment payment = event.getPayment();
+        log.info("Event: PaymentReceivedEvent => Payment Id={}, Price={}, Status={}",
+                payment.getId(), payment.getPrice(), payment.getStatus());
+        if (payment.getStatus() == PaymentStatus.WAITING) {
+            seatPurchaseQueue.park(payment);
+            paymentExecutor.executeStage(() -> settleQueue(payment.getSeat().getId()));
+            return;
+        }
+        paymentExecutor.executeStage(() -> paymentProcessService.callBankService(new PaymentValidationEvent(payment)));
     }
 
     @EventListener
-    public void handlePaymentValidatedEvent(PaymentValidationEvent event) {
-        log.info("Event: PaymentValidationEvent => Payment ID={}, Price={}, Status={}",
-                event.getPayment().getId(), event.getPayment().getPrice(), event.getPayment().getStatus());
-        if (event.getPayment().getStatus() == PaymentStatus.FAILED
-                || event.getPayment().getStatus() == PaymentStatus.WAITING) {
-            paymentRecorderService.updatePaymentStatus(
-                    event.getPayment().getId(),
-                    event.getPayment().getStatus()
-            );
+    public void handlePaymentProcessCompletedEvent(PaymentProcessEvent event) {
+        Payment payment = event.getProceedPayment();
+        log.info("Event: PaymentProcessEvent => Payment ID={}, Status={}", payment.getId(), payment.getStatus());
+        Long seatId = payment.getSeat().getId();
+        if (payment.getStatus() == PaymentStatus.FAILED) {
+            Payment next = seatPurchaseQueue.poll(seatId);
+            if (next != null) {
+                if (paymentRecorderService.handOverSeat(payment.getId(), next.getId())) {
+                    startWaitingPayment(next);
+                    return;
+                }
+                settleQueue(seatId);
+                return;
+            }
+        }
+        paymentRecorderService.updatePaymentStatus(payment.getId(), payment.getStatus());
+        settleQueue(seatId);
+    }
+
+    /**
+     * Resumes the payments whose bank call was cut short when the application stopped, then rebuilds the seat queues
+     * from the WAITING payments in the database and settles them, as a seat may have been released while the
+     * application was down.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restoreSeatQueues() {
+        resumePendingPayments();
+        List<Payment> waitingPayments = paymentRecorderService.findWaitingPayments();
+        if (waitingPayments.isEmpty()) {
             return;
         }
-        paymentProcessService.callBankService(event);
+        waitingPayments.forEach(seatPurchaseQueue::park);
+        Set<Long> seatIds = waitingPayments.stream()
+                .map(payment -> payment.getSeat().getId())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        log.info("Restored {} WAITING payments for {} seats", waitingPayments.size(), seatIds.size());
+        seatIds.forEach(this::settleQueue);
     }
 
-    @EventListener
-    public void handlePaymentProcessCompletedEvent(PaymentProcessEvent event) {
-        log.info("Event: PaymentProcessEvent => Payment ID={}, Status={}",
-                event.getProceedPayment().getId(), event.getProceedPayment().getStatus());
-        paymentRecorderService.updatePaymentStatus(
-                event.getProceedPayment().getId(),
-                event.getProceedPayment().getStatus());
-        paymentValidationService.checkWaitingPayments(event.getProceedPayment());
+    /**
+     * Sends the PENDING payments still holding their seat to the bank again. Otherwise nothing would ever complete
+     * them, and their seats would stay HELD, with the payments queued behind them, forever. Once they complete, their
+     * seats are sold or handed on as usual.
+     */
+    private void resumePendingPayments() {
+        List<Payment> pendingPayments = paymentRecorderService.findPendingPaymentsOfHeldSeats();
+        if (pendingPayments.isEmpty()) {
+            return;
+        }
+        log.info("Resuming {} PENDING payments interrupted before their bank call completed", pendingPayments.size());
+        pendingPayments.forEach(payment -> paymentExecutor.executeStage(
+                () -> paymentProcessService.callBankService(new PaymentValidationEvent(payment))));
+    }
+
+    /**
+     * Brings the payments waiting for a seat in line with the seat: they fail if it is sold, the first one gets it if
+     * it is available, and they keep waiting while it is held, as its holder settles them when it completes. Called
+     * after every change that can leave payments waiting for a seat nobody holds, including a payment joining the
+     * queue just after the holder has completed.
+     */
+    private void settleQueue(Long seatId) {
+        while (!seatPurchaseQueue.isEmpty(seatId)) {
+            SeatStatus seatStatus = paymentRecorderService.getSeatStatus(seatId);
+            if (seatStatus == SeatStatus.HELD) {
+                return;
+            }
+            if (seatStatus == SeatStatus.UNAVAILABLE) {
+                List<Payment> waitingPayments = seatPurchaseQueue.drain(seatId);
+                if (!waitingPayments.isEmpty()) {
+                    paymentRecorderService.failWaitingPayments(waitingPayments.stream()
+                            .map(Payment::getId)
+                            .collect(Collectors.toList()));
+                }
+                continue;
+            }
+            if (!paymentRecorderService.holdSeat(seatId)) {
+                // Claimed or changed in the meantime, look again
+                continue;
+            }
+            Payment next = seatPurchaseQueue.poll(seatId);
+            if (next != null && paymentRecorderService.promoteWaitingPayment(next.getId())) {
+                startWaitingPayment(next);
+                return;
+            }
+            paymentRecorderService.releaseSeat(seatId);
+        }
+    }
+
+    private void startWaitingPayment(Payment payment) {
+        log.info("WAITING Payment Id={} now holds Seat Id={} => calling the bank", payment.getId(), payment.getSeat().getId());
+        payment.setStatus(PaymentStatus.PENDING);
+        paymentProcessService.callBankService(new PaymentValidationEvent(payment));
     }
 
 }
@@ -3,53 +3,87 @@ package com.example.challenge.service.payment;
 import com.example.challenge.domain.entity.Payment;
 import com.example.challenge.domain.enums.BankResponseCode;
 import com.example.challenge.domain.enums.PaymentStatus;
-import com.example.challenge.service.BankService;
+import com.example.challenge.service.AsyncBankService;
 import com.example.challenge.service.payment.event.PaymentProcessEvent;
 import com.example.challenge.service.payment.event.PaymentValidationEvent;
 import com.example.challenge.web.model.v1.request.BankPaymentRequest;
 import com.example.challenge.web.model.v1.response.BankPaymentResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.aop.framework.AopContext;
 import org.springframework.context.ApplicationEventPublisher;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Recover;
-import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Calls the bank for payments holding their seat. Bank calls are asynchronous, so no thread waits for the bank: the
+ * response is handled on the {@link PaymentExecutor}, and a failed call is retried once after a delay. A payment the
+ * executor does not admit is failed right away without calling the bank, which releases its seat.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class PaymentProcessService {
 
-    private final BankService bankService;
+    private static final int MAX_ATTEMPTS = 2;
+    private static final long RETRY_DELAY_MILLIS = 3000;
+
+    private final AsyncBankService asyncBankService;
     private final ApplicationEventPublisher eventPublisher;
+    private final PaymentExecutor paymentExecutor;
 
     /**
-     * Processes the bank call async.
+     * Processes the bank call async, failing the payment if too many bank calls are outstanding.
      */
     public void callBankService(PaymentValidationEvent event) {
-        PaymentProcessService proxy = (PaymentProcessService) AopContext.currentProxy();
-        CompletableFuture.runAsync(() -> proxy.processPaymentWithRetry(event));
+        if (!paymentExecutor.tryStartBankCall()) {
+            log.warn("Too many outstanding bank calls, Payment Id={} for Seat Id={} fails without calling the bank",
+                    event.getPayment().getId(), event.getPayment().getSeat().getId());
+            event.getPayment().setStatus(PaymentStatus.FAILED);
+            eventPublisher.publishEvent(new PaymentProcessEvent(event.getPayment()));
+            return;
+        }
+        callBank(event, 1);
     }
 
     /**
-     * Processes the bank response with retry mechanism.
+     * Sends the payment to the bank and handles the response once it arrives, retrying a failed call after a delay.
      */
-    @Retryable(value = Exception.class, maxAttempts = 2, backoff = @Backoff(delay = 3000))
-    public void processPaymentWithRetry(PaymentValidationEvent event) {
-        log.info("[Async] Passing payment for Seat Id={} to Bank Service for further processing. Payment Id={}",
-                event.getPayment().getSeat().getId(), event.getPayment().getId());
+    private void callBank(PaymentValidationEvent event, int attempt) {
+        log.info("[Async] Passing payment for Seat Id={} to Bank Service for further processing. Payment Id={}, Attempt={}",
+                event.getPayment().getSeat().getId(), event.getPayment().getId(), attempt);
 
-        BankPaymentResponse response = bankService.pay(
+        asyncBankService.pay(
                 BankPaymentRequest.builder()
                         .price(event.getPayment().getPrice())
                         .build()
-        );
+        ).whenComplete((response, failure) -> {
+            if (failure != null && attempt < MAX_ATTEMPTS) {
+                log.warn("Bank call for Payment Id={} failed due to: {}, retrying in {} ms",
+                        event.getPayment().getId(), failure.getMessage(), RETRY_DELAY_MILLIS);
+                CompletableFuture.delayedExecutor(RETRY_DELAY_MILLIS, TimeUnit.MILLISECONDS)
+                        .execute(() -> callBank(event, attempt + 1));
+                return;
+            }
+            paymentExecutor.executeBankResponse(() -> handleBankResult(event, response, failure));
+        });
+    }
 
-        processBankResponse(event.getPayment(), response);
+    private void handleBankResult(PaymentValidationEvent event, BankPaymentResponse response, Throwable failure) {
+        try {
+            if (failure != null) {
+                recover(failure, event);
+                return;
+            }
+            try {
+                processBankResponse(event.getPayment(), response);
+            } catch (RuntimeException e) {
+                recover(e, event);
+            }
+        } finally {
+            paymentExecutor.endBankCall();
+        }
     }
 
     /**
@@ -66,11 +100,9 @@ public class PaymentProcessService {
     }
 
     /**
-     * Recovery method called when all retry attempts have failed.
-     * This method receives the exception and the original PaymentValidationEvent.
+     * Recovery method called when all attempts have failed, or the bank response could not be processed.
      */
-    @Recover
-    public void recover(Exception e, PaymentValidationEvent event) {
+    private void recover(Throwable e, PaymentValidationEvent event) {
         log.error("[Recover] Payment Id={} failed after retries due to: {}",
                 event.getPayment().getId(), e.getMessage());
         event.getPayment().setStatus(PaymentStatus.FAILED);
@@ -4,6 +4,8 @@ import com.example.challenge.domain.entity.Payment;
 import com.example.challenge.domain.entity.Seat;
 import com.example.challenge.domain.enums.PaymentStatus;
 import com.example.challenge.domain.enums.SeatStatus;
+import com.example.challenge.infrastructure.cache.FlightCatalogCache;
+import com.example.challenge.repository.FlightRepository;
 import com.example.challenge.repository.PaymentRepository;
 import com.example.challenge.repository.SeatRepository;
 import com.example.challenge.service.payment.event.PaymentReceivedEvent;
@@ -15,6 +17,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.springframework.transaction.annotation.Propagation.REQUIRES_NEW;
 
@@ -25,42 +28,186 @@ public class PaymentRecorderService {
 
     private final PaymentRepository paymentRepository;
     private final SeatRepository seatRepository;
+    private final FlightRepository flightRepository;
     private final ApplicationEventPublisher eventPublisher;
+    private final FlightCatalogCache flightCatalogCache;
 
     /**
-     * Creates a PENDING payment and publishes an event.
+     * Creates a PENDING payment for a seat claimed for it, and publishes an event.
      */
     @Transactional
     public Payment createPendingPayment(Seat seat, BigDecimal price) {
-        Payment pendingPayment = paymentRepository.save(Payment.builder()
+        return createPayment(seat, price, PaymentStatus.PENDING);
+    }
+
+    /**
+     * Creates a WAITING payment for a seat held by another payment, and publishes an event.
+     */
+    @Transactional
+    public Payment createWaitingPayment(Seat seat, BigDecimal price) {
+        return createPayment(seat, price, PaymentStatus.WAITING);
+    }
+
+    /**
+     * Update the payment status and release the seat the payment holds: a successful payment sells the seat,
+     * a failed one makes it available again.
+     */
+    @Transactional(propagation = REQUIRES_NEW)
+    public void updatePaymentStatus(Long paymentId, PaymentStatus status) {
+        Payment updatedPayment = savePaymentStatus(paymentId, status);
+        if (status == PaymentStatus.SUCCESS) {
+            releaseSeat(updatedPayment, SeatStatus.UNAVAILABLE);
+        } else if (status == PaymentStatus.FAILED) {
+            releaseSeat(updatedPayment, SeatStatus.AVAILABLE);
+        }
+    }
+
+    /**
+     * Fails the payment and hands the seat it holds straight to the next waiting payment, which becomes PENDING.
+     * The seat stays HELD throughout, so no other purchase can claim it in between.
+     *
+     * @return true if the seat was handed over, false if the next payment was no longer WAITING or was for another
+     * price than the seat's, and the seat was made available instead
+     */
+    @Transactional(propagation = REQUIRES_NEW)
+    public boolean handOverSeat(Long failedPaymentId, Long nextPaymentId) {
+        Payment failedPayment = savePaymentStatus(failedPaymentId, PaymentStatus.FAILED);
+        if (moveWaitingToPending(nextPaymentId)) {
+            log.info("Seat Id={} is handed over from Payment Id={} to WAITING Payment Id={}, which is now PENDING",
+                    failedPayment.getSeat().getId(), failedPaymentId, nextPaymentId);
+            return true;
+        }
+        releaseSeat(failedPayment, SeatStatus.AVAILABLE);
+        return false;
+    }
+
+    /**
+     * @return the WAITING payments of all seats, in the order they were created
+     */
+    @Transactional(readOnly = true)
+    public List<Payment> findWaitingPayments() {
+        return paymentRepository.findAllByStatusOrderByCreatedAtAscIdAsc(PaymentStatus.WAITING);
+    }
+
+    /**
+     * @return the PENDING payments holding their seat, in the order they were created
+     */
+    @Transactional(readOnly = true)
+    public List<Payment> findPendingPaymentsOfHeldSeats() {
+        return paymentRepository.findPendingOfHeldSeats();
+    }
+
+    @Transactional(readOnly = true)
+    public SeatStatus getSeatStatus(Long seatId) {
+        return seatRepository.findStatusById(seatId)
+                .orElseThrow(() -> new IllegalStateException("Seat not found: " + seatId));
+    }
+
+    /**
+     * Claims an AVAILABLE seat for the payments waiting for it.
+     *
+     * @return false if the seat is not AVAILABLE
+     */
+    @Transactional(propagation = REQUIRES_NEW)
+    public boolean holdSeat(Long seatId) {
+        Seat seat = findSeat(seatId);
+        if (seatRepository.claimAvailable(seatId) == 0) {
+            return false;
+        }
+        seatChanged(seat.getFlight().getId(), seat.getSeatNumber(), SeatStatus.HELD);
+        return true;
+    }
+
+    /**
+     * Makes a seat claimed by {@link #holdSeat} AVAILABLE again, when no payment was waiting for it after all.
+     */
+    @Transactional(propagation = REQUIRES_NEW)
+    public void releaseSeat(Long seatId) {
+        Seat seat = findSeat(seatId);
+        if (seatRepository.releaseHold(seatId, SeatStatus.AVAILABLE) == 1) {
+            seatChanged(seat.getFlight().getId(), seat.getSeatNumber(), SeatStatus.AVAILABLE);
+        }
+    }
+
+    /**
+     * Moves a WAITING payment to PENDING once its seat is held for it.
+     *
+     * @return false if the payment was no longer WAITING, or was failed because the seat was repriced
+     */
+    @Transactional(propagation = REQUIRES_NEW)
+    public boolean promoteWaitingPayment(Long paymentId) {
+        return moveWaitingToPending(paymentId);
+    }
+
+    /**
+     * Fails the payments waiting for a seat that has been sold.
+     */
+    @Transactional(propagation = REQUIRES_NEW)
+    public void failWaitingPayments(List<Long> paymentIds) {
+        int failed = paymentRepository.failWaiting(paymentIds);
+        log.info("Moved {} Payments from WAITING => FAILED because the seat is sold", failed);
+    }
+
+    private Payment createPayment(Seat seat, BigDecimal price, PaymentStatus status) {
+        Payment payment = paymentRepository.save(Payment.builder()
                 .createdAt(LocalDateTime.now())
                 .seat(seat)
                 .price(price)
-                .status(PaymentStatus.PENDING)
+                .status(status)
                 .build());
-        log.info("Created PENDING Payment Id={} for Seat Id={}", pendingPayment.getId(), seat.getId());
-        eventPublisher.publishEvent(new PaymentReceivedEvent(pendingPayment));
-        return pendingPayment;
+        log.info("Created {} Payment Id={} for Seat Id={}", status, payment.getId(), seat.getId());
+        eventPublisher.publishEvent(new PaymentReceivedEvent(payment));
+        return payment;
     }
 
     /**
-     * Update the payment status and seat availability.
+     * Moves a WAITING payment to PENDING if it is for the current price of its seat. A seat can be repriced while it
+     * is AVAILABLE, and a payment waiting for it must not buy it at the old price, so it is failed instead.
      */
-    @Transactional(propagation = REQUIRES_NEW)
-    public void updatePaymentStatus(Long paymentId, PaymentStatus status) {
+    private boolean moveWaitingToPending(Long paymentId) {
+        Payment payment = paymentRepository.findById(paymentId)
+                .orElseThrow(() -> new IllegalStateException("Payment not found: " + paymentId));
+        if (payment.getPrice().compareTo(payment.getSeat().getPrice()) != 0) {
+            if (paymentRepository.updateStatus(paymentId, PaymentStatus.WAITING, PaymentStatus.FAILED) == 1) {
+                log.warn("Seat Id={} was repriced from {} to {} while Payment Id={} waited for it, failing the payment",
+                        payment.getSeat().getId(), payment.getPrice(), payment.getSeat().getPrice(), paymentId);
+            }
+            return false;
+        }
+        return paymentRepository.updateStatus(paymentId, PaymentStatus.WAITING, PaymentStatus.PENDING) == 1;
+    }
+
+    private Payment savePaymentStatus(Long paymentId, PaymentStatus status) {
         Payment payment = paymentRepository.findById(paymentId)
                 .orElseThrow(() -> new IllegalStateException("Payment not found: " + paymentId));
         payment.setStatus(status);
         Payment updatedPayment = paymentRepository.save(payment);
         log.info("Updated Payment Id={} to Status={}", updatedPayment.getId(), updatedPayment.getStatus());
-        if (status == PaymentStatus.SUCCESS) {
-            log.info("Payment Id={} Bank Call is:{}. Updating Seat Id={} to UNAVAILABLE",
-                    updatedPayment.getId(),
-                    updatedPayment.getStatus(),
-                    updatedPayment.getSeat().getId());
-            Seat seat = payment.getSeat();
-            seat.setStatus(SeatStatus.UNAVAILABLE);
-            seatRepository.save(seat);
+        return updatedPayment;
+    }
+
+    private Seat findSeat(Long seatId) {
+        return seatRepository.findById(seatId)
+                .orElseThrow(() -> new IllegalStateException("Seat not found: " + seatId));
+    }
+
+    private void releaseSeat(Payment payment, SeatStatus seatStatus) {
+        Seat seat = payment.getSeat();
+        // Read before the update, which detaches the seat
+        Long flightId = seat.getFlight().getId();
+        String seatNumber = seat.getSeatNumber();
+        log.info("Payment Id={} Bank Call is:{}. Updating Seat Id={} from HELD to {}",
+                payment.getId(), payment.getStatus(), seat.getId(), seatStatus);
+        if (seatRepository.releaseHold(seat.getId(), seatStatus) == 0) {
+            log.warn("Seat Id={} was not HELD when Payment Id={} completed, leaving it unchanged",
+                    seat.getId(), payment.getId());
+            return;
         }
+        seatChanged(flightId, seatNumber, seatStatus);
+    }
+
+    private void seatChanged(Long flightId, String seatNumber, SeatStatus seatStatus) {
+        flightRepository.incrementSeatRevision(flightId);
+        flightCatalogCache.seatStatusChanged(flightId, seatNumber, seatStatus);
     }
 }
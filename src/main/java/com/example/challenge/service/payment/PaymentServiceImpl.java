@@ -4,7 +4,9 @@ import com.example.challenge.domain.entity.Payment;
 import com.example.challenge.domain.entity.Seat;
 import com.example.challenge.domain.enums.PaymentStatus;
 import com.example.challenge.domain.enums.SeatStatus;
+import com.example.challenge.infrastructure.cache.FlightCatalogCache;
 import com.example.challenge.infrastructure.exception.BusinessException;
+import com.example.challenge.repository.FlightRepository;
 import com.example.challenge.repository.PaymentRepository;
 import com.example.challenge.repository.SeatRepository;
 import com.example.challenge.web.model.v1.request.PaymentRequest;
@@ -29,20 +31,49 @@ public class PaymentServiceImpl implements PaymentService {
     private final SeatRepository seatRepository;
     private final PaymentRepository paymentRepository;
     private final PaymentRecorderService paymentRecorderService;
+    private final FlightRepository flightRepository;
+    private final FlightCatalogCache flightCatalogCache;
+    private final SeatPurchaseQueue seatPurchaseQueue;
 
     /**
-     * Processes seat purchase request.
+     * Processes seat purchase request. The seat is claimed for the payment with a single conditional update, so of
+     * any number of concurrent purchases of a seat exactly one wins it. The others are queued as WAITING behind it,
+     * and get the seat in turn if the payments before them fail. A claim lost to a change of the seat other than a
+     * purchase is retried once against the seat as it is now.
      */
     @Override
     @Transactional
     public PaymentResponse purchaseSeat(PaymentRequest paymentRequest) {
         Seat seat = validateSeat(paymentRequest.getSeatId(), paymentRequest.getPrice());
-        Payment payment = paymentRecorderService.createPendingPayment(seat, paymentRequest.getPrice());
-        log.info("Seat Id={} purchase initiated. Payment Id={} is PENDING. Bank call will happen async.",
-                paymentRequest.getSeatId(), payment.getId());
+        boolean claimed = claimSeat(seat);
+        if (!claimed && seat.getStatus() == SeatStatus.AVAILABLE) {
+            // Lost to another purchase, or the seat changed since it was read, e.g. it was repriced. Read it again,
+            // so that a payment only waits for a seat that is actually held, and at the seat's current price
+            seat = validateSeat(paymentRequest.getSeatId(), paymentRequest.getPrice());
+            claimed = claimSeat(seat);
+        }
+        Payment payment;
+        if (claimed) {
+            payment = paymentRecorderService.createPendingPayment(seat, paymentRequest.getPrice());
+            log.info("Seat Id={} purchase initiated. Payment Id={} is PENDING. Bank call will happen async.",
+                    paymentRequest.getSeatId(), payment.getId());
+        } else {
+            if (seat.getStatus() != SeatStatus.HELD) {
+                // Changed again while it was being claimed
+                throw new BusinessException("business.error.seat_not_available_for_purchase", HttpStatus.CONFLICT);
+            }
+            if (!seatPurchaseQueue.tryReserve(seat.getId())) {
+                throw new BusinessException("business.error.seat_queue_full", HttpStatus.TOO_MANY_REQUESTS);
+            }
+            payment = paymentRecorderService.createWaitingPayment(seat, paymentRequest.getPrice());
+            log.info("Seat Id={} is held by another purchase. Payment Id={} is WAITING for it.",
+                    paymentRequest.getSeatId(), payment.getId());
+        }
         return PaymentResponse.builder()
                 .status(payment.getStatus().toString())
-                .message("Seat purchase is being processed asynchronously.")
+                .message(payment.getStatus() == PaymentStatus.WAITING
+                        ? "Seat is held by another purchase, the payment is queued."
+                        : "Seat purchase is being processed asynchronously.")
                 .paymentId(payment.getId())
                 .statusCheckUrl(ServletUriComponentsBuilder.fromCurrentContextPath()
                         .path("/api/v1/payments/{paymentId}")
@@ -85,7 +116,7 @@ public class PaymentServiceImpl implements PaymentService {
     }
 
     /**
-     * Validates seat availability, checks pending payments, and verifies price.
+     * Validates seat availability and verifies price.
      */
     private Seat validateSeat(Long seatId, BigDecimal requestedPrice) {
 
@@ -93,10 +124,7 @@ public class PaymentServiceImpl implements PaymentService {
                 () -> new BusinessException("business.error.seat_not_found", HttpStatus.NOT_FOUND)
         );
 
-        if (seat.getStatus() != SeatStatus.AVAILABLE) {
-            throw new BusinessException("business.error.seat_not_available_for_purchase", HttpStatus.CONFLICT);
-        }
-        if (paymentRepository.existsBySeatIdAndStatus(seatId, PaymentStatus.SUCCESS)) {
+        if (seat.getStatus() == SeatStatus.UNAVAILABLE) {
             throw new BusinessException("business.error.seat_not_available_for_purchase", HttpStatus.CONFLICT);
         }
         if (seat.getPrice().compareTo(requestedPrice) != 0) {
@@ -106,4 +134,21 @@ public class PaymentServiceImpl implements PaymentService {
         return seat;
     }
 
+    /**
+     * Moves the seat to HELD if it is still AVAILABLE at the version that was validated. A lost claim means another
+     * payment holds the seat or it was changed since it was read.
+     *
+     * @return false if the seat was not AVAILABLE when read, or was claimed or changed since
+     */
+    private boolean claimSeat(Seat seat) {
+        if (seat.getStatus() != SeatStatus.AVAILABLE || seatRepository.claim(seat.getId(), seat.getVersion()) == 0) {
+            return false;
+        }
+        seat.setStatus(SeatStatus.HELD);
+        seat.setVersion(seat.getVersion() + 1);
+        flightRepository.incrementSeatRevision(seat.getFlight().getId());
+        flightCatalogCache.seatStatusChanged(seat.getFlight().getId(), seat.getSeatNumber(), SeatStatus.HELD);
+        return true;
+    }
+
 }
@@ -0,0 +1,162 @@
+package com.example.challenge.service.payment;
+
+import com.example.challenge.domain.entity.Payment;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory FIFO queues of the WAITING payments of seats held by another payment, one queue per seat.
+ * <p>
+ * Every queue is only changed inside {@link ConcurrentMap#compute}, which locks the map bin of that seat alone, so
+ * purchases of different seats never contend and a queue is removed as soon as it is empty. At most
+ * {@code flight.seat-queue.max-waiting} payments wait for a seat: a purchase reserves its place with
+ * {@link #tryReserve} in the transaction that creates its WAITING payment, and the place is taken by {@link #park}
+ * once that transaction has committed, or given back if it rolls back. The WAITING rows in the database are the
+ * source of truth; the queues are rebuilt from them on startup.
+ */
+@Component
+public class SeatPurchaseQueue {
+
+    private final ConcurrentMap<Long, SeatQueue> queues = new ConcurrentHashMap<>();
+    private final AtomicInteger waitingCount = new AtomicInteger();
+    private final int maxWaiting;
+
+    public SeatPurchaseQueue(MeterRegistry meterRegistry,
+                             @Value("${flight.seat-queue.max-waiting:100}") int maxWaiting) {
+        this.maxWaiting = maxWaiting;
+        Gauge.builder("payment.seat.queue.waiting", waitingCount, AtomicInteger::get).register(meterRegistry);
+    }
+
+    /**
+     * Reserves a place in the queue of the seat for a payment about to be created WAITING. Called within a
+     * transaction, the place is given back if the transaction does not commit.
+     *
+     * @return false if the waiting and reserved payments of the seat already reach the maximum
+     */
+    public boolean tryReserve(Long seatId) {
+        AtomicBoolean reserved = new AtomicBoolean();
+        queues.compute(seatId, (id, queue) -> {
+            SeatQueue seatQueue = queue != null ? queue : new SeatQueue();
+            if (seatQueue.payments.size() + seatQueue.reserved < maxWaiting) {
+                seatQueue.reserved++;
+                reserved.set(true);
+            }
+            return seatQueue.isEmpty() ? null : seatQueue;
+        });
+        if (reserved.get() && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        cancelReservation(seatId);
+                    }
+                }
+            });
+        }
+        return reserved.get();
+    }
+
+    /**
+     * Adds a WAITING payment to the end of the queue of its seat, taking the place reserved for it if there is one.
+     */
+    public void park(Payment payment) {
+        queues.compute(payment.getSeat().getId(), (seatId, queue) -> {
+            SeatQueue seatQueue = queue != null ? queue : new SeatQueue();
+            seatQueue.payments.addLast(payment);
+            if (seatQueue.reserved > 0) {
+                seatQueue.reserved--;
+            }
+            return seatQueue;
+        });
+        waitingCount.incrementAndGet();
+    }
+
+    /**
+     * Removes the payment that has waited longest for the seat.
+     *
+     * @return the payment, or null if no payment is waiting for the seat
+     */
+    public Payment poll(Long seatId) {
+        List<Payment> polled = new ArrayList<>(1);
+        queues.computeIfPresent(seatId, (id, queue) -> {
+            Payment payment = queue.payments.pollFirst();
+            if (payment != null) {
+                polled.add(payment);
+            }
+            return queue.isEmpty() ? null : queue;
+        });
+        if (polled.isEmpty()) {
+            return null;
+        }
+        waitingCount.decrementAndGet();
+        return polled.get(0);
+    }
+
+    /**
+     * Removes every payment waiting for the seat.
+     *
+     * @return the payments in the order they arrived
+     */
+    public List<Payment> drain(Long seatId) {
+        List<Payment> drained = new ArrayList<>();
+        queues.computeIfPresent(seatId, (id, queue) -> {
+            drained.addAll(queue.payments);
+            queue.payments.clear();
+            return queue.isEmpty() ? null : queue;
+        });
+        waitingCount.addAndGet(-drained.size());
+        return drained;
+    }
+
+    /**
+     * @return true if no payment is waiting for the seat; places only reserved do not count
+     */
+    public boolean isEmpty(Long seatId) {
+        AtomicBoolean empty = new AtomicBoolean(true);
+        queues.computeIfPresent(seatId, (id, queue) -> {
+            empty.set(queue.payments.isEmpty());
+            return queue;
+        });
+        return empty.get();
+    }
+
+    public int getWaitingCount() {
+        return waitingCount.get();
+    }
+
+    private void cancelReservation(Long seatId) {
+        queues.computeIfPresent(seatId, (id, queue) -> {
+            if (queue.reserved > 0) {
+                queue.reserved--;
+            }
+            return queue.isEmpty() ? null : queue;
+        });
+    }
+
+    /**
+     * The payments waiting for a seat and the number of places reserved for payments not yet committed.
+     * Only accessed inside the map operations that lock the seat.
+     */
+    private static final class SeatQueue {
+
+        private final Deque<Payment> payments = new ArrayDeque<>();
+        private int reserved;
+
+        private boolean isEmpty() {
+            return payments.isEmpty() && reserved == 0;
+        }
+    }
+}
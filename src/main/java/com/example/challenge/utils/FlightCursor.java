@@ -0,0 +1,54 @@
+package com.example.challenge.utils;
+
+import com.example.challenge.infrastructure.exception.BusinessException;
+import lombok.Value;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of a flight in the (departure time, ID) ordering used by keyset pagination.
+ * Clients receive it as an opaque URL-safe token and send it back to fetch the next page.
+ */
+@Value
+public class FlightCursor {
+
+    private static final String SEPARATOR = "|";
+
+    LocalDateTime departureTime;
+    Long flightId;
+
+    /**
+     * Encodes this position as an opaque URL-safe token.
+     *
+     * @return the cursor token
+     */
+    public String encode() {
+        String raw = departureTime + SEPARATOR + flightId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token produced by {@link #encode()}.
+     *
+     * @param token the cursor token
+     * @return the decoded position
+     * @throws BusinessException if the token is malformed
+     */
+    public static FlightCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separatorIndex = raw.lastIndexOf(SEPARATOR);
+            if (separatorIndex < 0) {
+                throw new BusinessException("business.error.invalid_cursor", HttpStatus.BAD_REQUEST);
+            }
+            return new FlightCursor(LocalDateTime.parse(raw.substring(0, separatorIndex)),
+                    Long.valueOf(raw.substring(separatorIndex + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BusinessException("business.error.invalid_cursor", HttpStatus.BAD_REQUEST);
+        }
+    }
+}
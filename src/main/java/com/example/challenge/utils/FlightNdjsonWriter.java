@@ -0,0 +1,112 @@
+package com.example.challenge.utils;
+
+import com.example.challenge.domain.enums.SeatStatus;
+import com.example.challenge.domain.projection.FlightSeatRow;
+import com.example.challenge.web.model.v1.response.FlightResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+
+/**
+ * Writes flight/seat rows as newline-delimited JSON, one line per flight in the shape of
+ * {@code FlightDetailsResponse}. Rows must arrive grouped by flight with available seats first;
+ * each row is written as soon as it is received, so only the current flight's ID is kept in memory.
+ */
+public class FlightNdjsonWriter {
+
+    private final JsonGenerator generator;
+    private Long currentFlightId;
+    private boolean inAvailableSeats;
+    private boolean firstLineFlushed;
+
+    public FlightNdjsonWriter(JsonGenerator generator) {
+        this.generator = generator;
+        // Lines are separated by the newline written after each flight
+        generator.setRootValueSeparator(null);
+    }
+
+    /**
+     * Writes a single row, opening a new line when the row belongs to the next flight.
+     *
+     * @param row the flight/seat row
+     */
+    public void write(FlightSeatRow row) {
+        try {
+            if (!Objects.equals(currentFlightId, row.getFlightId())) {
+                endFlight();
+                startFlight(row);
+            }
+            if (row.getSeatId() == null) {
+                return;
+            }
+            if (row.getSeatStatus() == SeatStatus.AVAILABLE) {
+                generator.writeStartObject();
+                generator.writeNumberField("seatId", row.getSeatId());
+                generator.writeStringField("seatNumber", row.getSeatNumber());
+                generator.writeNumberField("seatPrice", row.getSeatPrice());
+                generator.writeEndObject();
+            } else {
+                startUnavailableSeats();
+                generator.writeStartObject();
+                generator.writeNumberField("seatId", row.getSeatId());
+                generator.writeStringField("seatNumber", row.getSeatNumber());
+                generator.writeEndObject();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Completes the last flight and flushes the output.
+     */
+    public void finish() {
+        try {
+            endFlight();
+            generator.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void startFlight(FlightSeatRow row) throws IOException {
+        currentFlightId = row.getFlightId();
+        generator.writeStartObject();
+        generator.writeObjectField("flight", FlightResponse.builder()
+                .flightId(row.getFlightId())
+                .flightNumber(row.getFlightNumber())
+                .origin(row.getOrigin())
+                .destination(row.getDestination())
+                .departureTime(row.getDepartureTime())
+                .arrivalTime(row.getArrivalTime())
+                .seatCapacity(row.getSeatCapacity())
+                .build());
+        generator.writeArrayFieldStart("availableSeats");
+        inAvailableSeats = true;
+    }
+
+    private void startUnavailableSeats() throws IOException {
+        if (inAvailableSeats) {
+            generator.writeEndArray();
+            generator.writeArrayFieldStart("unavailableSeats");
+            inAvailableSeats = false;
+        }
+    }
+
+    private void endFlight() throws IOException {
+        if (currentFlightId == null) {
+            return;
+        }
+        startUnavailableSeats();
+        generator.writeEndArray();
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+        if (!firstLineFlushed) {
+            // Send the first flight right away instead of waiting for the output buffer to fill
+            generator.flush();
+            firstLineFlushed = true;
+        }
+    }
+}
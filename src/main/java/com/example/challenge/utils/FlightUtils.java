@@ -13,7 +13,7 @@ import java.util.stream.IntStream;
 /**
  * Utility class for operations related to flights and seats.
  * Provides methods for generating seats, creating unique seat numbers,
- * and generating unique flight numbers based on flight details.
+ * and building flight number prefixes based on flight details.
  * This class is stateless and should only contain static utility methods.
  */
 @UtilityClass
@@ -52,38 +52,16 @@ public class FlightUtils {
     }
 
     /**
-     * Finds the next available seat number for a flight by scanning existing seat numbers.
-     * This ensures that seat numbers are unique within the flight.
-     *
-     * @param flight the flight for which to determine the next available seat number
-     * @return the next available seat number as a string
-     */
-    public static String getNextSeatNumber(Flight flight) {
-        List<String> existingSeatNumbers = flight.getSeats().stream()
-                .map(Seat::getSeatNumber)
-                .collect(Collectors.toList());
-        int seatNumber = 1;
-        while (existingSeatNumbers.contains(String.valueOf(seatNumber))) {
-            seatNumber++;
-        }
-        return String.valueOf(seatNumber);
-    }
-
-    /**
-     * Generates a unique flight number based on the flight's origin and destination.
-     * The flight number is composed of the first two characters of the origin and destination
-     * (converted to uppercase) followed by a random 4-digit number.
+     * Builds the route prefix of flight numbers, composed of the first two characters of the origin
+     * and destination, converted to uppercase. The number itself is allocated by {@code FlightNumberAllocator}.
      *
      * @param origin      the origin location of the flight
      * @param destination the destination location of the flight
-     * @return a unique flight number
+     * @return the flight number prefix of the route
      */
-    public static String generateFlightNumber(String origin, String destination) {
+    public static String getFlightNumberPrefix(String origin, String destination) {
         String originCode = origin.length() > 1 ? origin.substring(0, 2).toUpperCase() : origin.toUpperCase();
         String destinationCode = destination.length() > 1 ? destination.substring(0, 2).toUpperCase() : destination.toUpperCase();
-        StringBuilder flightNumber = new StringBuilder();
-        return flightNumber.append(originCode)
-                .append(destinationCode)
-                .append((int) (Math.random() * 9000) + 1000).toString();
+        return originCode + destinationCode;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,64 @@
+package com.example.challenge.utils;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads newline-delimited JSON one line at a time. At most {@code maxLineLength} characters of a line
+ * are kept; the rest of a longer line is skipped, so memory use does not depend on the input.
+ */
+public class NdjsonLineReader {
+
+    private final Reader reader;
+    private final int maxLineLength;
+    private final StringBuilder line;
+    private long lineNumber;
+    private boolean tooLong;
+
+    public NdjsonLineReader(Reader reader, int maxLineLength) {
+        this.reader = reader;
+        this.maxLineLength = maxLineLength;
+        this.line = new StringBuilder();
+    }
+
+    /**
+     * Advances to the next line.
+     *
+     * @return false once the input is exhausted
+     */
+    public boolean next() throws IOException {
+        line.setLength(0);
+        tooLong = false;
+        int c = reader.read();
+        if (c == -1) {
+            return false;
+        }
+        lineNumber++;
+        while (c != -1 && c != '\n') {
+            if (line.length() < maxLineLength) {
+                line.append((char) c);
+            } else {
+                tooLong = true;
+            }
+            c = reader.read();
+        }
+        if (!tooLong && line.length() > 0 && line.charAt(line.length() - 1) == '\r') {
+            line.setLength(line.length() - 1);
+        }
+        return true;
+    }
+
+    /**
+     * @return the current line without its line break, or null if it exceeded the maximum length
+     */
+    public String getLine() {
+        return tooLong ? null : line.toString();
+    }
+
+    /**
+     * @return the number of the current line, starting from 1
+     */
+    public long getLineNumber() {
+        return lineNumber;
+    }
+}
@@ -1,22 +1,44 @@
 package com.example.challenge.web.controller.v1;
 
+import com.example.challenge.service.FlightImportService;
+import com.example.challenge.service.FlightScheduleService;
 import com.example.challenge.service.FlightService;
+import com.example.challenge.service.SeatService;
 import com.example.challenge.web.model.v1.request.CreateFlightRequest;
+import com.example.challenge.web.model.v1.request.CreateFlightScheduleRequest;
+import com.example.challenge.web.model.v1.request.RepriceSeatsRequest;
+import com.example.challenge.web.model.v1.request.SeatBatchRequest;
+import com.example.challenge.web.model.v1.response.FlightCursorPageResponse;
 import com.example.challenge.web.model.v1.response.FlightDetailsResponse;
+import com.example.challenge.web.model.v1.response.FlightImportResponse;
 import com.example.challenge.web.model.v1.request.UpdateFlightRequest;
 import com.example.challenge.web.model.v1.response.FlightResponse;
+import com.example.challenge.web.model.v1.response.FlightScheduleJobResponse;
+import com.example.challenge.web.model.v1.response.FlightSummaryResponse;
+import com.example.challenge.web.model.v1.response.RepriceSeatsResponse;
+import com.example.challenge.web.model.v1.response.SeatBatchResponse;
+import com.example.challenge.web.model.v1.response.SeatMapResponse;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.AllArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
+import java.io.InputStream;
+import java.net.URI;
 import java.util.List;
+import java.util.Locale;
 
 @AllArgsConstructor
 @RestController
@@ -24,7 +46,13 @@ import java.util.List;
 @Tag(name = "Flight Controller", description = "APIs for managing flights")
 public class FlightController {
 
+    private static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+    private static final String GZIP_ETAG_SUFFIX = "-gzip";
+
     private final FlightService flightService;
+    private final FlightImportService flightImportService;
+    private final FlightScheduleService flightScheduleService;
+    private final SeatService seatService;
 
     @Operation(summary = "Add a new flight", description = "Creates a new flight with the given details, including origin, destination, departure time, arrival time, seat capacity, and seat price.")
     @ApiResponse(responseCode = "201", description = "Flight created successfully")
@@ -34,6 +62,34 @@ public class FlightController {
         return new ResponseEntity<>(flightService.addFlight(request), HttpStatus.CREATED);
     }
 
+    @Operation(summary = "Import flights", description = "Creates flights in bulk from newline-delimited JSON, one add flight request per line. Lines are validated one at a time and valid flights are committed in chunks; rejected lines are reported with their line number and do not stop the import. Only one import runs at a time.")
+    @ApiResponse(responseCode = "200", description = "Import completed, possibly with rejected lines")
+    @ApiResponse(responseCode = "429", description = "Another import is running")
+    @PostMapping(value = "/import", consumes = NDJSON_MEDIA_TYPE)
+    public ResponseEntity<FlightImportResponse> importFlights(InputStream body) {
+        return ResponseEntity.ok(flightImportService.importFlights(body));
+    }
+
+    @Operation(summary = "Schedule recurring flights", description = "Queues a job creating one flight, with its seats, on each of the given days of the week within the date range. Flights are created in the background in chunks; poll the returned job for progress.")
+    @ApiResponse(responseCode = "202", description = "Schedule job queued")
+    @ApiResponse(responseCode = "400", description = "Invalid schedule or no future departure in the date range")
+    @ApiResponse(responseCode = "429", description = "Too many schedule jobs are waiting")
+    @PostMapping("/schedules")
+    public ResponseEntity<FlightScheduleJobResponse> scheduleFlights(@Valid @RequestBody CreateFlightScheduleRequest request) {
+        FlightScheduleJobResponse job = flightScheduleService.scheduleFlights(request);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/v1/flights/schedules/" + job.getJobId()))
+                .body(job);
+    }
+
+    @Operation(summary = "Get schedule job progress", description = "Fetches the status of a schedule job and the number of flights it has created so far.")
+    @ApiResponse(responseCode = "200", description = "Job status retrieved successfully")
+    @ApiResponse(responseCode = "404", description = "Job not found")
+    @GetMapping("/schedules/{jobId}")
+    public ResponseEntity<FlightScheduleJobResponse> getScheduleJob(@PathVariable String jobId) {
+        return ResponseEntity.ok(flightScheduleService.getJob(jobId));
+    }
+
     @Operation(summary = "Remove a flight", description = "Removes a flight by its ID. The flight cannot be removed if any of its seats are sold.")
     @ApiResponse(responseCode = "204", description = "Flight removed successfully")
     @ApiResponse(responseCode = "404", description = "Flight not found")
@@ -53,6 +109,23 @@ public class FlightController {
         return ResponseEntity.ok(flightService.updateFlight(id, request));
     }
 
+    @Operation(summary = "Reprice seats of several flights", description = "Applies price rules to the available seats of the given flights in one transaction. Each rule sets a price or changes prices by a percentage, optionally limited to a seat number range; sold seats keep their price.")
+    @ApiResponse(responseCode = "200", description = "Seats repriced successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid flights or price rules")
+    @PostMapping("/reprice")
+    public ResponseEntity<RepriceSeatsResponse> repriceSeats(@Valid @RequestBody RepriceSeatsRequest request) {
+        return ResponseEntity.ok(flightService.repriceSeats(request));
+    }
+
+    @Operation(summary = "Change seats of a flight in a batch", description = "Applies a list of seat additions, updates and removals to a flight in one transaction. Each operation follows the rules of the single-seat endpoints: a sold seat cannot be removed and its price cannot be changed. Operations that break a rule are reported as rejected and the others are applied; the seat capacity is recounted once.")
+    @ApiResponse(responseCode = "200", description = "Batch applied, possibly with rejected operations")
+    @ApiResponse(responseCode = "400", description = "Invalid operations")
+    @ApiResponse(responseCode = "404", description = "Flight not found")
+    @PatchMapping("/{id}/seats")
+    public ResponseEntity<SeatBatchResponse> applySeatOperations(@PathVariable Long id, @Valid @RequestBody SeatBatchRequest request) {
+        return ResponseEntity.ok(seatService.applySeatOperations(id, request));
+    }
+
     @Operation(summary = "List all flights", description = "Fetches a paginated list of all future flights, including detailed flight information and associated seat details.")
     @ApiResponse(responseCode = "200", description = "List of flights retrieved successfully")
     @GetMapping
@@ -60,12 +133,108 @@ public class FlightController {
         return ResponseEntity.ok(flightService.listFlights(pageable));
     }
 
+    @Operation(summary = "List flights by cursor", description = "Fetches future flights ordered by departure time using keyset pagination. Pass the returned nextCursor to fetch the following page; every page costs the same regardless of its depth.")
+    @ApiResponse(responseCode = "200", description = "Page of flights retrieved successfully")
+    @ApiResponse(responseCode = "400", description = "Invalid cursor")
+    @GetMapping("/cursor")
+    public ResponseEntity<FlightCursorPageResponse> listFlightsAfterCursor(@RequestParam(required = false) String cursor,
+                                                                           @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(flightService.listFlightsAfterCursor(cursor, size));
+    }
+
+    @Operation(summary = "Stream all flights", description = "Streams every future flight with its seats as newline-delimited JSON, one flight details object per line, for partner feeds that pull the whole catalog.")
+    @ApiResponse(responseCode = "200", description = "Flights streamed successfully")
+    @GetMapping(value = "/stream", produces = NDJSON_MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> streamFlights() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON_MEDIA_TYPE))
+                .body(flightService::exportFlights);
+    }
+
+    @Operation(summary = "List flight summaries", description = "Fetches a paginated list of all future flights with seat counts and the available price range, without individual seat details.")
+    @ApiResponse(responseCode = "200", description = "List of flight summaries retrieved successfully")
+    @GetMapping("/summary")
+    public ResponseEntity<Page<FlightSummaryResponse>> listFlightSummaries(Pageable pageable) {
+        return ResponseEntity.ok(flightService.listFlightSummaries(pageable));
+    }
+
     @Operation(summary = "Get flight details", description = "Fetches detailed information about a specific flight by its ID, including available and unavailable seats.")
-    @ApiResponse(responseCode = "200", description = "Flight details retrieved successfully")
+    @ApiResponse(responseCode = "200", description = "Flight details retrieved successfully",
+            content = @Content(mediaType = MediaType.APPLICATION_JSON_VALUE, schema = @Schema(implementation = FlightDetailsResponse.class)))
+    @ApiResponse(responseCode = "304", description = "Flight details not modified since the ETag given in If-None-Match")
     @ApiResponse(responseCode = "404", description = "Flight not found")
-    @GetMapping("/{id}/details")
-    public ResponseEntity<FlightDetailsResponse> getFlightDetails(@PathVariable Long id) {
-        return ResponseEntity.ok(flightService.getFlightDetails(id));
+    @GetMapping(value = "/{id}/details", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getFlightDetails(@PathVariable Long id,
+                                                   @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                                   WebRequest request) {
+        // The ETag is read before the details, so a concurrent change can only make it older than the body
+        String eTag = flightService.getFlightDetailsETag(id);
+        // Details are served pre-encoded, compressed as well when the client accepts gzip. The two encodings are
+        // different representations, so each gets its own ETag and caches key them by Accept-Encoding
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String representationETag = gzip ? eTag.substring(0, eTag.length() - 1) + GZIP_ETAG_SUFFIX + "\"" : eTag;
+        if (request.checkNotModified(representationETag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(representationETag)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(representationETag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(flightService.getEncodedFlightDetails(id, eTag, gzip));
     }
-}
 
+    @Operation(summary = "Get flight seat map", description = "Fetches seat availability of a flight as a packed bitmap with a run-length encoded price table, for seat pickers that poll frequently.")
+    @ApiResponse(responseCode = "200", description = "Seat map retrieved successfully")
+    @ApiResponse(responseCode = "404", description = "Flight not found")
+    @GetMapping("/{id}/seatmap")
+    public ResponseEntity<SeatMapResponse> getSeatMap(@PathVariable Long id) {
+        return ResponseEntity.ok(flightService.getSeatMap(id));
+    }
+
+    /**
+     * Tells whether an Accept-Encoding header accepts gzip. A coding listed with {@code q=0} is refused, and
+     * {@code *} stands for gzip only when gzip is not listed itself.
+     *
+     * @param acceptEncoding the Accept-Encoding header of the request, or {@code null} if absent
+     * @return whether the response may be gzip-compressed
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean gzip = null;
+        boolean wildcard = false;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            boolean accepted = qualityOf(parts) > 0;
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzip = accepted;
+            } else if (coding.equals("*")) {
+                wildcard = accepted;
+            }
+        }
+        return gzip != null ? gzip : wildcard;
+    }
+
+    private static double qualityOf(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.length() > 2 && parameter.substring(0, 2).equalsIgnoreCase("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    // A malformed weight does not make the coding acceptable
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
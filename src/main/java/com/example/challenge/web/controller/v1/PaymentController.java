@@ -25,6 +25,7 @@ public class PaymentController {
     @ApiResponse(responseCode = "200", description = "Payment processed asynchronously")
     @ApiResponse(responseCode = "400", description = "Invalid request")
     @ApiResponse(responseCode = "409", description = "Seat already purchased")
+    @ApiResponse(responseCode = "429", description = "Too many purchases waiting for the seat")
     @PostMapping
     public ResponseEntity<PaymentResponse> purchaseSeat(@Valid @RequestBody PaymentRequest paymentRequest) {
         return ResponseEntity.status(HttpStatus.ACCEPTED).body(paymentService.purchaseSeat(paymentRequest));
@@ -13,6 +13,7 @@ import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import javax.validation.Valid;
 
@@ -61,12 +62,18 @@ public class SeatController {
     @Operation(summary = "Get seat details by ID", description = "Fetches the details of a specific seat by its ID. The response includes seat information along with the associated flight details.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Seat details retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Seat details not modified since the ETag given in If-None-Match"),
             @ApiResponse(responseCode = "404", description = "Seat not found")
     })
     @GetMapping("/{id}/details")
-    public ResponseEntity<SeatDetailsResponse> getSeatDetails(@PathVariable Long id) {
+    public ResponseEntity<SeatDetailsResponse> getSeatDetails(@PathVariable Long id, WebRequest request) {
+        // The ETag is read before the details, so a concurrent change can only make it older than the body
+        String eTag = seatService.getSeatDetailsETag(id);
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
         SeatDetailsResponse seatDetails = seatService.getSeatDetails(id);
-        return ResponseEntity.ok(seatDetails);
+        return ResponseEntity.ok().eTag(eTag).body(seatDetails);
     }
 }
 
@@ -0,0 +1,55 @@
+package com.example.challenge.web.model.v1.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import javax.validation.constraints.*;
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Set;
+
+@Data
+public class CreateFlightScheduleRequest {
+
+    @Schema(description = "Origin of the flights", example = "New York", required = true)
+    @NotBlank(message = "{validation.exception.not_blank}")
+    private String origin;
+
+    @Schema(description = "Destination of the flights", example = "London", required = true)
+    @NotBlank(message = "{validation.exception.not_blank}")
+    private String destination;
+
+    @Schema(description = "Days of the week the route is flown", example = "[\"MONDAY\", \"WEDNESDAY\", \"FRIDAY\"]", required = true)
+    @NotEmpty(message = "{validation.exception.not_null}")
+    private Set<DayOfWeek> daysOfWeek;
+
+    @Schema(description = "Local departure time of every flight", example = "10:00:00", required = true)
+    @NotNull(message = "{validation.exception.not_null}")
+    private LocalTime departureTime;
+
+    @Schema(description = "Local arrival time of every flight, on the next day when not after the departure time", example = "18:00:00", required = true)
+    @NotNull(message = "{validation.exception.not_null}")
+    private LocalTime arrivalTime;
+
+    @Schema(description = "First day of the schedule", example = "2025-01-01", required = true)
+    @NotNull(message = "{validation.exception.not_null}")
+    @FutureOrPresent(message = "{validation.exception.future_or_present}")
+    private LocalDate startDate;
+
+    @Schema(description = "Last day of the schedule, inclusive", example = "2025-12-31", required = true)
+    @NotNull(message = "{validation.exception.not_null}")
+    @FutureOrPresent(message = "{validation.exception.future_or_present}")
+    private LocalDate endDate;
+
+    @Schema(description = "Seat capacity of every flight", example = "150", required = true)
+    @Min(value = 100, message = "{validation.exception.min}")
+    private int seatCapacity;
+
+    @Schema(description = "Price of each seat", example = "299.99", required = true)
+    @NotNull(message = "{validation.exception.not_null}")
+    @DecimalMin(value = "0.0", inclusive = false, message = "{validation.exception.min}")
+    @Digits(integer = 8, fraction = 2, message = "{validation.exception.digits}")
+    private BigDecimal seatPrice;
+}
@@ -0,0 +1,52 @@
+package com.example.challenge.web.model.v1.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import javax.validation.Valid;
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Digits;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+public class RepriceSeatsRequest {
+
+    @Schema(description = "IDs of the flights to reprice", example = "[1, 2, 3]", required = true)
+    @NotEmpty(message = "{validation.exception.not_null}")
+    @Size(max = 1000, message = "{validation.exception.collection_size}")
+    private List<@NotNull(message = "{validation.exception.not_null}") Long> flightIds;
+
+    @Schema(description = "Rules applied in order to the available seats of every flight", required = true)
+    @NotEmpty(message = "{validation.exception.not_null}")
+    @Size(max = 50, message = "{validation.exception.collection_size}")
+    private List<@Valid @NotNull(message = "{validation.exception.not_null}") SeatPriceRule> rules;
+
+    @Data
+    public static class SeatPriceRule {
+
+        @Schema(description = "Lowest seat number the rule applies to, all seats if omitted", example = "1")
+        @Min(value = 1, message = "{validation.exception.min}")
+        private Integer fromSeatNumber;
+
+        @Schema(description = "Highest seat number the rule applies to, all seats if omitted", example = "30")
+        @Min(value = 1, message = "{validation.exception.min}")
+        private Integer toSeatNumber;
+
+        @Schema(description = "New price of the seats, exclusive with percentage", example = "249.99")
+        @DecimalMin(value = "0.0", inclusive = false, message = "{validation.exception.min}")
+        @Digits(integer = 8, fraction = 2, message = "{validation.exception.digits}")
+        private BigDecimal price;
+
+        @Schema(description = "Change of the seat prices in percent, exclusive with price", example = "-15")
+        @DecimalMin(value = "-99.99", message = "{validation.exception.min}")
+        @DecimalMax(value = "1000", message = "{validation.exception.max}")
+        @Digits(integer = 4, fraction = 2, message = "{validation.exception.digits}")
+        private BigDecimal percentage;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.challenge.web.model.v1.request;
+
+import com.example.challenge.domain.enums.SeatStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import javax.validation.Valid;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Digits;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+public class SeatBatchRequest {
+
+    @Schema(description = "Seat operations applied to the flight in one transaction", required = true)
+    @NotEmpty(message = "{validation.exception.not_null}")
+    @Size(max = 1000, message = "{validation.exception.collection_size}")
+    private List<@Valid @NotNull(message = "{validation.exception.not_null}") SeatOperation> operations;
+
+    public enum OperationType {
+        ADD, UPDATE, REMOVE
+    }
+
+    @Data
+    public static class SeatOperation {
+
+        @Schema(description = "Type of the operation", example = "UPDATE", required = true)
+        @NotNull(message = "{validation.exception.not_null}")
+        private OperationType type;
+
+        @Schema(description = "ID of the seat to update or remove, omitted when adding a seat", example = "101")
+        private Long seatId;
+
+        @Schema(description = "Price of the seat to add or update", example = "199.99")
+        @DecimalMin(value = "0.0", inclusive = false, message = "{validation.exception.min}")
+        @Digits(integer = 8, fraction = 2, message = "{validation.exception.digits}")
+        private BigDecimal price;
+
+        @Schema(description = "Status of the seat to add or update", example = "AVAILABLE")
+        private SeatStatus status;
+    }
+}
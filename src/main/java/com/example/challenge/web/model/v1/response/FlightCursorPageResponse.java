@@ -0,0 +1,23 @@
+package com.example.challenge.web.model.v1.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlightCursorPageResponse {
+
+    @Schema(description = "Flights of this page, ordered by departure time and flight ID")
+    private List<FlightDetailsResponse> content;
+
+    @Schema(description = "Opaque cursor to request the next page with, absent on the last page", example = "MjAyNC0xMi0wMVQxMDowMHw0Mg")
+    private String nextCursor;
+
+}
@@ -26,6 +26,8 @@ public class FlightDetailsResponse {
 
     @Data
     @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
     public static class AvailableSeatInfo {
 
         @Schema(description = "ID of the seat", example = "101")
@@ -40,6 +42,8 @@ public class FlightDetailsResponse {
 
     @Data
     @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
     public static class UnavailableSeatInfo {
 
         @Schema(description = "ID of the seat", example = "102")
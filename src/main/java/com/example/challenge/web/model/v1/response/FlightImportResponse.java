@@ -0,0 +1,39 @@
+package com.example.challenge.web.model.v1.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlightImportResponse {
+
+    @Schema(description = "Number of flights created", example = "4980")
+    private long importedFlightCount;
+
+    @Schema(description = "Number of lines that were rejected", example = "20")
+    private long failedLineCount;
+
+    @Schema(description = "Rejected lines, limited to the first ones when there are many")
+    private List<LineFailure> failures;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class LineFailure {
+
+        @Schema(description = "Number of the rejected line, starting from 1", example = "42")
+        private long line;
+
+        @Schema(description = "Localized error messages by field", example = "{\"seatCapacity\": \"The value must be greater than or equal to 100.\"}")
+        private Map<String, String> errors;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.challenge.web.model.v1.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlightScheduleJobResponse {
+
+    @Schema(description = "ID of the schedule generation job", example = "3f0c6a52-8a3e-4a57-9b0e-5d2f1c7e9a41")
+    private String jobId;
+
+    @Schema(description = "Status of the job", example = "RUNNING")
+    private JobStatus status;
+
+    @Schema(description = "Number of flights the schedule consists of", example = "157")
+    private int totalFlightCount;
+
+    @Schema(description = "Number of flights created so far", example = "100")
+    private int createdFlightCount;
+
+    @Schema(description = "Localized reason the job failed; flights created before the failure are kept", example = "The flights could not be saved.")
+    private String error;
+
+    public enum JobStatus {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.challenge.web.model.v1.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlightSummaryResponse {
+
+    @Schema(description = "Details of the flight")
+    private FlightResponse flight;
+
+    @Schema(description = "Number of seats available for purchase", example = "148")
+    private long availableSeatCount;
+
+    @Schema(description = "Number of sold seats", example = "2")
+    private long soldSeatCount;
+
+    @Schema(description = "Lowest price among available seats", example = "199.99")
+    private BigDecimal minAvailablePrice;
+
+    @Schema(description = "Highest price among available seats", example = "299.99")
+    private BigDecimal maxAvailablePrice;
+
+}
@@ -0,0 +1,18 @@
+package com.example.challenge.web.model.v1.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RepriceSeatsResponse {
+
+    @Schema(description = "Number of seat price changes applied, counting a seat once per rule that changed it", example = "1200")
+    private int repricedSeatCount;
+
+}
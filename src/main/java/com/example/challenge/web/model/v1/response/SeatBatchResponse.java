@@ -0,0 +1,45 @@
+package com.example.challenge.web.model.v1.response;
+
+import com.example.challenge.web.model.v1.request.SeatBatchRequest;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatBatchResponse {
+
+    @Schema(description = "Seat capacity of the flight after the batch", example = "180")
+    private int seatCapacity;
+
+    @Schema(description = "Result of each operation, in the order of the request")
+    private List<SeatOperationResult> results;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SeatOperationResult {
+
+        @Schema(description = "Position of the operation in the request, starting from 0", example = "0")
+        private int index;
+
+        @Schema(description = "Type of the operation", example = "REMOVE")
+        private SeatBatchRequest.OperationType type;
+
+        @Schema(description = "Whether the operation was applied", example = "true")
+        private boolean applied;
+
+        @Schema(description = "The seat as added, updated or removed; absent when the operation was rejected")
+        private SeatResponse seat;
+
+        @Schema(description = "Localized reason the operation was rejected", example = "Cannot remove a sold seat.")
+        private String error;
+    }
+}
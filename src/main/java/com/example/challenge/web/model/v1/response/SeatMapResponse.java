@@ -0,0 +1,44 @@
+package com.example.challenge.web.model.v1.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatMapResponse {
+
+    @Schema(description = "ID of the flight", example = "1")
+    private Long flightId;
+
+    @Schema(description = "Highest seat number of the flight; the map covers seat numbers 1 to this value", example = "300")
+    private int seatCount;
+
+    @Schema(description = "Base64 of a big-endian long[] where bit (n - 1) % 64 of word (n - 1) / 64 is set when seat n is available",
+            example = "/////////wM=")
+    private String availability;
+
+    @Schema(description = "Seat prices run-length encoded in seat number order, starting at seat 1")
+    private List<PriceRun> prices;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PriceRun {
+
+        @Schema(description = "Price of the seats in this run, absent for seat numbers without a seat", example = "199.99")
+        private BigDecimal price;
+
+        @Schema(description = "Number of consecutive seat numbers in this run", example = "120")
+        private int count;
+
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.challenge.infrastructure.cache;
+
+import com.example.challenge.web.model.v1.response.FlightDetailsResponse;
+import com.example.challenge.web.model.v1.response.FlightResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightCatalogCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private FlightCatalogCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new FlightCatalogCache(2, meterRegistry);
+        loads = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void get_ShouldLoadOnceAndRecordHitsAndMisses() {
+        cache.get(1L, this::load);
+        cache.get(1L, this::load);
+
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("flight.catalog.cache.requests").tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("flight.catalog.cache.requests").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void get_ShouldEvictLeastRecentlyUsedFlight_WhenFull() {
+        cache.get(1L, this::load);
+        cache.get(2L, this::load);
+        cache.get(1L, this::load);
+        cache.get(3L, this::load);
+
+        assertEquals(2, cache.size());
+        cache.get(2L, this::load);
+        assertEquals(4, loads.get());
+        assertEquals(2.0, meterRegistry.get("flight.catalog.cache.evictions").counter().count());
+    }
+
+    @Test
+    void getAll_ShouldLoadOnlyMissingFlightsAndKeepOrder() {
+        cache.get(2L, this::load);
+
+        List<FlightDetailsResponse> details = cache.getAll(List.of(1L, 2L), ids -> {
+            assertEquals(List.of(1L), ids);
+            return ids.stream().map(this::load).collect(Collectors.toList());
+        });
+
+        assertEquals(List.of(1L, 2L), details.stream()
+                .map(response -> response.getFlight().getFlightId())
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void invalidate_ShouldBumpVersionAndEvictFlight() {
+        cache.get(1L, this::load);
+        long version = cache.getVersion();
+
+        cache.invalidate(1L);
+        cache.get(1L, this::load);
+
+        assertTrue(cache.getVersion() > version);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_ShouldNotCacheValueLoadedWhileCatalogChanged() {
+        cache.get(1L, id -> {
+            cache.invalidate(id);
+            return load(id);
+        });
+        cache.get(1L, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidate_ShouldBypassCacheUntilTransactionCompletes() {
+        cache.get(1L, this::load);
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.invalidate(1L);
+        cache.get(1L, this::load);
+        cache.get(1L, this::load);
+        assertEquals(3, loads.get());
+        assertEquals(0, cache.size());
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        cache.get(1L, this::load);
+        cache.get(1L, this::load);
+        assertEquals(4, loads.get());
+    }
+
+    private FlightDetailsResponse load(Long flightId) {
+        loads.incrementAndGet();
+        return FlightDetailsResponse.builder()
+                .flight(FlightResponse.builder().flightId(flightId).build())
+                .availableSeats(List.of())
+                .unavailableSeats(List.of())
+                .build();
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.challenge.infrastructure.cache;
+
+import com.example.challenge.domain.enums.SeatStatus;
+import com.example.challenge.web.model.v1.response.FlightDetailsResponse;
+import com.example.challenge.web.model.v1.response.FlightResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightDetailsJsonCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SimpleMeterRegistry meterRegistry;
+    private FlightCatalogCache flightCatalogCache;
+    private FlightDetailsJsonCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        flightCatalogCache = new FlightCatalogCache(10, meterRegistry);
+        cache = new FlightDetailsJsonCache(4096, objectMapper, flightCatalogCache, meterRegistry);
+        loads = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void get_ShouldEncodeOncePerETag_AndRecordHitRatio() throws Exception {
+        // Act
+        byte[] first = cache.get(1L, "\"flight-1-0\"", false, () -> load(1L));
+        byte[] second = cache.get(1L, "\"flight-1-0\"", false, () -> load(1L));
+        byte[] changed = cache.get(1L, "\"flight-1-1\"", false, () -> load(1L));
+
+        // Assert
+        assertSame(first, second);
+        assertNotSame(first, changed);
+        assertEquals(2, loads.get());
+        assertEquals(1L, objectMapper.readValue(first, FlightDetailsResponse.class).getFlight().getFlightId());
+        assertEquals(1.0 / 3, meterRegistry.get("flight.details.json.cache.hit.ratio").gauge().value(), 1e-9);
+    }
+
+    @Test
+    void get_ShouldReturnGzipOfSameJson() throws Exception {
+        // Act
+        byte[] json = cache.get(1L, "\"flight-1-0\"", false, () -> load(1L));
+        byte[] gzip = cache.get(1L, "\"flight-1-0\"", true, () -> load(1L));
+
+        // Assert
+        try (GZIPInputStream inflated = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            assertArrayEquals(json, inflated.readAllBytes());
+        }
+        assertSame(gzip, cache.get(1L, "\"flight-1-0\"", true, () -> load(1L)));
+        assertEquals(1, loads.get());
+        assertEquals(json.length + gzip.length, cache.getTotalBytes());
+    }
+
+    @Test
+    void get_ShouldEvictLeastRecentlyUsedFlights_WhenOverByteBound() {
+        // Arrange: each encoding is well over 1 KB, so only a few fit into 4 KB
+        for (long flightId = 1; flightId <= 10; flightId++) {
+            long id = flightId;
+            cache.get(id, "\"flight-" + id + "-0\"", false, () -> load(id));
+        }
+
+        // Assert
+        assertTrue(cache.getTotalBytes() <= 4096);
+        assertTrue(cache.size() < 10);
+        assertTrue(meterRegistry.get("flight.details.json.cache.evictions").counter().count() > 0);
+        cache.get(10L, "\"flight-10-0\"", false, () -> load(10L));
+        assertEquals(10, loads.get());
+    }
+
+    @Test
+    void flightChange_ShouldDropEncodedDetails() {
+        // Arrange
+        cache.get(1L, "\"flight-1-0\"", false, () -> load(1L));
+        cache.get(2L, "\"flight-2-0\"", false, () -> load(2L));
+
+        // Act
+        flightCatalogCache.invalidate(1L);
+        flightCatalogCache.seatStatusChanged(2L, "1", SeatStatus.UNAVAILABLE);
+
+        // Assert
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getTotalBytes());
+    }
+
+    @Test
+    void flightChange_ShouldDropEncodedDetailsOnlyAfterCommit() {
+        // Arrange
+        cache.get(1L, "\"flight-1-0\"", false, () -> load(1L));
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        flightCatalogCache.invalidate(1L);
+        int sizeBeforeCommit = cache.size();
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        // Assert
+        assertEquals(1, sizeBeforeCommit);
+        assertEquals(0, cache.size());
+    }
+
+    private FlightDetailsResponse load(Long flightId) {
+        loads.incrementAndGet();
+        List<FlightDetailsResponse.UnavailableSeatInfo> seats = new ArrayList<>();
+        for (long seatId = 1; seatId <= 40; seatId++) {
+            seats.add(new FlightDetailsResponse.UnavailableSeatInfo(seatId, String.valueOf(seatId)));
+        }
+        return FlightDetailsResponse.builder()
+                .flight(FlightResponse.builder().flightId(flightId).build())
+                .availableSeats(List.of())
+                .unavailableSeats(seats)
+                .build();
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.challenge.infrastructure.cache;
+
+import com.example.challenge.domain.enums.SeatStatus;
+import com.example.challenge.domain.projection.SeatMapEntry;
+import com.example.challenge.web.model.v1.response.SeatMapResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatMapCacheTest {
+
+    private FlightCatalogCache flightCatalogCache;
+    private SeatMapCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        flightCatalogCache = new FlightCatalogCache(10, new SimpleMeterRegistry());
+        cache = new SeatMapCache(10, flightCatalogCache);
+        loads = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void get_ShouldEncodeAvailabilityBitsAndPriceRuns() {
+        // Arrange: seats 1-2 at 100, seat 3 at 150 and sold, seat 4 missing, seat 5 at 100
+        List<SeatMapEntry> seats = List.of(
+                new SeatMapEntry("1", BigDecimal.valueOf(100), SeatStatus.AVAILABLE),
+                new SeatMapEntry("2", new BigDecimal("100.00"), SeatStatus.AVAILABLE),
+                new SeatMapEntry("3", BigDecimal.valueOf(150), SeatStatus.UNAVAILABLE),
+                new SeatMapEntry("5", BigDecimal.valueOf(100), SeatStatus.AVAILABLE));
+
+        // Act
+        SeatMapResponse seatMap = cache.get(1L, id -> seats);
+
+        // Assert
+        assertEquals(5, seatMap.getSeatCount());
+        BitSet available = decode(seatMap.getAvailability());
+        assertEquals(BitSet.valueOf(new long[]{0b10011}), available);
+        assertEquals(List.of(
+                new SeatMapResponse.PriceRun(BigDecimal.valueOf(100), 2),
+                new SeatMapResponse.PriceRun(BigDecimal.valueOf(150), 1),
+                new SeatMapResponse.PriceRun(null, 1),
+                new SeatMapResponse.PriceRun(BigDecimal.valueOf(100), 1)), seatMap.getPrices());
+    }
+
+    @Test
+    void get_ShouldSerializeThreeHundredSeatFlightUnderOneKilobyte() throws Exception {
+        // Arrange: three cabins priced differently, every third seat sold
+        List<SeatMapEntry> seats = new ArrayList<>();
+        for (int number = 1; number <= 300; number++) {
+            BigDecimal price = number <= 30 ? BigDecimal.valueOf(450) : number <= 90 ? BigDecimal.valueOf(220) : BigDecimal.valueOf(120);
+            seats.add(new SeatMapEntry(String.valueOf(number), price,
+                    number % 3 == 0 ? SeatStatus.UNAVAILABLE : SeatStatus.AVAILABLE));
+        }
+
+        // Act
+        byte[] json = new ObjectMapper().writeValueAsBytes(cache.get(1L, id -> seats));
+
+        // Assert
+        assertTrue(json.length < 1024, () -> "Seat map took " + json.length + " bytes");
+    }
+
+    @Test
+    void seatStatusChanged_ShouldFlipBitInPlace_WithoutReloading() {
+        // Arrange
+        cache.get(1L, this::load);
+
+        // Act
+        flightCatalogCache.seatStatusChanged(1L, "2", SeatStatus.UNAVAILABLE);
+        SeatMapResponse seatMap = cache.get(1L, this::load);
+
+        // Assert
+        assertEquals(1, loads.get());
+        assertEquals(BitSet.valueOf(new long[]{0b101}), decode(seatMap.getAvailability()));
+    }
+
+    @Test
+    void seatStatusChanged_ShouldApplyOnlyAfterCommit() {
+        // Arrange
+        cache.get(1L, this::load);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        flightCatalogCache.seatStatusChanged(1L, "1", SeatStatus.UNAVAILABLE);
+        BitSet beforeCommit = decode(cache.get(1L, this::load).getAvailability());
+        commit();
+        BitSet afterCommit = decode(cache.get(1L, this::load).getAvailability());
+
+        // Assert
+        assertEquals(BitSet.valueOf(new long[]{0b111}), beforeCommit);
+        assertEquals(BitSet.valueOf(new long[]{0b110}), afterCommit);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void invalidate_ShouldEvictSeatMap() {
+        // Arrange
+        cache.get(1L, this::load);
+
+        // Act
+        flightCatalogCache.invalidate(1L);
+        cache.get(1L, this::load);
+
+        // Assert
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_ShouldNotStoreMap_WhenSeatChangedWhileLoading() {
+        // Act: the seat is sold while its old status is being loaded
+        cache.get(1L, id -> {
+            List<SeatMapEntry> seats = load(id);
+            flightCatalogCache.seatStatusChanged(1L, "1", SeatStatus.UNAVAILABLE);
+            return seats;
+        });
+        cache.get(1L, this::load);
+
+        // Assert
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.size());
+    }
+
+    private List<SeatMapEntry> load(Long flightId) {
+        loads.incrementAndGet();
+        List<SeatMapEntry> seats = new ArrayList<>();
+        for (int number = 1; number <= 3; number++) {
+            seats.add(new SeatMapEntry(String.valueOf(number), BigDecimal.TEN, SeatStatus.AVAILABLE));
+        }
+        return seats;
+    }
+
+    private static BitSet decode(String availability) {
+        ByteBuffer buffer = ByteBuffer.wrap(Base64.getDecoder().decode(availability));
+        long[] words = new long[buffer.remaining() / Long.BYTES];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = buffer.getLong();
+        }
+        return BitSet.valueOf(words);
+    }
+
+    private static void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+    }
+}
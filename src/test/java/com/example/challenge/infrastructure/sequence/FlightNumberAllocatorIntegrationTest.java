@@ -0,0 +1,82 @@
+package com.example.challenge.infrastructure.sequence;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "flight.number-allocator.block-size=5")
+class FlightNumberAllocatorIntegrationTest {
+
+    @Autowired
+    private FlightNumberAllocator flightNumberAllocator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void allocate_ShouldNeverRepeatNumber_UnderConcurrentAllocation() throws Exception {
+        // Arrange: far more numbers than a single block holds
+        int threads = 16;
+        int allocationsPerThread = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Callable<List<String>>> tasks = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            tasks.add(() -> {
+                List<String> numbers = new ArrayList<>();
+                for (int j = 0; j < allocationsPerThread; j++) {
+                    numbers.add(flightNumberAllocator.allocate("Ankara", "Vienna"));
+                }
+                return numbers;
+            });
+        }
+
+        // Act
+        Set<String> numbers = new HashSet<>();
+        try {
+            for (Future<List<String>> result : executor.invokeAll(tasks)) {
+                numbers.addAll(result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // Assert
+        assertEquals(threads * allocationsPerThread, numbers.size());
+        assertTrue(numbers.stream().allMatch(number -> number.startsWith("ANVI")));
+    }
+
+    @Test
+    void allocate_ShouldReserveDisjointBlocks_ForAllocatorsSharingTheDatabase() {
+        // Arrange: a second allocator stands in for another application instance
+        FlightNumberAllocator otherInstance = new FlightNumberAllocator(jdbcTemplate, transactionManager, 5);
+
+        // Act
+        Set<String> numbers = new HashSet<>();
+        for (int i = 0; i < 12; i++) {
+            numbers.add(flightNumberAllocator.allocate("Oslo", "Madrid"));
+            numbers.add(otherInstance.allocate("Oslo", "Madrid"));
+        }
+
+        // Assert
+        assertEquals(24, numbers.size());
+        Integer reservedUpTo = jdbcTemplate.queryForObject(
+                "SELECT next_value FROM flight_number_block WHERE prefix = ?", Integer.class, "OSMA");
+        assertEquals(1000 + 6 * 5, reservedUpTo);
+    }
+}
@@ -3,9 +3,13 @@ package com.example.challenge.mapper;
 import com.example.challenge.domain.entity.Flight;
 import com.example.challenge.domain.entity.Seat;
 import com.example.challenge.domain.enums.SeatStatus;
+import com.example.challenge.domain.projection.FlightHeader;
+import com.example.challenge.domain.projection.SeatAvailabilitySummary;
+import com.example.challenge.domain.projection.SeatView;
 import com.example.challenge.web.model.v1.request.CreateFlightRequest;
 import com.example.challenge.web.model.v1.response.FlightDetailsResponse;
 import com.example.challenge.web.model.v1.response.FlightResponse;
+import com.example.challenge.web.model.v1.response.FlightSummaryResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -93,4 +97,55 @@ class FlightMapperTest {
         assertEquals(1, response.getUnavailableSeats().size());
         assertEquals("1B", response.getUnavailableSeats().get(0).getSeatNumber());
     }
+
+    @Test
+    void testMapToFlightDetailsResponse_FromProjections() {
+        FlightHeader header = new FlightHeader(1L, "NYL001", "New York", "London",
+                LocalDateTime.of(2024, 1, 1, 10, 0), LocalDateTime.of(2024, 1, 1, 18, 0), 2);
+        List<SeatView> seats = List.of(
+                new SeatView(1L, "1A", BigDecimal.valueOf(500.0), SeatStatus.AVAILABLE),
+                new SeatView(2L, "1B", BigDecimal.valueOf(500.0), SeatStatus.UNAVAILABLE));
+
+        FlightDetailsResponse response = flightMapper.mapToFlightDetailsResponse(header, seats);
+
+        assertEquals(1L, response.getFlight().getFlightId());
+        assertEquals("NYL001", response.getFlight().getFlightNumber());
+        assertEquals(2, response.getFlight().getSeatCapacity());
+
+        assertEquals(1, response.getAvailableSeats().size());
+        assertEquals("1A", response.getAvailableSeats().get(0).getSeatNumber());
+        assertEquals(BigDecimal.valueOf(500.0), response.getAvailableSeats().get(0).getSeatPrice());
+
+        assertEquals(1, response.getUnavailableSeats().size());
+        assertEquals(2L, response.getUnavailableSeats().get(0).getSeatId());
+    }
+
+    @Test
+    void testMapToFlightSummaryResponse() {
+        Flight flight = new Flight();
+        flight.setId(1L);
+        flight.setFlightNumber("NYL001");
+        SeatAvailabilitySummary summary = new SeatAvailabilitySummary(1L, 148L, 2L,
+                BigDecimal.valueOf(199.99), BigDecimal.valueOf(299.99));
+
+        FlightSummaryResponse response = flightMapper.mapToFlightSummaryResponse(flight, summary);
+
+        assertEquals(1L, response.getFlight().getFlightId());
+        assertEquals(148, response.getAvailableSeatCount());
+        assertEquals(2, response.getSoldSeatCount());
+        assertEquals(BigDecimal.valueOf(199.99), response.getMinAvailablePrice());
+        assertEquals(BigDecimal.valueOf(299.99), response.getMaxAvailablePrice());
+    }
+
+    @Test
+    void testMapToFlightSummaryResponse_WithoutSeats() {
+        Flight flight = new Flight();
+        flight.setId(1L);
+
+        FlightSummaryResponse response = flightMapper.mapToFlightSummaryResponse(flight, null);
+
+        assertEquals(0, response.getAvailableSeatCount());
+        assertEquals(0, response.getSoldSeatCount());
+        assertNull(response.getMinAvailablePrice());
+    }
 }
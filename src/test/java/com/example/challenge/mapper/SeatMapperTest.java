@@ -3,6 +3,7 @@ package com.example.challenge.mapper;
 import com.example.challenge.domain.entity.Flight;
 import com.example.challenge.domain.entity.Seat;
 import com.example.challenge.domain.enums.SeatStatus;
+import com.example.challenge.domain.projection.SeatDetailsView;
 import com.example.challenge.web.model.v1.request.CreateSeatRequest;
 import com.example.challenge.web.model.v1.response.SeatDetailsResponse;
 import com.example.challenge.web.model.v1.response.SeatResponse;
@@ -40,10 +41,10 @@ class SeatMapperTest {
         request.setStatus(SeatStatus.AVAILABLE);
 
         // Act
-        Seat seat = seatMapper.mapToSeat(request, flight);
+        Seat seat = seatMapper.mapToSeat(request, flight, "1");
 
         // Assert
-        assertEquals("1", seat.getSeatNumber()); // Assuming this is the first seat in the flight
+        assertEquals("1", seat.getSeatNumber());
         assertEquals(BigDecimal.valueOf(200.00), seat.getPrice());
         assertEquals(SeatStatus.AVAILABLE, seat.getStatus());
         assertEquals(flight, seat.getFlight());
@@ -106,4 +107,27 @@ class SeatMapperTest {
         assertEquals(LocalDateTime.of(2024, 1, 1, 10, 0), response.getFlight().getDepartureTime());
         assertEquals(LocalDateTime.of(2024, 1, 1, 12, 0), response.getFlight().getArrivalTime());
     }
+
+    @Test
+    void testMapToSeatDetailsResponse_FromProjection() {
+        // Arrange
+        SeatDetailsView view = new SeatDetailsView(1L, "1A", BigDecimal.valueOf(150.00), SeatStatus.UNAVAILABLE,
+                "TK123", "Istanbul", "Ankara",
+                LocalDateTime.of(2024, 1, 1, 10, 0), LocalDateTime.of(2024, 1, 1, 12, 0));
+
+        // Act
+        SeatDetailsResponse response = seatMapper.mapToSeatDetailsResponse(view);
+
+        // Assert
+        assertEquals(1L, response.getSeat().getSeatId());
+        assertEquals("1A", response.getSeat().getSeatNumber());
+        assertEquals(BigDecimal.valueOf(150.00), response.getSeat().getPrice());
+        assertEquals(SeatStatus.UNAVAILABLE, response.getSeat().getStatus());
+
+        assertEquals("TK123", response.getFlight().getFlightNumber());
+        assertEquals("Istanbul", response.getFlight().getOrigin());
+        assertEquals("Ankara", response.getFlight().getDestination());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 10, 0), response.getFlight().getDepartureTime());
+        assertEquals(LocalDateTime.of(2024, 1, 1, 12, 0), response.getFlight().getArrivalTime());
+    }
 }
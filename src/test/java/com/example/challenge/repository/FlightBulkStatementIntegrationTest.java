@@ -0,0 +1,156 @@
+package com.example.challenge.repository;
+
+import com.example.challenge.infrastructure.sequence.FlightNumberAllocator;
+import com.example.challenge.service.FlightService;
+import com.example.challenge.web.model.v1.request.CreateFlightRequest;
+import com.example.challenge.web.model.v1.response.FlightResponse;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counts the JDBC statements sent to the database while a flight is created or removed, by wrapping the
+ * data source of the test context so that every execute call, or executed batch, counts once.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class FlightBulkStatementIntegrationTest {
+
+    private static final AtomicInteger STATEMENTS = new AtomicInteger();
+    private static volatile Thread countedThread;
+
+    @Autowired
+    private FlightService flightService;
+
+    @Autowired
+    private FlightNumberAllocator flightNumberAllocator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void addFlight_ShouldCreateThousandSeats_WithAHandfulOfStatements() {
+        // Arrange
+        CreateFlightRequest request = new CreateFlightRequest();
+        request.setOrigin("Berlin");
+        request.setDestination("Paris");
+        request.setDepartureTime(LocalDateTime.now().plusDays(1));
+        request.setArrivalTime(LocalDateTime.now().plusDays(1).plusHours(2));
+        request.setSeatCapacity(1000);
+        request.setSeatPrice(BigDecimal.valueOf(120.00));
+        // Reserve a block of the route's flight numbers up front, so only the flight itself is counted
+        flightNumberAllocator.allocate("Berlin", "Paris");
+
+        // Act
+        FlightResponse response;
+        countedThread = Thread.currentThread();
+        STATEMENTS.set(0);
+        try {
+            response = flightService.addFlight(request);
+        } finally {
+            countedThread = null;
+        }
+
+        // Assert: the flight insert and two batches of 500 seats
+        assertEquals(3, STATEMENTS.get(), "Statements sent while creating the flight");
+        Long flightId = response.getFlightId();
+        assertEquals(1000, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM seat WHERE flight_id = ? AND status = 'AVAILABLE' AND version = 0", Integer.class, flightId));
+        assertEquals(1000, jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT seat_number) FROM seat WHERE flight_id = ? AND price = 120", Integer.class, flightId));
+        assertEquals("1000", jdbcTemplate.queryForObject(
+                "SELECT seat_number FROM seat WHERE flight_id = ? ORDER BY id DESC FETCH FIRST 1 ROWS ONLY", String.class, flightId));
+
+        jdbcTemplate.update("DELETE FROM seat WHERE flight_id = ?", flightId);
+        jdbcTemplate.update("DELETE FROM flight WHERE id = ?", flightId);
+    }
+
+    @Test
+    void removeFlight_ShouldDeleteThousandSeats_WithoutLoadingThem() {
+        // Arrange
+        CreateFlightRequest request = new CreateFlightRequest();
+        request.setOrigin("Berlin");
+        request.setDestination("Vienna");
+        request.setDepartureTime(LocalDateTime.now().plusDays(1));
+        request.setArrivalTime(LocalDateTime.now().plusDays(1).plusHours(2));
+        request.setSeatCapacity(1000);
+        request.setSeatPrice(BigDecimal.valueOf(120.00));
+        Long flightId = flightService.addFlight(request).getFlightId();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // Act
+        countedThread = Thread.currentThread();
+        STATEMENTS.set(0);
+        try {
+            flightService.removeFlight(flightId);
+        } finally {
+            countedThread = null;
+        }
+
+        // Assert: the sold seat check, the existence check and one delete each for the seats and the flight
+        assertEquals(4, STATEMENTS.get(), "Statements sent while removing the flight");
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getEntityDeleteCount());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM seat WHERE flight_id = ?", Integer.class, flightId));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM flight WHERE id = ?", Integer.class, flightId));
+    }
+
+    @TestConfiguration
+    static class StatementCountingConfiguration {
+
+        @Bean
+        static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource ? proxy(DataSource.class, bean) : bean;
+                }
+            };
+        }
+
+        private static <T> T proxy(Class<T> type, Object target) {
+            InvocationHandler handler = (proxy, method, args) -> {
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                if (result instanceof Connection) {
+                    return proxy(Connection.class, result);
+                }
+                if (result instanceof Statement) {
+                    return proxy(method.getReturnType().asSubclass(Statement.class), result);
+                }
+                if (target instanceof Statement && method.getName().startsWith("execute")
+                        && Thread.currentThread() == countedThread) {
+                    STATEMENTS.incrementAndGet();
+                }
+                return result;
+            };
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.example.challenge.repository;
+
+import com.example.challenge.domain.entity.Flight;
+import com.example.challenge.utils.FlightCursor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.math.BigDecimal;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks the H2 execution plans of the SQL behind the hot repository queries,
+ * so a query that falls back to a full table scan fails the build.
+ * <p>
+ * The queries are run through the repositories and captured, with their parameters, by wrapping the data source of
+ * the test context, so the SQL explained is the SQL Hibernate actually sends.
+ */
+@SpringBootTest
+class QueryIndexUsageIntegrationTest {
+
+    private static final Pattern INDEX_COMMENT = Pattern.compile("/\\*.*?\\*/", Pattern.DOTALL);
+    private static final Pattern SCAN_COUNT = Pattern.compile("scanCount: (\\d+)");
+    private static final List<CapturedQuery> CAPTURED = new ArrayList<>();
+    private static volatile Thread capturingThread;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private FlightDao flightDao;
+
+    @Autowired
+    private SeatRepository seatRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void countByFlightId_ShouldSeekByFlight() {
+        CapturedQuery query = capture(() -> seatRepository.countByFlightId(1L));
+        assertSeeksOn(query, "FLIGHT_ID =");
+    }
+
+    @Test
+    void allocateSeatNumbers_ShouldOnlySeekByFlight() {
+        // Freed numbers, the counter of the flight, and the check that the numbers are not in use
+        List<CapturedQuery> queries = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("INSERT INTO flight (flight_number, origin, destination, departure_time, arrival_time, " +
+                    "seat_capacity, version) VALUES ('QIU-A', 'Allocate', 'Seat', ?, ?, 0, 0)",
+                    Timestamp.valueOf(LocalDateTime.now().plusDays(1)), Timestamp.valueOf(LocalDateTime.now().plusDays(2)));
+            Long flightId = jdbcTemplate.queryForObject("SELECT id FROM flight WHERE flight_number = 'QIU-A'", Long.class);
+            queries.addAll(captureAll(() -> flightDao.allocateSeatNumbers(flightId, 2)));
+            // The plans are read before the flight is rolled back
+            queries.forEach(query -> assertFalse(explain(query).contains("tableScan"), () -> "Full table scan: " + query));
+            status.setRollbackOnly();
+        });
+        assertFalse(queries.isEmpty());
+    }
+
+    @Test
+    void updateFlightWithSeats_ShouldSeekPaymentsBySeat_WhenShrinking() {
+        // The removable seats of a shrink exclude the seats any payment refers to
+        List<CapturedQuery> queries = new ArrayList<>();
+        transactionTemplate.executeWithoutResult(status -> {
+            Long flightId = flightDao.importFlights(List.of(Flight.builder()
+                    .flightNumber("QIU-S")
+                    .origin("Shrink")
+                    .destination("Seats")
+                    .departureTime(LocalDateTime.now().plusDays(1))
+                    .arrivalTime(LocalDateTime.now().plusDays(2))
+                    .seatCapacity(3)
+                    .build()), List.of(BigDecimal.TEN)).get(0);
+            captureAll(() -> flightDao.updateFlightWithSeats(flightId, flight -> flight.setSeatCapacity(1), BigDecimal.TEN))
+                    .stream()
+                    .filter(query -> query.sql.contains("payment"))
+                    .forEach(queries::add);
+            // The plans are read before the flight is rolled back
+            queries.forEach(query -> assertSeeksOn(query, "SEAT_ID = S.ID"));
+            status.setRollbackOnly();
+        });
+        assertEquals(2, queries.size(), () -> "Expected the pick and the delete of the removed seats, captured " + queries);
+    }
+
+    @Test
+    void summarizeAvailabilityByFlightIds_ShouldSeekByFlight() {
+        CapturedQuery query = capture(() -> seatRepository.summarizeAvailabilityByFlightIds(List.of(1L, 2L)));
+        assertSeeksOn(query, "FLIGHT_ID IN");
+    }
+
+    @Test
+    void findFutureFlightIds_ShouldUseDepartureTimeIndex() {
+        // The page query, and the count query when the page is full
+        List<CapturedQuery> queries = captureAll(() -> flightDao.getFutureFlightIds(LocalDateTime.now(),
+                PageRequest.of(0, 10, Sort.by("departureTime", "id"))));
+        assertFalse(queries.isEmpty());
+        queries.forEach(query -> assertUsesIndex(query, "IDX_FLIGHT_DEPARTURE_TIME"));
+    }
+
+    @Test
+    void findFutureFlightIdsAfter_ShouldStartIndexRangeAtCursor() {
+        // Arrange: 2000 flights departing a minute apart, after every other flight in the database
+        LocalDateTime firstDeparture = LocalDateTime.now().plusYears(50).withNano(0);
+        List<Object[]> flights = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            LocalDateTime departure = firstDeparture.plusMinutes(i);
+            flights.add(new Object[]{"QIU" + i, "Keyset", "Cursor",
+                    Timestamp.valueOf(departure), Timestamp.valueOf(departure.plusHours(1))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO flight (flight_number, origin, destination, departure_time, arrival_time, " +
+                "seat_capacity, version) VALUES (?, ?, ?, ?, ?, 0, 0)", flights);
+        List<Long> flightIds = jdbcTemplate.queryForList(
+                "SELECT id FROM flight WHERE origin = 'Keyset' ORDER BY departure_time, id", Long.class);
+        FlightCursor cursor = new FlightCursor(firstDeparture.plusMinutes(1500), flightIds.get(1500));
+
+        try {
+            // Act
+            CapturedQuery query = capture(() -> assertEquals(flightIds.subList(1501, 1511),
+                    flightDao.getFutureFlightIdsAfter(LocalDateTime.now(), cursor, 10)));
+
+            // Assert: the index range starts at the cursor instead of at the current time
+            assertUsesIndex(query, "IDX_FLIGHT_DEPARTURE_TIME_ID");
+            long scanned = scanCount(query);
+            assertTrue(scanned <= 500, () -> "Scanned " + scanned + " rows for a page of 10: " + query);
+        } finally {
+            jdbcTemplate.update("DELETE FROM flight WHERE origin = 'Keyset'");
+        }
+    }
+
+    private void assertUsesIndex(CapturedQuery query, String indexName) {
+        String plan = explain(query);
+        assertFalse(plan.contains("tableScan"), () -> "Full table scan in plan: " + plan);
+        assertTrue(plan.contains("PUBLIC." + indexName + ":"), () -> "Expected " + indexName + " in plan: " + plan);
+    }
+
+    private void assertSeeksOn(CapturedQuery query, String indexCondition) {
+        String plan = explain(query);
+        assertFalse(plan.contains("tableScan"), () -> "Full table scan in plan: " + plan);
+        // Each index comment lists the conditions the index is searched with, one comment per table read
+        Matcher indexComment = INDEX_COMMENT.matcher(plan);
+        boolean seeks = false;
+        while (!seeks && indexComment.find()) {
+            seeks = indexComment.group().contains(indexCondition);
+        }
+        assertTrue(seeks, () -> "Expected index seek on " + indexCondition + " in plan: " + plan);
+    }
+
+    private String explain(CapturedQuery query) {
+        return jdbcTemplate.query("EXPLAIN " + query.sql, query::setParameters,
+                (resultSet, rowNum) -> resultSet.getString(1)).get(0);
+    }
+
+    /**
+     * Runs the query with EXPLAIN ANALYZE and returns the number of rows H2 read for it.
+     */
+    private long scanCount(CapturedQuery query) {
+        String plan = jdbcTemplate.query("EXPLAIN ANALYZE " + query.sql, query::setParameters,
+                (resultSet, rowNum) -> resultSet.getString(1)).get(0);
+        Matcher matcher = SCAN_COUNT.matcher(plan);
+        assertTrue(matcher.find(), () -> "No scan count in plan: " + plan);
+        return Long.parseLong(matcher.group(1));
+    }
+
+    /**
+     * Runs the repository call and returns the single query it prepared.
+     */
+    private static CapturedQuery capture(Runnable repositoryCall) {
+        List<CapturedQuery> queries = captureAll(repositoryCall);
+        assertEquals(1, queries.size(), () -> "Expected a single query, captured " + queries);
+        return queries.get(0);
+    }
+
+    /**
+     * Runs the repository call and returns every query it prepared, in order.
+     */
+    private static List<CapturedQuery> captureAll(Runnable repositoryCall) {
+        synchronized (CAPTURED) {
+            CAPTURED.clear();
+        }
+        capturingThread = Thread.currentThread();
+        try {
+            repositoryCall.run();
+        } finally {
+            capturingThread = null;
+        }
+        synchronized (CAPTURED) {
+            return new ArrayList<>(CAPTURED);
+        }
+    }
+
+    private static final class CapturedQuery {
+
+        private final String sql;
+        private final Map<Integer, Object> parameters = new TreeMap<>();
+
+        private CapturedQuery(String sql) {
+            this.sql = sql;
+        }
+
+        private void setParameters(PreparedStatement statement) throws SQLException {
+            for (Map.Entry<Integer, Object> parameter : parameters.entrySet()) {
+                statement.setObject(parameter.getKey(), parameter.getValue());
+            }
+        }
+
+        @Override
+        public String toString() {
+            return sql + " " + parameters;
+        }
+    }
+
+    @TestConfiguration
+    static class QueryCapturingConfiguration {
+
+        @Bean
+        static BeanPostProcessor queryCapturingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource ? proxy(DataSource.class, bean, null) : bean;
+                }
+            };
+        }
+
+        private static <T> T proxy(Class<T> type, Object target, CapturedQuery query) {
+            InvocationHandler handler = (proxy, method, args) -> {
+                Object result;
+                try {
+                    result = method.invoke(target, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+                if (result instanceof Connection) {
+                    return proxy(Connection.class, result, null);
+                }
+                if (result instanceof PreparedStatement && Thread.currentThread() == capturingThread) {
+                    CapturedQuery captured = new CapturedQuery((String) args[0]);
+                    synchronized (CAPTURED) {
+                        CAPTURED.add(captured);
+                    }
+                    return proxy(PreparedStatement.class, result, captured);
+                }
+                // Record the parameters bound with setInt, setTimestamp, setObject and the like
+                if (query != null && method.getName().startsWith("set") && args != null && args.length >= 2
+                        && args[0] instanceof Integer) {
+                    query.parameters.put((Integer) args[0], args[1]);
+                }
+                return result;
+            };
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.challenge.service;
+
+import com.example.challenge.domain.enums.BankResponseCode;
+import com.example.challenge.web.model.v1.request.BankPaymentRequest;
+import com.example.challenge.web.model.v1.response.BankPaymentResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncBankServiceTest {
+
+    private final AsyncBankService asyncBankService = new AsyncBankService(1);
+
+    @AfterEach
+    void tearDown() {
+        asyncBankService.shutdown();
+    }
+
+    @Test
+    void pay_ShouldServeThousandOutstandingCalls_WithASingleTimerThread() throws Exception {
+        // Arrange
+        BankPaymentRequest request = BankPaymentRequest.builder().price(BigDecimal.valueOf(100)).build();
+
+        // Act
+        long start = System.nanoTime();
+        List<CompletableFuture<BankPaymentResponse>> responses = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            responses.add(asyncBankService.pay(request));
+        }
+        long submitMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        boolean anyCompletedAtOnce = responses.stream().anyMatch(CompletableFuture::isDone);
+        CompletableFuture.allOf(responses.toArray(new CompletableFuture[0]))
+                .handle((ignored, failure) -> null)
+                .get(10, TimeUnit.SECONDS);
+
+        // Assert: no call waits for the bank on the calling thread, and every call is answered or times out
+        assertTrue(submitMillis < 1000, () -> "Submitting took " + submitMillis + " ms");
+        assertFalse(anyCompletedAtOnce);
+        Set<String> resultCodes = Set.of(BankResponseCode.SUCCESS.getCode(), BankResponseCode.FAILED.getCode());
+        for (CompletableFuture<BankPaymentResponse> response : responses) {
+            assertTrue(response.isDone());
+            if (!response.isCompletedExceptionally()) {
+                assertTrue(resultCodes.contains(response.get().getResultCode()));
+            }
+        }
+    }
+}
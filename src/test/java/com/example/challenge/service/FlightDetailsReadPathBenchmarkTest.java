@@ -0,0 +1,121 @@
+package com.example.challenge.service;
+
+import com.example.challenge.mapper.FlightMapper;
+import com.example.challenge.mapper.SeatMapper;
+import com.example.challenge.repository.FlightDao;
+import com.example.challenge.repository.FlightRepository;
+import com.example.challenge.repository.SeatRepository;
+import com.example.challenge.web.model.v1.request.CreateFlightRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Measures the bytes allocated by the entity and the projection read paths of flight and seat details
+ * for a 500-seat flight. Each read runs in its own transaction, like a request does, so the entity
+ * path pays for hydration and the persistence context snapshots every time.
+ */
+@Slf4j
+@SpringBootTest
+class FlightDetailsReadPathBenchmarkTest {
+
+    private static final int SEAT_COUNT = 500;
+    private static final int WARMUP_ITERATIONS = 20;
+    private static final int MEASURED_ITERATIONS = 50;
+
+    @Autowired
+    private FlightService flightService;
+
+    @Autowired
+    private FlightDao flightDao;
+
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @Autowired
+    private SeatRepository seatRepository;
+
+    @Autowired
+    private FlightMapper flightMapper;
+
+    @Autowired
+    private SeatMapper seatMapper;
+
+    private com.sun.management.ThreadMXBean threadMXBean;
+    private Long flightId;
+    private Long seatId;
+
+    @BeforeEach
+    void setUp() {
+        threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean.isThreadAllocatedMemorySupported(), "Thread allocation counters are not supported");
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        CreateFlightRequest request = new CreateFlightRequest();
+        request.setOrigin("Berlin");
+        request.setDestination("Paris");
+        request.setDepartureTime(LocalDateTime.now().plusDays(1));
+        request.setArrivalTime(LocalDateTime.now().plusDays(1).plusHours(2));
+        request.setSeatCapacity(SEAT_COUNT);
+        request.setSeatPrice(BigDecimal.valueOf(100));
+        flightId = flightService.addFlight(request).getFlightId();
+        seatId = seatRepository.findSeatViewsByFlightId(flightId).get(0).getSeatId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (flightId != null) {
+            flightRepository.deleteById(flightId);
+        }
+    }
+
+    @Test
+    void flightDetails_ProjectionPathShouldAllocateLessThanEntityPath() {
+        // Act
+        long entityBytes = allocatedBytesPerCall(() -> flightMapper.mapToFlightDetailsResponse(flightDao.getFlightById(flightId)));
+        long projectionBytes = allocatedBytesPerCall(() -> flightMapper.mapToFlightDetailsResponse(
+                flightDao.getFlightHeader(flightId), seatRepository.findSeatViewsByFlightId(flightId)));
+
+        // Assert
+        log.info("Flight details of {} seats: entity path {} bytes/op, projection path {} bytes/op ({}% less)",
+                SEAT_COUNT, entityBytes, projectionBytes, 100 - projectionBytes * 100 / entityBytes);
+        assertTrue(projectionBytes < entityBytes / 2,
+                () -> "Projection path allocated " + projectionBytes + " bytes/op, entity path " + entityBytes);
+    }
+
+    @Test
+    void seatDetails_ProjectionPathShouldAllocateLessThanEntityPath() {
+        // Act
+        long entityBytes = allocatedBytesPerCall(() -> seatMapper.mapToSeatDetailsResponse(seatRepository.findById(seatId).orElseThrow()));
+        long projectionBytes = allocatedBytesPerCall(() -> seatMapper.mapToSeatDetailsResponse(seatRepository.findDetailsViewById(seatId).orElseThrow()));
+
+        // Assert
+        log.info("Seat details: entity path {} bytes/op, projection path {} bytes/op ({}% less)",
+                entityBytes, projectionBytes, 100 - projectionBytes * 100 / entityBytes);
+        assertTrue(projectionBytes < entityBytes,
+                () -> "Projection path allocated " + projectionBytes + " bytes/op, entity path " + entityBytes);
+    }
+
+    private long allocatedBytesPerCall(Supplier<?> call) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            assertNotNull(call.get());
+        }
+        long threadId = Thread.currentThread().getId();
+        long before = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            assertNotNull(call.get());
+        }
+        return (threadMXBean.getThreadAllocatedBytes(threadId) - before) / MEASURED_ITERATIONS;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.challenge.service;
+
+import com.example.challenge.domain.entity.Flight;
+import com.example.challenge.repository.FlightRepository;
+import com.example.challenge.repository.SeatRepository;
+import com.example.challenge.web.model.v1.response.FlightImportResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "flight.import.chunk-size=2")
+@Transactional
+class FlightImportServiceIntegrationTest {
+
+    @Autowired
+    private FlightImportService flightImportService;
+
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @Autowired
+    private SeatRepository seatRepository;
+
+    @Test
+    void importFlights_ShouldCreateFlightsInChunks_AndReportRejectedLines() {
+        // Arrange: three valid flights spanning two chunks, a malformed line, an invalid flight and a blank line
+        String input = String.join("\n",
+                flightLine("Oslo", "Rome", 100),
+                flightLine("Oslo", "Vienna", 120),
+                "{\"origin\": \"Oslo\",",
+                flightLine("Oslo", "Prague", 50),
+                "",
+                flightLine("Oslo", "Lisbon", 150));
+
+        // Act
+        FlightImportResponse response = flightImportService.importFlights(
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)));
+
+        // Assert
+        assertEquals(3, response.getImportedFlightCount());
+        assertEquals(2, response.getFailedLineCount());
+        assertEquals(List.of(3L, 4L), response.getFailures().stream()
+                .map(FlightImportResponse.LineFailure::getLine)
+                .collect(Collectors.toList()));
+        assertTrue(response.getFailures().get(0).getErrors().containsKey("line"));
+        assertTrue(response.getFailures().get(1).getErrors().containsKey("seatCapacity"));
+
+        List<Flight> flights = flightRepository.findAll().stream()
+                .filter(flight -> flight.getOrigin().equals("Oslo"))
+                .collect(Collectors.toList());
+        assertEquals(3, flights.size());
+        for (Flight flight : flights) {
+            assertNotNull(flight.getFlightNumber());
+            assertEquals(flight.getSeatCapacity(), seatRepository.countByFlightId(flight.getId()));
+        }
+        assertEquals(0, BigDecimal.valueOf(79.90).compareTo(
+                seatRepository.findSeatViewsByFlightId(flights.get(0).getId()).get(0).getPrice()));
+    }
+
+    private static String flightLine(String origin, String destination, int seatCapacity) {
+        LocalDateTime departure = LocalDateTime.now().plusDays(10).withNano(0);
+        return "{\"origin\": \"" + origin + "\", \"destination\": \"" + destination + "\", " +
+                "\"departureTime\": \"" + departure + "\", \"arrivalTime\": \"" + departure.plusHours(3) + "\", " +
+                "\"seatCapacity\": " + seatCapacity + ", \"seatPrice\": 79.90}";
+    }
+}
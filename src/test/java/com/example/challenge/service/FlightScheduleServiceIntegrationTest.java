@@ -0,0 +1,115 @@
+package com.example.challenge.service;
+
+import com.example.challenge.infrastructure.exception.BusinessException;
+import com.example.challenge.web.model.v1.request.CreateFlightScheduleRequest;
+import com.example.challenge.web.model.v1.response.FlightScheduleJobResponse;
+import com.example.challenge.web.model.v1.response.FlightScheduleJobResponse.JobStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Schedule jobs commit on their own worker thread, so the flights they create are removed after each test.
+ */
+@SpringBootTest(properties = "flight.schedule.chunk-size=3")
+class FlightScheduleServiceIntegrationTest {
+
+    private static final String ORIGIN = "Reykjavik";
+
+    @Autowired
+    private FlightScheduleService flightScheduleService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM seat WHERE flight_id IN (SELECT id FROM flight WHERE origin = ?)", ORIGIN);
+        jdbcTemplate.update("DELETE FROM flight WHERE origin = ?", ORIGIN);
+    }
+
+    @Test
+    void scheduleFlights_ShouldCreateFlightOnEachScheduledDay_InTheBackground() {
+        // Arrange: two weeks of an overnight route flown on Mondays and Thursdays, written in two chunks
+        CreateFlightScheduleRequest request = scheduleRequest(LocalDate.now().plusDays(1), LocalDate.now().plusDays(14));
+
+        // Act
+        FlightScheduleJobResponse queued = flightScheduleService.scheduleFlights(request);
+        await().atMost(Duration.ofSeconds(10))
+                .until(() -> flightScheduleService.getJob(queued.getJobId()).getStatus() == JobStatus.COMPLETED);
+
+        // Assert
+        assertEquals(4, queued.getTotalFlightCount());
+        assertEquals(4, flightScheduleService.getJob(queued.getJobId()).getCreatedFlightCount());
+        List<Map<String, Object>> flights = jdbcTemplate.queryForList(
+                "SELECT f.flight_number, f.departure_time, f.arrival_time, " +
+                        "(SELECT COUNT(*) FROM seat s WHERE s.flight_id = f.id) AS seat_count " +
+                        "FROM flight f WHERE f.origin = ?", ORIGIN);
+        assertEquals(4, flights.size());
+        for (Map<String, Object> flight : flights) {
+            LocalDateTime departureTime = ((Timestamp) flight.get("DEPARTURE_TIME")).toLocalDateTime();
+            LocalDateTime arrivalTime = ((Timestamp) flight.get("ARRIVAL_TIME")).toLocalDateTime();
+            assertTrue(request.getDaysOfWeek().contains(departureTime.getDayOfWeek()));
+            assertEquals(LocalTime.of(22, 30), departureTime.toLocalTime());
+            assertEquals(departureTime.toLocalDate().plusDays(1).atTime(1, 15), arrivalTime);
+            assertTrue(((String) flight.get("FLIGHT_NUMBER")).startsWith("RELI"));
+            assertEquals(100L, ((Number) flight.get("SEAT_COUNT")).longValue());
+        }
+    }
+
+    @Test
+    void scheduleFlights_ShouldRejectSchedule_WhenEndDateIsBeforeStartDate() {
+        // Arrange
+        CreateFlightScheduleRequest request = scheduleRequest(LocalDate.now().plusDays(7), LocalDate.now().plusDays(1));
+
+        // Act
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> flightScheduleService.scheduleFlights(request));
+
+        // Assert
+        assertEquals("business.error.invalid_flight_schedule", exception.getMessageKey());
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+    }
+
+    @Test
+    void getJob_ShouldThrowNotFound_WhenJobIsUnknown() {
+        // Act
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> flightScheduleService.getJob("unknown"));
+
+        // Assert
+        assertEquals("business.error.flight_schedule_job_not_found", exception.getMessageKey());
+        assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
+    }
+
+    private static CreateFlightScheduleRequest scheduleRequest(LocalDate startDate, LocalDate endDate) {
+        CreateFlightScheduleRequest request = new CreateFlightScheduleRequest();
+        request.setOrigin(ORIGIN);
+        request.setDestination("Lisbon");
+        request.setDaysOfWeek(Set.of(DayOfWeek.MONDAY, DayOfWeek.THURSDAY));
+        request.setDepartureTime(LocalTime.of(22, 30));
+        request.setArrivalTime(LocalTime.of(1, 15));
+        request.setStartDate(startDate);
+        request.setEndDate(endDate);
+        request.setSeatCapacity(100);
+        request.setSeatPrice(BigDecimal.valueOf(89.90));
+        return request;
+    }
+}
@@ -1,29 +1,52 @@
 package com.example.challenge.service;
 
 import com.example.challenge.domain.entity.Flight;
+import com.example.challenge.domain.entity.Payment;
 import com.example.challenge.domain.entity.Seat;
+import com.example.challenge.domain.enums.PaymentStatus;
 import com.example.challenge.domain.enums.SeatStatus;
+import com.example.challenge.infrastructure.exception.BusinessException;
+import com.example.challenge.infrastructure.sequence.FlightNumberAllocator;
+import com.example.challenge.repository.FlightDao;
 import com.example.challenge.repository.FlightRepository;
+import com.example.challenge.repository.PaymentRepository;
 import com.example.challenge.repository.SeatRepository;
+import com.example.challenge.service.payment.PaymentRecorderService;
 import com.example.challenge.utils.FlightUtils;
 import com.example.challenge.web.model.v1.request.CreateFlightRequest;
+import com.example.challenge.web.model.v1.request.RepriceSeatsRequest;
 import com.example.challenge.web.model.v1.request.UpdateFlightRequest;
+import com.example.challenge.web.model.v1.request.UpdateSeatRequest;
+import com.example.challenge.web.model.v1.response.FlightCursorPageResponse;
 import com.example.challenge.web.model.v1.response.FlightDetailsResponse;
 import com.example.challenge.web.model.v1.response.FlightResponse;
+import com.example.challenge.web.model.v1.response.FlightSummaryResponse;
+import com.example.challenge.web.model.v1.response.RepriceSeatsResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.doAnswer;
 
 @SpringBootTest
 @Transactional
@@ -38,6 +61,27 @@ class FlightServiceImplIntegrationTest {
     @Autowired
     private SeatRepository seatRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PaymentRecorderService paymentRecorderService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SeatService seatService;
+
+    @SpyBean
+    private FlightNumberAllocator flightNumberAllocator;
+
+    @Autowired
+    private FlightDao flightDao;
+
     @Test
     void addFlight_ShouldSaveFlightAndGenerateSeats() {
         // Arrange
@@ -74,7 +118,7 @@ class FlightServiceImplIntegrationTest {
         flight.setDepartureTime(LocalDateTime.now().plusDays(1));
         flight.setArrivalTime(LocalDateTime.now().plusDays(2));
         flight.setSeatCapacity(10);
-        flight.setFlightNumber(FlightUtils.generateFlightNumber(flight.getOrigin(), flight.getDestination()));
+        flight.setFlightNumber(flightNumberAllocator.allocate(flight.getOrigin(), flight.getDestination()));
 
         // Initialize seats explicitly
         flight.setSeats(new ArrayList<>());
@@ -107,7 +151,7 @@ class FlightServiceImplIntegrationTest {
         flight.setDepartureTime(LocalDateTime.now().plusDays(1));
         flight.setArrivalTime(LocalDateTime.now().plusDays(2));
         flight.setSeatCapacity(10);
-        flight.setFlightNumber(FlightUtils.generateFlightNumber(flight.getOrigin(), flight.getDestination()));
+        flight.setFlightNumber(flightNumberAllocator.allocate(flight.getOrigin(), flight.getDestination()));
 
         flight = flightRepository.saveAndFlush(flight);
 
@@ -133,6 +177,140 @@ class FlightServiceImplIntegrationTest {
         assertEquals("Berlin", updatedFlight.getDestination());
     }
 
+    @Test
+    void updateFlight_ShouldAppendSeats_AndKeepExistingSeatIds_WhenCapacityGrows() {
+        // Arrange
+        Flight flight = saveFlightWithSeats("Oslo", "Tallinn", 3);
+        List<Long> originalSeatIds = seatIdsOf(flight.getId());
+        UpdateFlightRequest request = updateRequest(flight, 5);
+
+        // Act
+        flightService.updateFlight(flight.getId(), request);
+
+        // Assert
+        assertEquals(originalSeatIds, seatIdsOf(flight.getId()).subList(0, 3));
+        assertEquals(List.of("1", "2", "3", "4", "5"), jdbcTemplate.queryForList(
+                "SELECT seat_number FROM seat WHERE flight_id = ? ORDER BY id", String.class, flight.getId()));
+        assertEquals(5, flightRepository.findById(flight.getId()).orElseThrow().getSeatCapacity());
+    }
+
+    @Test
+    void updateFlight_ShouldRemoveHighestNumberedUnsoldSeats_WhenCapacityShrinks() {
+        // Arrange: seat 5 is sold and seat 4 has a payment in progress
+        Flight flight = saveFlightWithSeats("Dublin", "Milan", 5);
+        List<Long> seatIds = seatIdsOf(flight.getId());
+        Seat soldSeat = seatRepository.findById(seatIds.get(4)).orElseThrow();
+        soldSeat.setStatus(SeatStatus.UNAVAILABLE);
+        seatRepository.saveAndFlush(soldSeat);
+        Seat seatWithPayment = seatRepository.findById(seatIds.get(3)).orElseThrow();
+        paymentRepository.saveAndFlush(Payment.builder()
+                .createdAt(LocalDateTime.now())
+                .seat(seatWithPayment)
+                .price(seatWithPayment.getPrice())
+                .status(PaymentStatus.PENDING)
+                .build());
+
+        // Act
+        flightService.updateFlight(flight.getId(), updateRequest(flight, 3));
+
+        // Assert
+        assertEquals(List.of(seatIds.get(0), seatIds.get(3), seatIds.get(4)), seatIdsOf(flight.getId()));
+    }
+
+    @Test
+    void updateFlight_ShouldRejectShrink_WhenNotEnoughSeatsAreUnsold() {
+        // Arrange
+        Flight flight = saveFlightWithSeats("Vienna", "Zurich", 3);
+        List<Long> seatIds = seatIdsOf(flight.getId());
+        jdbcTemplate.update("UPDATE seat SET status = 'UNAVAILABLE' WHERE id IN (?, ?)", seatIds.get(1), seatIds.get(2));
+
+        // Act & Assert
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> flightService.updateFlight(flight.getId(), updateRequest(flight, 1)));
+        assertEquals("business.error.flight_capacity_cannot_be_updated_due_to_sold_seats", exception.getMessageKey());
+        assertEquals(seatIds, seatIdsOf(flight.getId()));
+    }
+
+    @Test
+    void updateFlight_ShouldRepriceOnlyAvailableSeats_AndBumpTheirVersions() {
+        // Arrange
+        Flight flight = saveFlightWithSeats("Athens", "Sofia", 3);
+        List<Long> seatIds = seatIdsOf(flight.getId());
+        jdbcTemplate.update("UPDATE seat SET status = 'UNAVAILABLE' WHERE id = ?", seatIds.get(2));
+        UpdateFlightRequest request = updateRequest(flight, 3);
+        request.setSeatPrice(BigDecimal.valueOf(110.00));
+
+        // Act
+        flightService.updateFlight(flight.getId(), request);
+
+        // Assert
+        assertEquals(seatIds, seatIdsOf(flight.getId()));
+        List<BigDecimal> prices = jdbcTemplate.queryForList(
+                "SELECT price FROM seat WHERE flight_id = ? ORDER BY id", BigDecimal.class, flight.getId());
+        assertEquals(0, BigDecimal.valueOf(110.00).compareTo(prices.get(0)));
+        assertEquals(0, BigDecimal.valueOf(110.00).compareTo(prices.get(1)));
+        assertEquals(0, BigDecimal.valueOf(90.00).compareTo(prices.get(2)));
+        assertEquals(List.of(1, 1, 0), jdbcTemplate.queryForList(
+                "SELECT version FROM seat WHERE flight_id = ? ORDER BY id", Integer.class, flight.getId()));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void updateFlight_ShouldApplyToCurrentFlight_WhenSeatsChangedAfterTheFlightWasRead() {
+        // Arrange: a committed flight gets a seat, bumping its version, while its new flight number is allocated
+        Long flightId = saveFlightWithSeats("Porto", "Seville", 3).getId();
+        doAnswer(invocation -> {
+            jdbcTemplate.update("INSERT INTO seat (version, seat_number, price, status, flight_id) " +
+                    "VALUES (0, '4', 90.00, 'AVAILABLE', ?)", flightId);
+            jdbcTemplate.update("UPDATE flight SET seat_capacity = seat_capacity + 1, version = version + 1 WHERE id = ?",
+                    flightId);
+            return invocation.callRealMethod();
+        }).when(flightNumberAllocator).allocate("Porto", "Malaga");
+        UpdateFlightRequest request = updateRequest(flightRepository.findById(flightId).orElseThrow(), 5);
+        request.setDestination("Malaga");
+
+        try {
+            // Act
+            flightService.updateFlight(flightId, request);
+
+            // Assert
+            Flight updatedFlight = flightRepository.findById(flightId).orElseThrow();
+            assertEquals("Malaga", updatedFlight.getDestination());
+            assertEquals(5, updatedFlight.getSeatCapacity());
+            assertEquals(5, seatRepository.countByFlightId(flightId));
+        } finally {
+            // Nothing is rolled back in this test, so remove the committed rows explicitly
+            jdbcTemplate.update("DELETE FROM seat WHERE flight_id = ?", flightId);
+            jdbcTemplate.update("DELETE FROM flight WHERE id = ?", flightId);
+        }
+    }
+
+    @Test
+    void repriceSeats_ShouldApplyRulesInOrder_AcrossFlights() {
+        // Arrange: seat 2 of the second flight is sold
+        Flight first = saveFlightWithSeats("Lyon", "Nice", 4);
+        Flight second = saveFlightWithSeats("Lyon", "Nice", 4);
+        jdbcTemplate.update("UPDATE seat SET status = 'UNAVAILABLE' WHERE id = ?", seatIdsOf(second.getId()).get(1));
+        RepriceSeatsRequest.SeatPriceRule frontRows = new RepriceSeatsRequest.SeatPriceRule();
+        frontRows.setToSeatNumber(2);
+        frontRows.setPrice(BigDecimal.valueOf(200.00));
+        RepriceSeatsRequest.SeatPriceRule surcharge = new RepriceSeatsRequest.SeatPriceRule();
+        surcharge.setPercentage(BigDecimal.valueOf(10));
+        RepriceSeatsRequest request = new RepriceSeatsRequest();
+        request.setFlightIds(List.of(first.getId(), second.getId()));
+        request.setRules(List.of(frontRows, surcharge));
+        String eTagBefore = flightService.getFlightDetailsETag(second.getId());
+
+        // Act
+        RepriceSeatsResponse response = flightService.repriceSeats(request);
+
+        // Assert: 3 seats set to 200, then 7 available seats raised by 10%
+        assertEquals(10, response.getRepricedSeatCount());
+        assertEquals(List.of("220.00", "220.00", "99.00", "99.00"), pricesOf(first.getId()));
+        assertEquals(List.of("220.00", "90.00", "99.00", "99.00"), pricesOf(second.getId()));
+        assertNotEquals(eTagBefore, flightService.getFlightDetailsETag(second.getId()));
+    }
+
     @Test
     void getFlightDetails_ShouldReturnFlightDetails() {
         // Arrange
@@ -142,7 +320,7 @@ class FlightServiceImplIntegrationTest {
         flight.setDepartureTime(LocalDateTime.now().plusDays(1));
         flight.setArrivalTime(LocalDateTime.now().plusDays(2));
         flight.setSeatCapacity(10);
-        flight.setFlightNumber(FlightUtils.generateFlightNumber(flight.getOrigin(), flight.getDestination()));
+        flight.setFlightNumber(flightNumberAllocator.allocate(flight.getOrigin(), flight.getDestination()));
         flight.setSeats(new ArrayList<>()); // Explicit initialization
 
         flight = flightRepository.saveAndFlush(flight);
@@ -177,7 +355,7 @@ class FlightServiceImplIntegrationTest {
         flight1.setDepartureTime(LocalDateTime.now().plusDays(1));
         flight1.setArrivalTime(LocalDateTime.now().plusDays(2));
         flight1.setSeatCapacity(10);
-        flight1.setFlightNumber(FlightUtils.generateFlightNumber("New York", "London"));
+        flight1.setFlightNumber(flightNumberAllocator.allocate("New York", "London"));
         flight1.setSeats(new ArrayList<>());
 
         Flight flight2 = new Flight();
@@ -186,7 +364,7 @@ class FlightServiceImplIntegrationTest {
         flight2.setDepartureTime(LocalDateTime.now().plusDays(3));
         flight2.setArrivalTime(LocalDateTime.now().plusDays(4));
         flight2.setSeatCapacity(20);
-        flight2.setFlightNumber(FlightUtils.generateFlightNumber("Paris", "Berlin"));
+        flight2.setFlightNumber(flightNumberAllocator.allocate("Paris", "Berlin"));
         flight2.setSeats(new ArrayList<>());
 
         flightRepository.saveAllAndFlush(List.of(flight1, flight2));
@@ -201,4 +379,273 @@ class FlightServiceImplIntegrationTest {
         assertEquals("Paris", page.getContent().get(1).getFlight().getOrigin());
     }
 
+    @Test
+    void listFlights_ShouldSkipPastFlightsAndPageInDatabase() {
+        // Arrange: one past flight and three future flights.
+        Flight pastFlight = new Flight();
+        pastFlight.setOrigin("Rome");
+        pastFlight.setDestination("Madrid");
+        pastFlight.setDepartureTime(LocalDateTime.now().plusDays(1));
+        pastFlight.setArrivalTime(LocalDateTime.now().plusDays(1).plusHours(3));
+        pastFlight.setSeatCapacity(10);
+        pastFlight.setFlightNumber(flightNumberAllocator.allocate("Rome", "Madrid"));
+        pastFlight = flightRepository.saveAndFlush(pastFlight);
+        // Entity validation rejects past departures, so move the flight into the past directly
+        jdbcTemplate.update("UPDATE flight SET departure_time = ? WHERE id = ?",
+                LocalDateTime.now().minusDays(1), pastFlight.getId());
+
+        List<Flight> futureFlights = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            Flight flight = new Flight();
+            flight.setOrigin("Oslo" + i);
+            flight.setDestination("Vienna");
+            flight.setDepartureTime(LocalDateTime.now().plusDays(10 + i));
+            flight.setArrivalTime(LocalDateTime.now().plusDays(10 + i).plusHours(2));
+            flight.setSeatCapacity(10);
+            flight.setFlightNumber(flightNumberAllocator.allocate("Oslo", "Vienna"));
+            flight.setSeats(new ArrayList<>());
+            futureFlights.add(flight);
+        }
+        flightRepository.saveAllAndFlush(futureFlights);
+        Long futureCount = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM flight WHERE departure_time > ?", Long.class, LocalDateTime.now());
+
+        // Act: request the last page of size 2, ordered by departure time.
+        int lastPage = (int) ((futureCount - 1) / 2);
+        var page = flightService.listFlights(PageRequest.of(lastPage, 2));
+
+        // Assert
+        assertEquals(futureCount.longValue(), page.getTotalElements());
+        assertTrue(page.getContent().stream().noneMatch(details -> "Rome".equals(details.getFlight().getOrigin())));
+        assertEquals("Oslo3", page.getContent().get(page.getContent().size() - 1).getFlight().getOrigin());
+    }
+
+    @Test
+    void listFlightsAfterCursor_ShouldWalkAllFlightsOnce_WhenDepartureTimesTieAndFlightsAreAdded() {
+        // Arrange: three flights sharing one departure time, so the ID breaks the tie.
+        LocalDateTime departureTime = LocalDateTime.now().plusDays(300).withNano(0);
+        List<Flight> tiedFlights = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            Flight flight = new Flight();
+            flight.setOrigin("Tallinn" + i);
+            flight.setDestination("Riga");
+            flight.setDepartureTime(departureTime);
+            flight.setArrivalTime(departureTime.plusHours(1));
+            flight.setSeatCapacity(10);
+            flight.setFlightNumber(flightNumberAllocator.allocate("Tallinn", "Riga"));
+            flight.setSeats(new ArrayList<>());
+            tiedFlights.add(flight);
+        }
+        flightRepository.saveAllAndFlush(tiedFlights);
+
+        // Act: walk every page of size 2, adding an earlier flight after the first page.
+        List<Long> walkedIds = new ArrayList<>();
+        String cursor = null;
+        do {
+            FlightCursorPageResponse page = flightService.listFlightsAfterCursor(cursor, 2);
+            page.getContent().forEach(details -> walkedIds.add(details.getFlight().getFlightId()));
+            if (cursor == null) {
+                Flight earlierFlight = new Flight();
+                earlierFlight.setOrigin("Vilnius");
+                earlierFlight.setDestination("Riga");
+                earlierFlight.setDepartureTime(LocalDateTime.now().plusMinutes(1));
+                earlierFlight.setArrivalTime(LocalDateTime.now().plusHours(1));
+                earlierFlight.setSeatCapacity(10);
+                earlierFlight.setFlightNumber(flightNumberAllocator.allocate("Vilnius", "Riga"));
+                flightRepository.saveAndFlush(earlierFlight);
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        // Assert
+        assertEquals(walkedIds.size(), walkedIds.stream().distinct().count());
+        List<Long> tiedIds = tiedFlights.stream().map(Flight::getId).sorted().collect(Collectors.toList());
+        int firstTied = walkedIds.indexOf(tiedIds.get(0));
+        assertEquals(tiedIds, walkedIds.subList(firstTied, firstTied + 3));
+    }
+
+    @Test
+    void exportFlights_ShouldStreamSameFlightDetailsAsDetailsEndpoint() throws Exception {
+        // Arrange
+        Flight flight = new Flight();
+        flight.setOrigin("Zagreb");
+        flight.setDestination("Sofia");
+        flight.setDepartureTime(LocalDateTime.now().plusDays(4));
+        flight.setArrivalTime(LocalDateTime.now().plusDays(4).plusHours(2));
+        flight.setSeatCapacity(3);
+        flight.setFlightNumber(flightNumberAllocator.allocate("Zagreb", "Sofia"));
+        flight.setSeats(FlightUtils.generateSeats(flight, BigDecimal.valueOf(80.00)));
+        flight.getSeats().get(1).setStatus(SeatStatus.UNAVAILABLE);
+        flight = flightRepository.saveAndFlush(flight);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Act
+        flightService.exportFlights(output);
+
+        // Assert
+        Long flightId = flight.getId();
+        FlightDetailsResponse streamed = null;
+        for (String line : output.toString(StandardCharsets.UTF_8).split("\n")) {
+            FlightDetailsResponse details = objectMapper.readValue(line, FlightDetailsResponse.class);
+            assertTrue(details.getFlight().getDepartureTime().isAfter(LocalDateTime.now()));
+            if (flightId.equals(details.getFlight().getFlightId())) {
+                streamed = details;
+            }
+        }
+        assertNotNull(streamed);
+        FlightDetailsResponse details = flightService.getFlightDetails(flightId);
+        assertEquals(details.getFlight().getFlightNumber(), streamed.getFlight().getFlightNumber());
+        assertEquals(seatIds(details.getAvailableSeats()), seatIds(streamed.getAvailableSeats()));
+        assertEquals(List.of(details.getUnavailableSeats().get(0).getSeatId()),
+                streamed.getUnavailableSeats().stream().map(FlightDetailsResponse.UnavailableSeatInfo::getSeatId).collect(Collectors.toList()));
+        streamed.getAvailableSeats().forEach(seat -> assertEquals(0, BigDecimal.valueOf(80.00).compareTo(seat.getSeatPrice())));
+    }
+
+    @Test
+    void getFlightDetailsETag_ShouldChangeOnlyWhenFlightOrSeatsChange() {
+        // Arrange
+        Flight flight = new Flight();
+        flight.setOrigin("Krakow");
+        flight.setDestination("Porto");
+        flight.setDepartureTime(LocalDateTime.now().plusDays(6));
+        flight.setArrivalTime(LocalDateTime.now().plusDays(6).plusHours(3));
+        flight.setSeatCapacity(2);
+        flight.setFlightNumber(flightNumberAllocator.allocate("Krakow", "Porto"));
+        flight.setSeats(FlightUtils.generateSeats(flight, BigDecimal.valueOf(60.00)));
+        flight = flightRepository.saveAndFlush(flight);
+        Long seatId = flight.getSeats().get(0).getId();
+        UpdateSeatRequest updateSeatRequest = new UpdateSeatRequest();
+        updateSeatRequest.setPrice(BigDecimal.valueOf(75.00));
+        updateSeatRequest.setStatus(SeatStatus.AVAILABLE);
+
+        // Act
+        String initialFlightETag = flightService.getFlightDetailsETag(flight.getId());
+        String initialSeatETag = seatService.getSeatDetailsETag(seatId);
+        String repeatedFlightETag = flightService.getFlightDetailsETag(flight.getId());
+        seatService.updateSeat(seatId, updateSeatRequest);
+        String updatedFlightETag = flightService.getFlightDetailsETag(flight.getId());
+        String updatedSeatETag = seatService.getSeatDetailsETag(seatId);
+
+        // Assert
+        assertEquals(initialFlightETag, repeatedFlightETag);
+        assertNotEquals(initialFlightETag, updatedFlightETag);
+        assertNotEquals(initialSeatETag, updatedSeatETag);
+    }
+
+    @Test
+    void listFlightSummaries_ShouldReturnSeatCountsAndAvailablePriceRange() {
+        // Arrange
+        Flight flight = new Flight();
+        flight.setOrigin("Lisbon");
+        flight.setDestination("Prague");
+        flight.setDepartureTime(LocalDateTime.now().plusYears(5));
+        flight.setArrivalTime(LocalDateTime.now().plusYears(5).plusHours(3));
+        flight.setSeatCapacity(3);
+        flight.setFlightNumber(flightNumberAllocator.allocate("Lisbon", "Prague"));
+        flight.setSeats(new ArrayList<>());
+        flight = flightRepository.saveAndFlush(flight);
+        seatRepository.saveAllAndFlush(List.of(
+                Seat.builder().seatNumber("1").price(BigDecimal.valueOf(100.00)).status(SeatStatus.AVAILABLE).flight(flight).build(),
+                Seat.builder().seatNumber("2").price(BigDecimal.valueOf(180.00)).status(SeatStatus.AVAILABLE).flight(flight).build(),
+                Seat.builder().seatNumber("3").price(BigDecimal.valueOf(500.00)).status(SeatStatus.UNAVAILABLE).flight(flight).build()));
+
+        // Act
+        Page<FlightSummaryResponse> page = flightService.listFlightSummaries(PageRequest.of(0, 1000));
+
+        // Assert
+        Long flightId = flight.getId();
+        FlightSummaryResponse summary = page.getContent().stream()
+                .filter(response -> flightId.equals(response.getFlight().getFlightId()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(2, summary.getAvailableSeatCount());
+        assertEquals(1, summary.getSoldSeatCount());
+        assertEquals(0, BigDecimal.valueOf(100.00).compareTo(summary.getMinAvailablePrice()));
+        assertEquals(0, BigDecimal.valueOf(180.00).compareTo(summary.getMaxAvailablePrice()));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void getFlightDetails_ShouldNotServeSoldSeatAsAvailable_AfterPaymentCommitted() {
+        // Arrange: a committed flight with one seat whose details are already cached.
+        Flight flight = new Flight();
+        flight.setOrigin("Dublin");
+        flight.setDestination("Athens");
+        flight.setDepartureTime(LocalDateTime.now().plusDays(2));
+        flight.setArrivalTime(LocalDateTime.now().plusDays(2).plusHours(4));
+        flight.setSeatCapacity(1);
+        flight.setFlightNumber(flightNumberAllocator.allocate("Dublin", "Athens"));
+        flight = flightRepository.saveAndFlush(flight);
+        Seat seat = seatRepository.saveAndFlush(Seat.builder()
+                .seatNumber("1")
+                .price(BigDecimal.valueOf(120.00))
+                .status(SeatStatus.AVAILABLE)
+                .flight(flight)
+                .build());
+        Payment payment = paymentRepository.saveAndFlush(Payment.builder()
+                .createdAt(LocalDateTime.now())
+                .seat(seat)
+                .price(seat.getPrice())
+                .status(PaymentStatus.PENDING)
+                .build());
+        assertEquals(1, flightService.getFlightDetails(flight.getId()).getAvailableSeats().size());
+        assertEquals(encodeAvailability(1L), flightService.getSeatMap(flight.getId()).getAvailability());
+        // Hold the seat for the payment behind the caches' back, so only the payment result can refresh them
+        jdbcTemplate.update("UPDATE seat SET status = 'HELD' WHERE id = ?", seat.getId());
+
+        try {
+            // Act
+            paymentRecorderService.updatePaymentStatus(payment.getId(), PaymentStatus.SUCCESS);
+
+            // Assert
+            FlightDetailsResponse details = flightService.getFlightDetails(flight.getId());
+            assertTrue(details.getAvailableSeats().isEmpty());
+            assertEquals(1, details.getUnavailableSeats().size());
+            assertEquals(encodeAvailability(0L), flightService.getSeatMap(flight.getId()).getAvailability());
+        } finally {
+            // Nothing is rolled back in this test, so remove the committed rows explicitly
+            paymentRepository.deleteById(payment.getId());
+            flightRepository.deleteById(flight.getId());
+        }
+    }
+
+    private Flight saveFlightWithSeats(String origin, String destination, int seatCapacity) {
+        Flight flight = new Flight();
+        flight.setOrigin(origin);
+        flight.setDestination(destination);
+        flight.setDepartureTime(LocalDateTime.now().plusDays(5));
+        flight.setArrivalTime(LocalDateTime.now().plusDays(5).plusHours(2));
+        flight.setSeatCapacity(seatCapacity);
+        flight.setFlightNumber(flightNumberAllocator.allocate(origin, destination));
+        flight.setSeats(FlightUtils.generateSeats(flight, BigDecimal.valueOf(90.00)));
+        return flightRepository.saveAndFlush(flight);
+    }
+
+    private static UpdateFlightRequest updateRequest(Flight flight, int seatCapacity) {
+        UpdateFlightRequest request = new UpdateFlightRequest();
+        request.setOrigin(flight.getOrigin());
+        request.setDestination(flight.getDestination());
+        request.setDepartureTime(flight.getDepartureTime());
+        request.setArrivalTime(flight.getArrivalTime());
+        request.setSeatCapacity(seatCapacity);
+        request.setSeatPrice(BigDecimal.valueOf(90.00));
+        return request;
+    }
+
+    private List<String> pricesOf(Long flightId) {
+        return jdbcTemplate.queryForList("SELECT price FROM seat WHERE flight_id = ? ORDER BY id", BigDecimal.class, flightId)
+                .stream().map(BigDecimal::toPlainString).collect(Collectors.toList());
+    }
+
+    private List<Long> seatIdsOf(Long flightId) {
+        return jdbcTemplate.queryForList("SELECT id FROM seat WHERE flight_id = ? ORDER BY id", Long.class, flightId);
+    }
+
+    private static List<Long> seatIds(List<FlightDetailsResponse.AvailableSeatInfo> seats) {
+        return seats.stream().map(FlightDetailsResponse.AvailableSeatInfo::getSeatId).sorted().collect(Collectors.toList());
+    }
+
+    private static String encodeAvailability(long word) {
+        return Base64.getEncoder().encodeToString(ByteBuffer.allocate(Long.BYTES).putLong(word).array());
+    }
 }
@@ -3,29 +3,49 @@ package com.example.challenge.service;
 import com.example.challenge.domain.entity.Flight;
 import com.example.challenge.domain.entity.Seat;
 import com.example.challenge.domain.enums.SeatStatus;
+import com.example.challenge.domain.projection.FlightHeader;
+import com.example.challenge.domain.projection.FlightVersions;
+import com.example.challenge.domain.projection.SeatAvailabilitySummary;
+import com.example.challenge.domain.projection.SeatView;
+import com.example.challenge.infrastructure.cache.FlightCatalogCache;
+import com.example.challenge.infrastructure.cache.FlightDetailsJsonCache;
+import com.example.challenge.infrastructure.cache.SeatMapCache;
 import com.example.challenge.infrastructure.exception.BusinessException;
+import com.example.challenge.infrastructure.sequence.FlightNumberAllocator;
 import com.example.challenge.mapper.FlightMapper;
 import com.example.challenge.repository.FlightDao;
 import com.example.challenge.repository.SeatRepository;
+import com.example.challenge.utils.FlightCursor;
 import com.example.challenge.web.model.v1.request.CreateFlightRequest;
+import com.example.challenge.web.model.v1.request.RepriceSeatsRequest;
 import com.example.challenge.web.model.v1.request.UpdateFlightRequest;
+import com.example.challenge.web.model.v1.response.FlightCursorPageResponse;
 import com.example.challenge.web.model.v1.response.FlightDetailsResponse;
 import com.example.challenge.web.model.v1.response.FlightResponse;
+import com.example.challenge.web.model.v1.response.FlightSummaryResponse;
+import com.example.challenge.web.model.v1.response.RepriceSeatsResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 class FlightServiceImplTest {
@@ -42,6 +62,22 @@ class FlightServiceImplTest {
     @Mock
     private FlightMapper flightMapper;
 
+    @Mock
+    private FlightNumberAllocator flightNumberAllocator;
+
+    @Spy
+    private FlightCatalogCache flightCatalogCache = new FlightCatalogCache(100, new SimpleMeterRegistry());
+
+    @Spy
+    private SeatMapCache seatMapCache = new SeatMapCache(100, flightCatalogCache);
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Spy
+    private FlightDetailsJsonCache flightDetailsJsonCache =
+            new FlightDetailsJsonCache(1 << 20, objectMapper, flightCatalogCache, new SimpleMeterRegistry());
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -62,7 +98,8 @@ class FlightServiceImplTest {
         flight.setId(1L);
 
         when(flightMapper.mapToFlight(request)).thenReturn(flight);
-        when(flightDao.saveFlight(any(Flight.class))).thenReturn(flight);
+        when(flightNumberAllocator.allocate("New York", "London")).thenReturn("NELO1000");
+        when(flightDao.createFlightWithSeats(any(Flight.class), eq(request.getSeatPrice()))).thenReturn(flight);
         when(flightMapper.mapToFlightResponse(flight)).thenReturn(new FlightResponse());
 
         // Act
@@ -70,43 +107,37 @@ class FlightServiceImplTest {
 
         // Assert
         assertNotNull(response);
+        assertEquals("NELO1000", flight.getFlightNumber());
         verify(flightMapper).mapToFlight(request);
-        verify(flightDao).saveFlight(any(Flight.class));
+        verify(flightDao).createFlightWithSeats(any(Flight.class), eq(request.getSeatPrice()));
+        verify(flightDao, never()).saveFlight(any(Flight.class));
     }
 
     @Test
     void removeFlight_ShouldRemoveFlight() {
         // Arrange
         Long flightId = 1L;
-        Flight flight = new Flight();
-        Seat seat = new Seat();
-        seat.setStatus(SeatStatus.AVAILABLE);
-        flight.setSeats(List.of(seat));
-
-        when(flightDao.getFlightById(flightId)).thenReturn(flight);
+        when(seatRepository.existsByFlightIdAndStatusNot(flightId, SeatStatus.AVAILABLE)).thenReturn(false);
 
         // Act
         flightService.removeFlight(flightId);
 
         // Assert
         verify(flightDao).deleteFlightById(flightId);
+        verify(flightDao, never()).getFlightById(any());
     }
 
     @Test
     void removeFlight_ShouldThrowException_WhenSeatsAreSold() {
         // Arrange
         Long flightId = 1L;
-        Flight flight = new Flight();
-        Seat seat = new Seat();
-        seat.setStatus(SeatStatus.UNAVAILABLE);
-        flight.setSeats(List.of(seat));
-
-        when(flightDao.getFlightById(flightId)).thenReturn(flight);
+        when(seatRepository.existsByFlightIdAndStatusNot(flightId, SeatStatus.AVAILABLE)).thenReturn(true);
 
         // Act & Assert
         BusinessException exception = assertThrows(BusinessException.class, () -> flightService.removeFlight(flightId));
         assertEquals("business.error.flight_has_sold_seats", exception.getMessageKey());
         assertEquals(HttpStatus.CONFLICT, exception.getStatus());
+        verify(flightDao, never()).deleteFlightById(any());
     }
 
     @Test
@@ -121,16 +152,15 @@ class FlightServiceImplTest {
         request.setSeatCapacity(100);
         request.setSeatPrice(BigDecimal.valueOf(300.00));
 
+        // Create a flight on the same route with a different seat capacity
         Flight flight = new Flight();
-        // Create a flight with an available seat and a different seat capacity
-        Seat seat = new Seat();
-        seat.setStatus(SeatStatus.AVAILABLE);
-        flight.setSeats(List.of(seat));
+        flight.setOrigin("New York");
+        flight.setDestination("London");
+        flight.setFlightNumber("NELO1000");
         flight.setSeatCapacity(50);
 
-        when(flightDao.getFlightById(flightId)).thenReturn(flight);
-        doNothing().when(seatRepository).deleteAll(anyList());
-        when(flightDao.saveFlight(flight)).thenReturn(flight);
+        when(flightDao.getFlightWithoutSeats(flightId)).thenReturn(flight);
+        stubUpdateFlightWithSeats(flightId, flight);
         when(flightMapper.mapToFlightResponse(flight)).thenReturn(new FlightResponse());
 
         // Act
@@ -138,44 +168,276 @@ class FlightServiceImplTest {
 
         // Assert
         assertNotNull(response);
-        verify(flightDao).saveFlight(flight);
-        verify(seatRepository).deleteAll(anyList());
+        assertEquals(100, flight.getSeatCapacity());
+        verify(flightDao).updateFlightWithSeats(eq(flightId), any(), eq(request.getSeatPrice()));
+        verify(flightMapper).updateFlightFromRequest(flight, request);
+        verify(flightDao, never()).getFlightById(any());
+        verify(seatRepository, never()).deleteAll(anyList());
+        verify(flightNumberAllocator, never()).allocate(any(), any());
+    }
+
+    @Test
+    void updateFlight_ShouldReject_WhenRouteChangedBeforeTheFlightWasLocked() {
+        // Arrange: the route was changed concurrently after the flight was first read
+        Long flightId = 1L;
+        UpdateFlightRequest request = new UpdateFlightRequest();
+        request.setOrigin("New York");
+        request.setDestination("London");
+        request.setSeatCapacity(100);
+        request.setSeatPrice(BigDecimal.valueOf(300.00));
+        Flight readFlight = new Flight();
+        readFlight.setOrigin("New York");
+        readFlight.setDestination("London");
+        Flight lockedFlight = new Flight();
+        lockedFlight.setOrigin("Paris");
+        lockedFlight.setDestination("Rome");
+        when(flightDao.getFlightWithoutSeats(flightId)).thenReturn(readFlight);
+        stubUpdateFlightWithSeats(flightId, lockedFlight);
+
+        // Act & Assert
+        BusinessException exception = assertThrows(BusinessException.class, () -> flightService.updateFlight(flightId, request));
+        assertEquals("business.error.concurrent_modification", exception.getMessageKey());
+        assertEquals(HttpStatus.CONFLICT, exception.getStatus());
+        verify(flightNumberAllocator, never()).allocate(any(), any());
+    }
+
+    @Test
+    void repriceSeats_ShouldRunOneBulkUpdatePerRule() {
+        // Arrange
+        RepriceSeatsRequest.SeatPriceRule fixedPrice = new RepriceSeatsRequest.SeatPriceRule();
+        fixedPrice.setFromSeatNumber(1);
+        fixedPrice.setToSeatNumber(30);
+        fixedPrice.setPrice(BigDecimal.valueOf(450.00));
+        RepriceSeatsRequest.SeatPriceRule discount = new RepriceSeatsRequest.SeatPriceRule();
+        discount.setFromSeatNumber(31);
+        discount.setPercentage(BigDecimal.valueOf(-15));
+        RepriceSeatsRequest request = new RepriceSeatsRequest();
+        request.setFlightIds(List.of(1L, 2L, 1L));
+        request.setRules(List.of(fixedPrice, discount));
+
+        when(flightDao.setAvailableSeatPrice(List.of(1L, 2L), 1, 30, BigDecimal.valueOf(450.00))).thenReturn(60);
+        when(flightDao.scaleAvailableSeatPrice(eq(List.of(1L, 2L)), eq(31), eq(Integer.MAX_VALUE), any())).thenReturn(140);
+
+        // Act
+        RepriceSeatsResponse response = flightService.repriceSeats(request);
+
+        // Assert
+        assertEquals(200, response.getRepricedSeatCount());
+        ArgumentCaptor<BigDecimal> factor = ArgumentCaptor.forClass(BigDecimal.class);
+        verify(flightDao).scaleAvailableSeatPrice(eq(List.of(1L, 2L)), eq(31), eq(Integer.MAX_VALUE), factor.capture());
+        assertEquals(0, new BigDecimal("0.85").compareTo(factor.getValue()));
+    }
+
+    @Test
+    void repriceSeats_ShouldRejectRule_WithBothPriceAndPercentage() {
+        // Arrange
+        RepriceSeatsRequest.SeatPriceRule rule = new RepriceSeatsRequest.SeatPriceRule();
+        rule.setPrice(BigDecimal.TEN);
+        rule.setPercentage(BigDecimal.TEN);
+        RepriceSeatsRequest request = new RepriceSeatsRequest();
+        request.setFlightIds(List.of(1L));
+        request.setRules(List.of(rule));
+
+        // Act & Assert
+        BusinessException exception = assertThrows(BusinessException.class, () -> flightService.repriceSeats(request));
+        assertEquals("business.error.invalid_reprice_rule", exception.getMessageKey());
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        verifyNoInteractions(flightDao);
     }
 
     @Test
     void listFlights_ShouldReturnPaginatedFutureFlights() {
         // Arrange
         Flight flight = new Flight();
+        flight.setId(1L);
         flight.setDepartureTime(LocalDateTime.now().plusDays(1));
-        FlightDetailsResponse details = new FlightDetailsResponse();
-        when(flightDao.getAllFlightsWithSeats()).thenReturn(List.of(flight));
-        when(flightMapper.mapToFlightDetailsResponse(flight)).thenReturn(details);
-
+        FlightDetailsResponse details = FlightDetailsResponse.builder()
+                .flight(FlightResponse.builder().flightId(1L).build())
+                .build();
         Pageable pageable = PageRequest.of(0, 10);
+        Pageable stablePageable = PageRequest.of(0, 10, Sort.by("departureTime").and(Sort.by("id")));
+
+        when(flightDao.getFutureFlightIds(any(LocalDateTime.class), eq(stablePageable)))
+                .thenReturn(new PageImpl<>(List.of(1L), stablePageable, 1));
+        when(flightDao.getFlightsWithSeats(List.of(1L))).thenReturn(List.of(flight));
+        when(flightMapper.mapToFlightDetailsResponse(flight)).thenReturn(details);
 
         // Act
         Page<FlightDetailsResponse> page = flightService.listFlights(pageable);
 
         // Assert
         assertEquals(1, page.getTotalElements());
-        verify(flightDao).getAllFlightsWithSeats();
+        assertSame(details, page.getContent().get(0));
+        verify(flightDao).getFutureFlightIds(any(LocalDateTime.class), eq(stablePageable));
+        verify(flightDao).getFlightsWithSeats(List.of(1L));
+    }
+
+    @Test
+    void listFlightsAfterCursor_ShouldReturnNextCursor_WhenMoreFlightsFollow() {
+        // Arrange
+        LocalDateTime departureTime = LocalDateTime.now().plusDays(1).withNano(0);
+        Flight flight = new Flight();
+        flight.setId(1L);
+        FlightDetailsResponse details = FlightDetailsResponse.builder()
+                .flight(FlightResponse.builder().flightId(1L).departureTime(departureTime).build())
+                .build();
+
+        when(flightDao.getFutureFlightIdsAfter(any(LocalDateTime.class), isNull(), eq(2))).thenReturn(List.of(1L, 2L));
+        when(flightDao.getFlightsWithSeats(List.of(1L))).thenReturn(List.of(flight));
+        when(flightMapper.mapToFlightDetailsResponse(flight)).thenReturn(details);
+
+        // Act
+        FlightCursorPageResponse page = flightService.listFlightsAfterCursor(null, 1);
+
+        // Assert
+        assertEquals(List.of(details), page.getContent());
+        assertEquals(new FlightCursor(departureTime, 1L), FlightCursor.decode(page.getNextCursor()));
+        verify(flightDao).getFlightsWithSeats(List.of(1L));
+    }
+
+    @Test
+    void listFlightsAfterCursor_ShouldContinueAfterCursor_AndOmitCursorOnLastPage() {
+        // Arrange
+        FlightCursor cursor = new FlightCursor(LocalDateTime.now().plusDays(1).withNano(0), 1L);
+
+        when(flightDao.getFutureFlightIdsAfter(any(LocalDateTime.class), eq(cursor), eq(101))).thenReturn(List.of());
+
+        // Act
+        FlightCursorPageResponse page = flightService.listFlightsAfterCursor(cursor.encode(), 500);
+
+        // Assert
+        assertTrue(page.getContent().isEmpty());
+        assertNull(page.getNextCursor());
+        verify(flightDao, never()).getFlightsWithSeats(anyList());
+    }
+
+    @Test
+    void listFlightsAfterCursor_ShouldThrowException_WhenCursorIsInvalid() {
+        // Act & Assert
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> flightService.listFlightsAfterCursor("not-a-cursor", 10));
+        assertEquals("business.error.invalid_cursor", exception.getMessageKey());
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+    }
+
+    @Test
+    void listFlights_ShouldThrowException_WhenSortPropertyIsNotAFlightColumn() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("seats.price"));
+
+        // Act & Assert
+        BusinessException exception = assertThrows(BusinessException.class, () -> flightService.listFlights(pageable));
+        assertEquals("business.error.invalid_sort_property", exception.getMessageKey());
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        verifyNoInteractions(flightDao);
+    }
+
+    @Test
+    void listFlightSummaries_ShouldThrowException_WhenSortPropertyIsNotAFlightColumn() {
+        // Arrange
+        Pageable pageable = PageRequest.of(0, 10, Sort.by("departureTime").and(Sort.by("version")));
+
+        // Act & Assert
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> flightService.listFlightSummaries(pageable));
+        assertEquals("business.error.invalid_sort_property", exception.getMessageKey());
+        assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        verifyNoInteractions(flightDao);
+    }
+
+    @Test
+    void listFlightSummaries_ShouldAggregateSeatsWithoutLoadingThem() {
+        // Arrange
+        Flight flight = new Flight();
+        flight.setId(1L);
+        SeatAvailabilitySummary summary = new SeatAvailabilitySummary(1L, 9L, 1L,
+                BigDecimal.valueOf(100.00), BigDecimal.valueOf(150.00));
+        FlightSummaryResponse summaryResponse = new FlightSummaryResponse();
+        Pageable stablePageable = PageRequest.of(0, 10, Sort.by("departureTime").and(Sort.by("id")));
+
+        when(flightDao.getFutureFlights(any(LocalDateTime.class), eq(stablePageable)))
+                .thenReturn(new PageImpl<>(List.of(flight), stablePageable, 1));
+        when(seatRepository.summarizeAvailabilityByFlightIds(List.of(1L))).thenReturn(List.of(summary));
+        when(flightMapper.mapToFlightSummaryResponse(flight, summary)).thenReturn(summaryResponse);
+
+        // Act
+        Page<FlightSummaryResponse> page = flightService.listFlightSummaries(PageRequest.of(0, 10));
+
+        // Assert
+        assertEquals(1, page.getTotalElements());
+        assertSame(summaryResponse, page.getContent().get(0));
+        verify(flightDao, never()).getFlightsWithSeats(anyList());
     }
 
     @Test
     void getFlightDetails_ShouldReturnFlightDetails() {
         // Arrange
         Long flightId = 1L;
-        Flight flight = new Flight();
+        FlightHeader header = new FlightHeader(flightId, "BEPA1234", "Berlin", "Paris",
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(1).plusHours(2), 1);
+        List<SeatView> seats = List.of(new SeatView(1L, "1", BigDecimal.TEN, SeatStatus.AVAILABLE));
 
-        when(flightDao.getFlightById(flightId)).thenReturn(flight);
-        when(flightMapper.mapToFlightDetailsResponse(flight)).thenReturn(new FlightDetailsResponse());
+        when(flightDao.getFlightHeader(flightId)).thenReturn(header);
+        when(seatRepository.findSeatViewsByFlightId(flightId)).thenReturn(seats);
+        when(flightMapper.mapToFlightDetailsResponse(header, seats)).thenReturn(new FlightDetailsResponse());
 
         // Act
         FlightDetailsResponse response = flightService.getFlightDetails(flightId);
 
         // Assert
         assertNotNull(response);
-        verify(flightDao).getFlightById(flightId);
+        verify(flightDao).getFlightHeader(flightId);
+        verify(flightDao, never()).getFlightById(any());
+    }
+
+    @Test
+    void getFlightDetails_ShouldServeRepeatedReadsFromCache() {
+        // Arrange
+        Long flightId = 1L;
+        FlightDetailsResponse details = FlightDetailsResponse.builder()
+                .flight(FlightResponse.builder().flightId(flightId).build())
+                .build();
+
+        when(flightMapper.mapToFlightDetailsResponse(any(), anyList())).thenReturn(details);
+
+        // Act
+        flightService.getFlightDetails(flightId);
+        FlightDetailsResponse response = flightService.getFlightDetails(flightId);
+
+        // Assert
+        assertSame(details, response);
+        verify(flightDao, times(1)).getFlightHeader(flightId);
+    }
+
+    @Test
+    void getFlightDetailsETag_ShouldUseFlightVersions_WithoutLoadingFlight() {
+        // Arrange
+        when(flightDao.getFlightVersions(1L)).thenReturn(new FlightVersions(4, 9));
+
+        // Act
+        String eTag = flightService.getFlightDetailsETag(1L);
+
+        // Assert
+        assertEquals("\"flight-1-4-9\"", eTag);
+        verify(flightDao, never()).getFlightHeader(any());
+    }
+
+    @Test
+    void getEncodedFlightDetails_ShouldSerializeOncePerVersion() throws Exception {
+        // Arrange
+        FlightDetailsResponse details = FlightDetailsResponse.builder()
+                .flight(FlightResponse.builder().flightId(1L).build())
+                .build();
+
+        when(flightMapper.mapToFlightDetailsResponse(any(), anyList())).thenReturn(details);
+
+        // Act
+        byte[] first = flightService.getEncodedFlightDetails(1L, "\"flight-1-0\"", false);
+        byte[] second = flightService.getEncodedFlightDetails(1L, "\"flight-1-0\"", false);
+
+        // Assert
+        assertSame(first, second);
+        assertEquals(details, objectMapper.readValue(first, FlightDetailsResponse.class));
     }
 
     @Test
@@ -183,7 +445,7 @@ class FlightServiceImplTest {
         // Arrange
         Long flightId = 1L;
 
-        when(flightDao.getFlightById(flightId))
+        when(flightDao.getFlightHeader(flightId))
                 .thenThrow(new BusinessException("business.error.flight_not_found", HttpStatus.NOT_FOUND));
 
         // Act & Assert
@@ -191,4 +453,12 @@ class FlightServiceImplTest {
         assertEquals("business.error.flight_not_found", exception.getMessageKey());
         assertEquals(HttpStatus.NOT_FOUND, exception.getStatus());
     }
+
+    @SuppressWarnings("unchecked")
+    private void stubUpdateFlightWithSeats(Long flightId, Flight lockedFlight) {
+        when(flightDao.updateFlightWithSeats(eq(flightId), any(Consumer.class), any())).thenAnswer(invocation -> {
+            invocation.<Consumer<Flight>>getArgument(1).accept(lockedFlight);
+            return lockedFlight;
+        });
+    }
 }
@@ -3,11 +3,16 @@ package com.example.challenge.service;
 import com.example.challenge.domain.entity.Flight;
 import com.example.challenge.domain.entity.Seat;
 import com.example.challenge.domain.enums.SeatStatus;
+import com.example.challenge.domain.projection.SeatDetailsView;
+import com.example.challenge.domain.projection.SeatVersions;
+import com.example.challenge.infrastructure.cache.FlightCatalogCache;
 import com.example.challenge.infrastructure.exception.BusinessException;
 import com.example.challenge.mapper.SeatMapper;
+import com.example.challenge.repository.FlightDao;
 import com.example.challenge.repository.FlightRepository;
 import com.example.challenge.repository.SeatRepository;
 import com.example.challenge.web.model.v1.request.CreateSeatRequest;
+import com.example.challenge.web.model.v1.request.SeatBatchRequest;
 import com.example.challenge.web.model.v1.request.UpdateSeatRequest;
 import com.example.challenge.web.model.v1.response.SeatDetailsResponse;
 import com.example.challenge.web.model.v1.response.SeatResponse;
@@ -16,6 +21,8 @@ import org.junit.jupiter.api.Test;
 import org.mockito.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -35,6 +42,12 @@ class SeatServiceImplTest {
     @Mock
     private SeatMapper seatMapper;
 
+    @Mock
+    private FlightCatalogCache flightCatalogCache;
+
+    @Mock
+    private FlightDao flightDao;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -54,10 +67,10 @@ class SeatServiceImplTest {
         Seat seat = new Seat();
         seat.setId(1L);
 
-        when(flightRepository.findByIdWithSeats(flightId)).thenReturn(Optional.of(flight));
-        when(seatMapper.mapToSeat(request, flight)).thenReturn(seat);
+        when(flightRepository.findByIdForUpdate(flightId)).thenReturn(Optional.of(flight));
+        when(flightDao.allocateSeatNumbers(flightId, 1)).thenReturn(List.of("2"));
+        when(seatMapper.mapToSeat(request, flight, "2")).thenReturn(seat);
         when(seatRepository.save(any(Seat.class))).thenReturn(seat);
-        when(seatRepository.countByFlightId(flightId)).thenReturn(10);
         when(seatMapper.mapToSeatResponse(seat)).thenReturn(new SeatResponse());
 
         // Act
@@ -65,8 +78,9 @@ class SeatServiceImplTest {
 
         // Assert
         assertNotNull(response);
-        verify(flightRepository).findByIdWithSeats(flightId);
+        verify(flightRepository).findByIdForUpdate(flightId);
         verify(seatRepository).save(any(Seat.class));
+        verify(flightRepository).adjustSeatCapacity(flightId, 1);
     }
 
     @Test
@@ -75,21 +89,28 @@ class SeatServiceImplTest {
         Long seatId = 1L;
         Seat seat = new Seat();
         seat.setId(seatId);
+        seat.setSeatNumber("7");
         seat.setStatus(SeatStatus.AVAILABLE);
 
         Flight flight = new Flight();
         flight.setId(1L);
         seat.setFlight(flight);
 
+        when(seatRepository.findFlightIdById(seatId)).thenReturn(Optional.of(flight.getId()));
+        when(flightRepository.findByIdForUpdate(flight.getId())).thenReturn(Optional.of(flight));
         when(seatRepository.findById(seatId)).thenReturn(Optional.of(seat));
-        when(seatRepository.countByFlightId(flight.getId())).thenReturn(9);
 
         // Act
         seatService.removeSeat(seatId);
 
         // Assert
+        InOrder inOrder = inOrder(flightRepository, seatRepository);
+        inOrder.verify(flightRepository).findByIdForUpdate(flight.getId());
+        inOrder.verify(seatRepository).findById(seatId);
         verify(seatRepository).delete(seat);
-        verify(flightRepository).save(any(Flight.class));
+        verify(flightDao).freeSeatNumbers(flight.getId(), List.of("7"));
+        verify(flightRepository).adjustSeatCapacity(flight.getId(), -1);
+        verify(seatRepository, never()).countByFlightId(any());
     }
 
     @Test
@@ -99,7 +120,12 @@ class SeatServiceImplTest {
         Seat seat = new Seat();
         seat.setId(seatId);
         seat.setStatus(SeatStatus.UNAVAILABLE);
+        Flight flight = new Flight();
+        flight.setId(1L);
+        seat.setFlight(flight);
 
+        when(seatRepository.findFlightIdById(seatId)).thenReturn(Optional.of(flight.getId()));
+        when(flightRepository.findByIdForUpdate(flight.getId())).thenReturn(Optional.of(flight));
         when(seatRepository.findById(seatId)).thenReturn(Optional.of(seat));
 
         // Act & Assert
@@ -108,6 +134,22 @@ class SeatServiceImplTest {
         verify(seatRepository, never()).delete(any(Seat.class));
     }
 
+    @Test
+    void applySeatOperations_ShouldRejectBatch_WhenUpdateHasNoSeatId() {
+        // Arrange
+        SeatBatchRequest.SeatOperation operation = new SeatBatchRequest.SeatOperation();
+        operation.setType(SeatBatchRequest.OperationType.UPDATE);
+        operation.setPrice(BigDecimal.valueOf(120.00));
+        operation.setStatus(SeatStatus.AVAILABLE);
+        SeatBatchRequest request = new SeatBatchRequest();
+        request.setOperations(List.of(operation));
+
+        // Act & Assert
+        BusinessException exception = assertThrows(BusinessException.class, () -> seatService.applySeatOperations(1L, request));
+        assertEquals("business.error.invalid_seat_operation", exception.getMessageKey());
+        verifyNoInteractions(flightRepository, flightDao);
+    }
+
     @Test
     void updateSeat_ShouldUpdateSeat() {
         // Arrange
@@ -116,10 +158,14 @@ class SeatServiceImplTest {
         request.setPrice(BigDecimal.valueOf(250.00));
         request.setStatus(SeatStatus.UNAVAILABLE);
 
+        Flight flight = new Flight();
+        flight.setId(1L);
+
         Seat seat = new Seat();
         seat.setId(seatId);
         seat.setPrice(BigDecimal.valueOf(200.00));
         seat.setStatus(SeatStatus.AVAILABLE);
+        seat.setFlight(flight);
 
         when(seatRepository.findById(seatId)).thenReturn(Optional.of(seat));
         when(seatRepository.save(seat)).thenReturn(seat);
@@ -133,6 +179,8 @@ class SeatServiceImplTest {
         assertEquals(request.getPrice(), seat.getPrice());
         assertEquals(request.getStatus(), seat.getStatus());
         verify(seatRepository).save(seat);
+        verify(flightRepository).incrementSeatRevision(flight.getId());
+        verify(flightCatalogCache).invalidate(flight.getId());
     }
 
     @Test
@@ -157,13 +205,47 @@ class SeatServiceImplTest {
     }
 
     @Test
-    void getSeatDetails_ShouldReturnSeatDetails() {
+    void updateSeat_ShouldThrowException_WhenSeatIsHeldForPayment() {
         // Arrange
         Long seatId = 1L;
+        UpdateSeatRequest request = new UpdateSeatRequest();
+        request.setPrice(BigDecimal.valueOf(200.00));
+        request.setStatus(SeatStatus.AVAILABLE);
+
         Seat seat = new Seat();
         seat.setId(seatId);
+        seat.setPrice(BigDecimal.valueOf(200.00));
+        seat.setStatus(SeatStatus.HELD);
 
         when(seatRepository.findById(seatId)).thenReturn(Optional.of(seat));
+
+        // Act & Assert
+        BusinessException exception = assertThrows(BusinessException.class, () -> seatService.updateSeat(seatId, request));
+        assertEquals("business.error.seat_held_for_payment", exception.getMessageKey());
+        verify(seatRepository, never()).save(any(Seat.class));
+    }
+
+    @Test
+    void updateSeat_ShouldThrowException_WhenHeldStatusIsRequested() {
+        // Arrange
+        UpdateSeatRequest request = new UpdateSeatRequest();
+        request.setPrice(BigDecimal.valueOf(200.00));
+        request.setStatus(SeatStatus.HELD);
+
+        // Act & Assert
+        BusinessException exception = assertThrows(BusinessException.class, () -> seatService.updateSeat(1L, request));
+        assertEquals("business.error.seat_status_not_allowed", exception.getMessageKey());
+        verifyNoInteractions(seatRepository);
+    }
+
+    @Test
+    void getSeatDetails_ShouldReturnSeatDetails() {
+        // Arrange
+        Long seatId = 1L;
+        SeatDetailsView seat = new SeatDetailsView(seatId, "1", BigDecimal.TEN, SeatStatus.AVAILABLE,
+                "BEPA1234", "Berlin", "Paris", LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(1).plusHours(2));
+
+        when(seatRepository.findDetailsViewById(seatId)).thenReturn(Optional.of(seat));
         when(seatMapper.mapToSeatDetailsResponse(seat)).thenReturn(new SeatDetailsResponse());
 
         // Act
@@ -171,7 +253,8 @@ class SeatServiceImplTest {
 
         // Assert
         assertNotNull(response);
-        verify(seatRepository).findById(seatId);
+        verify(seatRepository).findDetailsViewById(seatId);
+        verify(seatRepository, never()).findById(seatId);
     }
 
     @Test
@@ -179,11 +262,38 @@ class SeatServiceImplTest {
         // Arrange
         Long seatId = 1L;
 
-        when(seatRepository.findById(seatId)).thenReturn(Optional.empty());
+        when(seatRepository.findDetailsViewById(seatId)).thenReturn(Optional.empty());
 
         // Act & Assert
         BusinessException exception = assertThrows(BusinessException.class, () -> seatService.getSeatDetails(seatId));
         assertEquals("business.error.seat_not_found", exception.getMessageKey());
-        verify(seatRepository).findById(seatId);
+        verify(seatRepository).findDetailsViewById(seatId);
+    }
+
+    @Test
+    void getSeatDetailsETag_ShouldCombineSeatAndFlightVersions() {
+        // Arrange
+        Long seatId = 1L;
+
+        when(seatRepository.findVersionsById(seatId)).thenReturn(Optional.of(new SeatVersions(3, 7)));
+
+        // Act
+        String eTag = seatService.getSeatDetailsETag(seatId);
+
+        // Assert
+        assertEquals("\"seat-1-3-7\"", eTag);
+        verify(seatRepository, never()).findById(seatId);
+    }
+
+    @Test
+    void getSeatDetailsETag_ShouldThrowException_WhenSeatNotFound() {
+        // Arrange
+        Long seatId = 1L;
+
+        when(seatRepository.findVersionsById(seatId)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        BusinessException exception = assertThrows(BusinessException.class, () -> seatService.getSeatDetailsETag(seatId));
+        assertEquals("business.error.seat_not_found", exception.getMessageKey());
     }
 }
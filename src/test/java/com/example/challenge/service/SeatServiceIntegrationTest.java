@@ -3,21 +3,39 @@ package com.example.challenge.service;
 import com.example.challenge.domain.entity.Flight;
 import com.example.challenge.domain.entity.Seat;
 import com.example.challenge.domain.enums.SeatStatus;
+import com.example.challenge.infrastructure.exception.BusinessException;
+import com.example.challenge.infrastructure.sequence.FlightNumberAllocator;
 import com.example.challenge.mapper.SeatMapper;
 import com.example.challenge.repository.FlightRepository;
 import com.example.challenge.repository.SeatRepository;
+import com.example.challenge.utils.FlightUtils;
 import com.example.challenge.web.model.v1.request.CreateSeatRequest;
+import com.example.challenge.web.model.v1.request.SeatBatchRequest;
+import com.example.challenge.web.model.v1.request.UpdateFlightRequest;
+import com.example.challenge.web.model.v1.response.SeatBatchResponse;
 import com.example.challenge.web.model.v1.response.SeatDetailsResponse;
 import com.example.challenge.web.model.v1.response.SeatResponse;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -29,6 +47,9 @@ class SeatServiceIntegrationTest {
     @Autowired
     private SeatService seatService;
 
+    @Autowired
+    private FlightService flightService;
+
     @Autowired
     private SeatRepository seatRepository;
 
@@ -38,11 +59,20 @@ class SeatServiceIntegrationTest {
     @Autowired
     private SeatMapper seatMapper;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private FlightNumberAllocator flightNumberAllocator;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @Test
     void addSeat_ShouldPersistSeatInDatabase() {
         // Arrange
         Flight flight = new Flight();
-        flight.setFlightNumber("TK123");
+        flight.setFlightNumber(flightNumberAllocator.allocate("Istanbul", "Berlin"));
         flight.setOrigin("Istanbul");
         flight.setDestination("Berlin");
         flight.setDepartureTime(LocalDateTime.now().plusDays(1));
@@ -63,7 +93,7 @@ class SeatServiceIntegrationTest {
         assertEquals(1, seatRepository.countByFlightId(savedFlight.getId()));
 
         Seat savedSeat = seatRepository.findById(response.getSeatId()).orElseThrow();
-        assertEquals(request.getPrice(), savedSeat.getPrice());
+        assertEquals(0, request.getPrice().compareTo(savedSeat.getPrice()));
         assertEquals(request.getStatus(), savedSeat.getStatus());
     }
 
@@ -71,7 +101,7 @@ class SeatServiceIntegrationTest {
     void removeSeat_ShouldDeleteSeatAndUpdateFlight() {
         // Arrange
         Flight flight = new Flight();
-        flight.setFlightNumber("TK123");
+        flight.setFlightNumber(flightNumberAllocator.allocate("Istanbul", "Berlin"));
         flight.setOrigin("Istanbul");
         flight.setDestination("Berlin");
         flight.setDepartureTime(LocalDateTime.now().plusDays(1));
@@ -99,7 +129,7 @@ class SeatServiceIntegrationTest {
     void getSeatDetails_ShouldReturnSeatDetails() {
         // Arrange
         Flight flight = new Flight();
-        flight.setFlightNumber("TK123");
+        flight.setFlightNumber(flightNumberAllocator.allocate("Istanbul", "Berlin"));
         flight.setOrigin("Istanbul");
         flight.setDestination("Berlin");
         flight.setSeatCapacity(1);
@@ -122,4 +152,193 @@ class SeatServiceIntegrationTest {
         assertEquals(seat.getSeatNumber(), response.getSeat().getSeatNumber());
         assertEquals(savedFlight.getFlightNumber(), response.getFlight().getFlightNumber());
     }
+
+    @Test
+    void applySeatOperations_ShouldApplyValidOperations_AndRejectSoldSeatChanges() {
+        // Arrange: five seats, seat 2 sold
+        Flight flight = new Flight();
+        flight.setFlightNumber(flightNumberAllocator.allocate("Istanbul", "Rome"));
+        flight.setOrigin("Istanbul");
+        flight.setDestination("Rome");
+        flight.setDepartureTime(LocalDateTime.now().plusDays(1));
+        flight.setArrivalTime(LocalDateTime.now().plusDays(1).plusHours(3));
+        flight.setSeatCapacity(5);
+        flight.setSeats(FlightUtils.generateSeats(flight, BigDecimal.valueOf(100.00)));
+        flight.getSeats().get(1).setStatus(SeatStatus.UNAVAILABLE);
+        Flight savedFlight = flightRepository.saveAndFlush(flight);
+        List<Long> seatIds = savedFlight.getSeats().stream().map(Seat::getId).collect(Collectors.toList());
+
+        SeatBatchRequest request = new SeatBatchRequest();
+        request.setOperations(List.of(
+                operation(SeatBatchRequest.OperationType.REMOVE, seatIds.get(0), null),
+                operation(SeatBatchRequest.OperationType.REMOVE, seatIds.get(1), null),
+                operation(SeatBatchRequest.OperationType.UPDATE, seatIds.get(2), BigDecimal.valueOf(250.00)),
+                operation(SeatBatchRequest.OperationType.UPDATE, seatIds.get(1), BigDecimal.valueOf(250.00)),
+                operation(SeatBatchRequest.OperationType.ADD, null, BigDecimal.valueOf(80.00)),
+                operation(SeatBatchRequest.OperationType.ADD, null, BigDecimal.valueOf(80.00)),
+                operation(SeatBatchRequest.OperationType.REMOVE, -1L, null)));
+
+        // Act
+        SeatBatchResponse response = seatService.applySeatOperations(savedFlight.getId(), request);
+
+        // Assert
+        assertEquals(List.of(true, false, true, false, true, true, false), response.getResults().stream()
+                .map(SeatBatchResponse.SeatOperationResult::isApplied)
+                .collect(Collectors.toList()));
+        assertNotNull(response.getResults().get(1).getError());
+        assertEquals(6, response.getSeatCapacity());
+        assertEquals(6, seatRepository.countByFlightId(savedFlight.getId()));
+        assertEquals(6, flightRepository.findById(savedFlight.getId()).orElseThrow().getSeatCapacity());
+        // Seat number 1 is freed by the removal and reused before appending seat 6
+        assertEquals("1", response.getResults().get(4).getSeat().getSeatNumber());
+        assertEquals("6", response.getResults().get(5).getSeat().getSeatNumber());
+        assertTrue(seatRepository.existsById(response.getResults().get(5).getSeat().getSeatId()));
+        assertFalse(seatRepository.existsById(seatIds.get(0)));
+        assertEquals(0, BigDecimal.valueOf(250.00).compareTo(seatRepository.findById(seatIds.get(2)).orElseThrow().getPrice()));
+        assertEquals(0, BigDecimal.valueOf(100.00).compareTo(seatRepository.findById(seatIds.get(1)).orElseThrow().getPrice()));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void addSeat_ShouldAllocateDistinctSeatNumbers_UnderConcurrentAdds() throws Exception {
+        // Arrange: a committed flight with a single seat
+        Long flightId = saveCommittedFlight("Madrid", 1);
+        int seatCount = 1000;
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            // Act
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 1; i < seatCount; i++) {
+                results.add(executor.submit(() -> seatService.addSeat(flightId, createSeatRequest())));
+            }
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+
+            // Assert
+            Set<Integer> seatNumbers = Set.copyOf(jdbcTemplate.queryForList(
+                    "SELECT CAST(seat_number AS INT) FROM seat WHERE flight_id = ?", Integer.class, flightId));
+            assertEquals(IntStream.rangeClosed(1, seatCount).boxed().collect(Collectors.toSet()), seatNumbers);
+            assertEquals(seatCount, flightRepository.findById(flightId).orElseThrow().getSeatCapacity());
+        } finally {
+            executor.shutdownNow();
+            deleteCommittedFlight(flightId);
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void addAndRemoveSeat_ShouldKeepCapacityEqualToSeatCount_UnderConcurrentChanges() throws Exception {
+        // Arrange: a committed flight with 200 seats, half of which are removed while 150 are added
+        Long flightId = saveCommittedFlight("Lisbon", 200);
+        List<Long> removedSeatIds = jdbcTemplate.queryForList(
+                "SELECT id FROM seat WHERE flight_id = ? ORDER BY id FETCH FIRST 100 ROWS ONLY", Long.class, flightId);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            // Act
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < 150; i++) {
+                results.add(executor.submit(() -> seatService.addSeat(flightId, createSeatRequest())));
+                if (i < removedSeatIds.size()) {
+                    Long seatId = removedSeatIds.get(i);
+                    results.add(executor.submit(() -> seatService.removeSeat(seatId)));
+                }
+            }
+            for (Future<?> result : results) {
+                result.get(30, TimeUnit.SECONDS);
+            }
+
+            // Assert
+            int seatCount = seatRepository.countByFlightId(flightId);
+            assertEquals(250, seatCount);
+            assertEquals(seatCount, flightRepository.findById(flightId).orElseThrow().getSeatCapacity());
+            assertEquals(seatCount, Set.copyOf(jdbcTemplate.queryForList(
+                    "SELECT seat_number FROM seat WHERE flight_id = ?", String.class, flightId)).size());
+        } finally {
+            executor.shutdownNow();
+            deleteCommittedFlight(flightId);
+        }
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void removeSeat_ShouldWaitForFlightLock_WhileCapacityShrinkRemovesTheSameSeat() throws Exception {
+        // Arrange: a committed flight with 10 seats, whose highest-numbered seat is removed while a shrink holds
+        // the flight lock
+        Long flightId = saveCommittedFlight("Prague", 10);
+        Long highestSeatId = jdbcTemplate.queryForObject(
+                "SELECT id FROM seat WHERE flight_id = ? AND seat_number = '10'", Long.class, flightId);
+        UpdateFlightRequest request = updateFlightRequest(flightRepository.findById(flightId).orElseThrow(), 5);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // Act
+            Future<?> removal = transactionTemplate.execute(status -> {
+                flightRepository.findByIdForUpdate(flightId);
+                Future<?> pendingRemoval = executor.submit(() -> seatService.removeSeat(highestSeatId));
+                // Give the removal time to reach the seat before the shrink does
+                try {
+                    Thread.sleep(500);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                flightService.updateFlight(flightId, request);
+                return pendingRemoval;
+            });
+            ExecutionException exception = assertThrows(ExecutionException.class, () -> removal.get(30, TimeUnit.SECONDS));
+
+            // Assert: the shrink removed the seat first, and the removal found it gone instead of deadlocking
+            assertInstanceOf(BusinessException.class, exception.getCause());
+            assertEquals("business.error.seat_not_found", ((BusinessException) exception.getCause()).getMessageKey());
+            assertEquals(5, seatRepository.countByFlightId(flightId));
+            assertEquals(5, flightRepository.findById(flightId).orElseThrow().getSeatCapacity());
+        } finally {
+            executor.shutdownNow();
+            deleteCommittedFlight(flightId);
+        }
+    }
+
+    private Long saveCommittedFlight(String destination, int seatCapacity) {
+        Flight flight = new Flight();
+        flight.setFlightNumber(flightNumberAllocator.allocate("Istanbul", destination));
+        flight.setOrigin("Istanbul");
+        flight.setDestination(destination);
+        flight.setDepartureTime(LocalDateTime.now().plusDays(1));
+        flight.setArrivalTime(LocalDateTime.now().plusDays(1).plusHours(4));
+        flight.setSeatCapacity(seatCapacity);
+        flight.setSeats(FlightUtils.generateSeats(flight, BigDecimal.valueOf(150.00)));
+        return flightRepository.saveAndFlush(flight).getId();
+    }
+
+    private void deleteCommittedFlight(Long flightId) {
+        // Nothing is rolled back in these tests, so remove the committed rows explicitly
+        jdbcTemplate.update("DELETE FROM seat WHERE flight_id = ?", flightId);
+        jdbcTemplate.update("DELETE FROM flight WHERE id = ?", flightId);
+    }
+
+    private static SeatBatchRequest.SeatOperation operation(SeatBatchRequest.OperationType type, Long seatId, BigDecimal price) {
+        SeatBatchRequest.SeatOperation operation = new SeatBatchRequest.SeatOperation();
+        operation.setType(type);
+        operation.setSeatId(seatId);
+        operation.setPrice(price);
+        operation.setStatus(price != null ? SeatStatus.AVAILABLE : null);
+        return operation;
+    }
+
+    private static UpdateFlightRequest updateFlightRequest(Flight flight, int seatCapacity) {
+        UpdateFlightRequest request = new UpdateFlightRequest();
+        request.setOrigin(flight.getOrigin());
+        request.setDestination(flight.getDestination());
+        request.setDepartureTime(flight.getDepartureTime());
+        request.setArrivalTime(flight.getArrivalTime());
+        request.setSeatCapacity(seatCapacity);
+        request.setSeatPrice(BigDecimal.valueOf(150.00));
+        return request;
+    }
+
+    private static CreateSeatRequest createSeatRequest() {
+        CreateSeatRequest request = new CreateSeatRequest();
+        request.setPrice(BigDecimal.valueOf(150.00));
+        request.setStatus(SeatStatus.AVAILABLE);
+        return request;
+    }
 }
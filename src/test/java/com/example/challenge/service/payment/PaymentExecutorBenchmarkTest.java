@@ -0,0 +1,143 @@
+package com.example.challenge.service.payment;
+
+import com.example.challenge.domain.entity.Flight;
+import com.example.challenge.domain.enums.BankResponseCode;
+import com.example.challenge.infrastructure.sequence.FlightNumberAllocator;
+import com.example.challenge.repository.FlightDao;
+import com.example.challenge.service.AsyncBankService;
+import com.example.challenge.web.model.v1.request.PaymentRequest;
+import com.example.challenge.web.model.v1.response.BankPaymentResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Buys every seat of a flight through {@link PaymentService#purchaseSeat} against a bank that answers after a fixed
+ * latency, and logs how long the pipeline takes to settle all payments. Runs only with the {@code benchmark} profile;
+ * pass {@code -Dflight.bank-executor.virtual-threads=true} to measure the bank stage on virtual threads.
+ */
+@Slf4j
+@SpringBootTest
+class PaymentExecutorBenchmarkTest {
+
+    private static final int PURCHASES = 1_000;
+    private static final int REQUEST_THREADS = 16;
+    private static final long BANK_LATENCY_MILLIS = 20;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentExecutor paymentExecutor;
+
+    @Autowired
+    private FlightDao flightDao;
+
+    @Autowired
+    private FlightNumberAllocator flightNumberAllocator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private AsyncBankService asyncBankService;
+
+    private Long flightId;
+
+    @BeforeEach
+    void setUp() {
+        when(asyncBankService.pay(any())).thenAnswer(invocation -> CompletableFuture.supplyAsync(
+                () -> new BankPaymentResponse(BankResponseCode.SUCCESS.getCode()),
+                CompletableFuture.delayedExecutor(BANK_LATENCY_MILLIS, TimeUnit.MILLISECONDS)));
+        flightId = flightDao.createFlightWithSeats(Flight.builder()
+                .flightNumber(flightNumberAllocator.allocate("Vienna", "Athens"))
+                .origin("Vienna")
+                .destination("Athens")
+                .departureTime(LocalDateTime.now().plusDays(5))
+                .arrivalTime(LocalDateTime.now().plusDays(5).plusHours(2))
+                .seatCapacity(PURCHASES)
+                .build(), BigDecimal.valueOf(120.00)).getId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Nothing is rolled back in this test, so remove the committed rows explicitly
+        jdbcTemplate.update("DELETE FROM payment WHERE seat_id IN (SELECT id FROM seat WHERE flight_id = ?)", flightId);
+        jdbcTemplate.update("DELETE FROM seat WHERE flight_id = ?", flightId);
+        jdbcTemplate.update("DELETE FROM free_seat_number WHERE flight_id = ?", flightId);
+        jdbcTemplate.update("DELETE FROM flight WHERE id = ?", flightId);
+    }
+
+    @Test
+    void purchaseSeat_ShouldSettleEverySeatOfTheFlight() throws Exception {
+        // Arrange
+        List<Long> seatIds = jdbcTemplate.queryForList("SELECT id FROM seat WHERE flight_id = ?", Long.class, flightId);
+        assertEquals(PURCHASES, seatIds.size());
+        ExecutorService requests = Executors.newFixedThreadPool(REQUEST_THREADS);
+
+        try {
+            // Act
+            long start = System.nanoTime();
+            List<Future<?>> purchases = new ArrayList<>();
+            for (Long seatId : seatIds) {
+                purchases.add(requests.submit(() -> purchase(seatId)));
+            }
+            for (Future<?> purchase : purchases) {
+                purchase.get(1, TimeUnit.MINUTES);
+            }
+            await().atMost(Duration.ofMinutes(2)).until(() -> countPayments("SUCCESS") == PURCHASES);
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            log.info("{} purchases with a {} ms bank latency settled in {} ms on {} threads", PURCHASES,
+                    BANK_LATENCY_MILLIS, elapsedMillis, paymentExecutor.isVirtual() ? "virtual" : "platform");
+
+            // Assert
+            assertEquals(PURCHASES, countPayments("SUCCESS"));
+            assertEquals(PURCHASES, jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM seat WHERE flight_id = ? AND status = 'UNAVAILABLE'", Integer.class, flightId));
+            await().atMost(Duration.ofSeconds(5)).until(() -> paymentExecutor.getOutstandingCallCount() == 0);
+        } finally {
+            requests.shutdownNow();
+        }
+    }
+
+    private void purchase(Long seatId) {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        try {
+            paymentService.purchaseSeat(PaymentRequest.builder()
+                    .seatId(seatId)
+                    .price(BigDecimal.valueOf(120.00))
+                    .build());
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    private int countPayments(String status) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM payment p JOIN seat s ON s.id = p.seat_id "
+                + "WHERE s.flight_id = ? AND p.status = ?", Integer.class, flightId, status);
+    }
+}
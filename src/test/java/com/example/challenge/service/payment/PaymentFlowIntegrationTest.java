@@ -6,10 +6,11 @@ import com.example.challenge.domain.entity.Seat;
 import com.example.challenge.domain.enums.BankResponseCode;
 import com.example.challenge.domain.enums.PaymentStatus;
 import com.example.challenge.domain.enums.SeatStatus;
+import com.example.challenge.infrastructure.sequence.FlightNumberAllocator;
 import com.example.challenge.repository.FlightRepository;
 import com.example.challenge.repository.PaymentRepository;
 import com.example.challenge.repository.SeatRepository;
-import com.example.challenge.service.BankService;
+import com.example.challenge.service.AsyncBankService;
 import com.example.challenge.web.model.v1.request.BankPaymentRequest;
 import com.example.challenge.web.model.v1.request.PaymentRequest;
 import com.example.challenge.web.model.v1.response.BankPaymentResponse;
@@ -23,6 +24,7 @@ import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
@@ -43,11 +45,11 @@ class PaymentFlowIntegrationTest {
     static class TestBankServiceConfiguration {
         @Bean
         @Primary
-        public BankService bankService() {
-            return new BankService() {
+        public AsyncBankService asyncBankService() {
+            return new AsyncBankService(1) {
                 @Override
-                public BankPaymentResponse pay(BankPaymentRequest request) {
-                    return new BankPaymentResponse(BankResponseCode.SUCCESS.getCode());
+                public CompletableFuture<BankPaymentResponse> pay(BankPaymentRequest request) {
+                    return CompletableFuture.completedFuture(new BankPaymentResponse(BankResponseCode.SUCCESS.getCode()));
                 }
             };
         }
@@ -62,6 +64,9 @@ class PaymentFlowIntegrationTest {
     @Autowired
     private PaymentRepository paymentRepository;
 
+    @Autowired
+    private FlightNumberAllocator flightNumberAllocator;
+
     @Autowired
     private PaymentService paymentService;
 
@@ -75,7 +80,7 @@ class PaymentFlowIntegrationTest {
     void setUp() {
         // Create and persist a dummy Flight so that Seat.flight is not null.
         Flight dummyFlight = Flight.builder()
-                .flightNumber("TEST123")
+                .flightNumber(flightNumberAllocator.allocate("TestOrigin", "TestDestination"))
                 .origin("TestOrigin")
                 .destination("TestDestination")
                 .departureTime(LocalDateTime.now().plusDays(1))
@@ -156,21 +161,32 @@ class PaymentFlowIntegrationTest {
             Future<ResponseEntity<PaymentResponse>> future1 = executor.submit(task);
             Future<ResponseEntity<PaymentResponse>> future2 = executor.submit(task);
 
-            PaymentResponse resp1 = future1.get().getBody();
-            PaymentResponse resp2 = future2.get().getBody();
+            ResponseEntity<PaymentResponse> resp1 = future1.get();
+            ResponseEntity<PaymentResponse> resp2 = future2.get();
+
+            // One purchase claims the seat, the other waits for it, or is rejected if the seat is already sold.
+            ResponseEntity<PaymentResponse> winner = PaymentStatus.PENDING.name().equals(resp1.getBody().getStatus()) ? resp1 : resp2;
+            ResponseEntity<PaymentResponse> loser = winner == resp1 ? resp2 : resp1;
+            assertEquals(HttpStatus.ACCEPTED, winner.getStatusCode());
+            assertEquals(PaymentStatus.PENDING.name(), winner.getBody().getStatus());
+            if (loser.getStatusCode() == HttpStatus.CONFLICT) {
+                assertNull(loser.getBody().getPaymentId());
+            } else {
+                assertEquals(PaymentStatus.WAITING.name(), loser.getBody().getStatus());
+            }
 
             // Wait until asynchronous processing finishes and assert that one payment is SUCCESS while the other is FAILED.
             Awaitility.await().atMost(10, TimeUnit.SECONDS).untilAsserted(() -> {
-                PaymentResponse status1 =
-                        restTemplate.getForObject("/api/v1/payments/{id}", PaymentResponse.class, resp1.getPaymentId());
-                PaymentResponse status2 =
-                        restTemplate.getForObject("/api/v1/payments/{id}", PaymentResponse.class, resp2.getPaymentId());
-                boolean oneSuccessOneFail = (status1.getStatus().equals(PaymentStatus.SUCCESS.name())
-                        && status2.getStatus().equals(PaymentStatus.FAILED.name()))
-                        || (status1.getStatus().equals(PaymentStatus.FAILED.name())
-                        && status2.getStatus().equals(PaymentStatus.SUCCESS.name()));
-                assertTrue(oneSuccessOneFail, "One payment should succeed and the other should fail.");
+                PaymentResponse winnerStatus = restTemplate.getForObject("/api/v1/payments/{id}",
+                        PaymentResponse.class, winner.getBody().getPaymentId());
+                assertEquals(PaymentStatus.SUCCESS.name(), winnerStatus.getStatus());
+                if (loser.getBody().getPaymentId() != null) {
+                    PaymentResponse loserStatus = restTemplate.getForObject("/api/v1/payments/{id}",
+                            PaymentResponse.class, loser.getBody().getPaymentId());
+                    assertEquals(PaymentStatus.FAILED.name(), loserStatus.getStatus());
+                }
             });
+            assertEquals(SeatStatus.UNAVAILABLE, seatRepository.findById(testSeat.getId()).orElseThrow().getStatus());
         } finally {
             executor.shutdown();
         }
@@ -0,0 +1,89 @@
+package com.example.challenge.service.payment;
+
+import com.example.challenge.domain.entity.Payment;
+import com.example.challenge.domain.entity.Seat;
+import com.example.challenge.domain.enums.BankResponseCode;
+import com.example.challenge.domain.enums.PaymentStatus;
+import com.example.challenge.service.AsyncBankService;
+import com.example.challenge.service.payment.event.PaymentValidationEvent;
+import com.example.challenge.web.model.v1.response.BankPaymentResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest(properties = {
+        "flight.bank-executor.max-outstanding-calls=1"
+})
+class PaymentProcessServiceIntegrationTest {
+
+    @Autowired
+    private PaymentProcessService paymentProcessService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockBean
+    private AsyncBankService asyncBankService;
+
+    @MockBean
+    private PaymentRecorderService paymentRecorderService;
+
+    @Test
+    void callBankService_ShouldFailPayment_WhenTooManyBankCallsAreOutstanding() {
+        // Arrange: the first payment waits for the bank, without holding a thread
+        CompletableFuture<BankPaymentResponse> firstResponse = new CompletableFuture<>();
+        when(asyncBankService.pay(any())).thenReturn(firstResponse);
+        paymentProcessService.callBankService(new PaymentValidationEvent(payment(1L)));
+
+        // Act
+        Payment rejected = payment(2L);
+        paymentProcessService.callBankService(new PaymentValidationEvent(rejected));
+
+        // Assert
+        assertEquals(PaymentStatus.FAILED, rejected.getStatus());
+        verify(paymentRecorderService).updatePaymentStatus(2L, PaymentStatus.FAILED);
+        verify(asyncBankService, times(1)).pay(any());
+        assertEquals(1, meterRegistry.get("payment.bank.executor.rejections").counter().count());
+        assertEquals(1, meterRegistry.get("payment.bank.executor.outstanding").gauge().value());
+
+        firstResponse.complete(new BankPaymentResponse(BankResponseCode.SUCCESS.getCode()));
+        verify(paymentRecorderService, timeout(5000)).updatePaymentStatus(1L, PaymentStatus.SUCCESS);
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> meterRegistry.get("payment.bank.executor.outstanding").gauge().value() == 0);
+    }
+
+    @Test
+    void callBankService_ShouldRetryOnce_ThenFailPayment_WhenBankTimesOut() {
+        // Arrange
+        when(asyncBankService.pay(any())).thenReturn(CompletableFuture.failedFuture(new RuntimeException("Bank Service Timeout")));
+        Payment payment = payment(3L);
+
+        // Act
+        paymentProcessService.callBankService(new PaymentValidationEvent(payment));
+
+        // Assert: the retry is scheduled after a delay instead of holding a thread
+        verify(paymentRecorderService, timeout(10000)).updatePaymentStatus(3L, PaymentStatus.FAILED);
+        verify(asyncBankService, times(2)).pay(any());
+        assertEquals(PaymentStatus.FAILED, payment.getStatus());
+    }
+
+    private static Payment payment(Long id) {
+        return Payment.builder()
+                .id(id)
+                .seat(Seat.builder().id(id).build())
+                .price(BigDecimal.valueOf(100))
+                .status(PaymentStatus.PENDING)
+                .build();
+    }
+}
@@ -1,10 +1,13 @@
 package com.example.challenge.service.payment;
 
+import com.example.challenge.domain.entity.Flight;
 import com.example.challenge.domain.entity.Payment;
 import com.example.challenge.domain.entity.Seat;
 import com.example.challenge.domain.enums.PaymentStatus;
 import com.example.challenge.domain.enums.SeatStatus;
+import com.example.challenge.infrastructure.cache.FlightCatalogCache;
 import com.example.challenge.infrastructure.exception.BusinessException;
+import com.example.challenge.repository.FlightRepository;
 import com.example.challenge.repository.PaymentRepository;
 import com.example.challenge.repository.SeatRepository;
 import com.example.challenge.web.model.v1.request.PaymentRequest;
@@ -38,6 +41,15 @@ class PaymentServiceImplUnitTest {
     @Mock
     private PaymentRecorderService paymentRecorderService;
 
+    @Mock
+    private FlightRepository flightRepository;
+
+    @Mock
+    private FlightCatalogCache flightCatalogCache;
+
+    @Mock
+    private SeatPurchaseQueue seatPurchaseQueue;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -57,8 +69,11 @@ class PaymentServiceImplUnitTest {
 
         Seat seat = Seat.builder()
                 .id(seatId)
+                .version(0)
+                .seatNumber("001")
                 .price(price)
                 .status(SeatStatus.AVAILABLE)
+                .flight(Flight.builder().id(5L).build())
                 .build();
 
         Payment pendingPayment = Payment.builder()
@@ -70,7 +85,7 @@ class PaymentServiceImplUnitTest {
                 .build();
 
         when(seatRepository.findById(seatId)).thenReturn(Optional.of(seat));
-        when(paymentRepository.existsBySeatIdAndStatus(seatId, PaymentStatus.SUCCESS)).thenReturn(false);
+        when(seatRepository.claim(seatId, 0)).thenReturn(1);
         when(paymentRecorderService.createPendingPayment(eq(seat), eq(price))).thenReturn(pendingPayment);
 
         // Act
@@ -80,7 +95,10 @@ class PaymentServiceImplUnitTest {
         assertNotNull(response);
         assertEquals(PaymentStatus.PENDING.toString(), response.getStatus());
         assertEquals(10L, response.getPaymentId());
+        assertEquals(SeatStatus.HELD, seat.getStatus());
         verify(paymentRecorderService, times(1)).createPendingPayment(seat, price);
+        verify(flightRepository).incrementSeatRevision(5L);
+        verify(flightCatalogCache).seatStatusChanged(5L, "001", SeatStatus.HELD);
     }
 
     @Test
@@ -124,7 +142,53 @@ class PaymentServiceImplUnitTest {
     }
 
     @Test
-    void purchaseSeat_ShouldThrowException_WhenSuccessfulPaymentExists() {
+    void purchaseSeat_ShouldReturnWaitingResponse_WhenSeatIsClaimedByAnotherPurchase() {
+        // Arrange
+        Long seatId = 1L;
+        BigDecimal price = BigDecimal.valueOf(100.00);
+        PaymentRequest request = PaymentRequest.builder()
+                .seatId(seatId)
+                .price(price)
+                .build();
+
+        Seat seat = Seat.builder()
+                .id(seatId)
+                .version(0)
+                .price(price)
+                .status(SeatStatus.AVAILABLE)
+                .build();
+
+        Payment waitingPayment = Payment.builder()
+                .id(11L)
+                .seat(seat)
+                .price(price)
+                .status(PaymentStatus.WAITING)
+                .build();
+
+        Seat heldSeat = Seat.builder()
+                .id(seatId)
+                .version(1)
+                .price(price)
+                .status(SeatStatus.HELD)
+                .build();
+
+        when(seatRepository.findById(seatId)).thenReturn(Optional.of(seat), Optional.of(heldSeat));
+        when(seatRepository.claim(seatId, 0)).thenReturn(0);
+        when(seatPurchaseQueue.tryReserve(seatId)).thenReturn(true);
+        when(paymentRecorderService.createWaitingPayment(heldSeat, price)).thenReturn(waitingPayment);
+
+        // Act
+        PaymentResponse response = paymentService.purchaseSeat(request);
+
+        // Assert
+        assertEquals(PaymentStatus.WAITING.toString(), response.getStatus());
+        assertEquals(11L, response.getPaymentId());
+        verify(paymentRecorderService, never()).createPendingPayment(any(), any());
+        verifyNoInteractions(flightRepository, flightCatalogCache);
+    }
+
+    @Test
+    void purchaseSeat_ShouldThrowException_WhenSeatIsRepricedBeforeItIsClaimed() {
         // Arrange
         Long seatId = 1L;
         PaymentRequest request = PaymentRequest.builder()
@@ -134,17 +198,89 @@ class PaymentServiceImplUnitTest {
 
         Seat seat = Seat.builder()
                 .id(seatId)
+                .version(0)
                 .price(BigDecimal.valueOf(100.00))
                 .status(SeatStatus.AVAILABLE)
                 .build();
 
-        when(seatRepository.findById(seatId)).thenReturn(Optional.of(seat));
-        when(paymentRepository.existsBySeatIdAndStatus(seatId, PaymentStatus.SUCCESS)).thenReturn(true);
+        Seat repricedSeat = Seat.builder()
+                .id(seatId)
+                .version(1)
+                .price(BigDecimal.valueOf(120.00))
+                .status(SeatStatus.AVAILABLE)
+                .build();
+
+        when(seatRepository.findById(seatId)).thenReturn(Optional.of(seat), Optional.of(repricedSeat));
+        when(seatRepository.claim(seatId, 0)).thenReturn(0);
+
+        // Act & Assert
+        BusinessException ex = assertThrows(BusinessException.class, () -> paymentService.purchaseSeat(request));
+        assertEquals("business.error.seat_price_mismatch", ex.getMessageKey());
+        assertEquals(HttpStatus.BAD_REQUEST, ex.getStatus());
+        verify(seatRepository, never()).claim(seatId, 1);
+        verifyNoInteractions(paymentRecorderService, seatPurchaseQueue);
+    }
+
+    @Test
+    void purchaseSeat_ShouldThrowException_WhenSeatKeepsChangingWhileItIsClaimed() {
+        // Arrange
+        Long seatId = 1L;
+        BigDecimal price = BigDecimal.valueOf(100.00);
+        PaymentRequest request = PaymentRequest.builder()
+                .seatId(seatId)
+                .price(price)
+                .build();
+
+        Seat seat = Seat.builder()
+                .id(seatId)
+                .version(0)
+                .price(price)
+                .status(SeatStatus.AVAILABLE)
+                .build();
+
+        Seat changedSeat = Seat.builder()
+                .id(seatId)
+                .version(1)
+                .price(price)
+                .status(SeatStatus.AVAILABLE)
+                .build();
+
+        when(seatRepository.findById(seatId)).thenReturn(Optional.of(seat), Optional.of(changedSeat));
+        when(seatRepository.claim(eq(seatId), anyInt())).thenReturn(0);
 
         // Act & Assert
         BusinessException ex = assertThrows(BusinessException.class, () -> paymentService.purchaseSeat(request));
         assertEquals("business.error.seat_not_available_for_purchase", ex.getMessageKey());
         assertEquals(HttpStatus.CONFLICT, ex.getStatus());
+        verify(seatRepository).claim(seatId, 1);
+        verifyNoInteractions(paymentRecorderService, seatPurchaseQueue);
+    }
+
+    @Test
+    void purchaseSeat_ShouldThrowException_WhenTooManyPurchasesWaitForHeldSeat() {
+        // Arrange
+        Long seatId = 1L;
+        PaymentRequest request = PaymentRequest.builder()
+                .seatId(seatId)
+                .price(BigDecimal.valueOf(100.00))
+                .build();
+
+        Seat seat = Seat.builder()
+                .id(seatId)
+                .version(1)
+                .price(BigDecimal.valueOf(100.00))
+                .status(SeatStatus.HELD)
+                .build();
+
+        when(seatRepository.findById(seatId)).thenReturn(Optional.of(seat));
+        when(seatPurchaseQueue.tryReserve(seatId)).thenReturn(false);
+
+        // Act & Assert
+        BusinessException ex = assertThrows(BusinessException.class, () -> paymentService.purchaseSeat(request));
+        assertEquals("business.error.seat_queue_full", ex.getMessageKey());
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, ex.getStatus());
+        verify(seatRepository, never()).claim(any(), any());
+        verifyNoInteractions(paymentRecorderService);
     }
 
     @Test
@@ -163,11 +299,11 @@ class PaymentServiceImplUnitTest {
                 .build();
 
         when(seatRepository.findById(seatId)).thenReturn(Optional.of(seat));
-        when(paymentRepository.existsBySeatIdAndStatus(seatId, PaymentStatus.SUCCESS)).thenReturn(false);
 
         // Act & Assert
         BusinessException ex = assertThrows(BusinessException.class, () -> paymentService.purchaseSeat(request));
         assertEquals("business.error.seat_price_mismatch", ex.getMessageKey());
         assertEquals(HttpStatus.BAD_REQUEST, ex.getStatus());
+        verify(seatRepository, never()).claim(any(), any());
     }
 }
@@ -0,0 +1,239 @@
+package com.example.challenge.service.payment;
+
+import com.example.challenge.domain.entity.Flight;
+import com.example.challenge.domain.entity.Payment;
+import com.example.challenge.domain.entity.Seat;
+import com.example.challenge.domain.enums.BankResponseCode;
+import com.example.challenge.domain.enums.PaymentStatus;
+import com.example.challenge.domain.enums.SeatStatus;
+import com.example.challenge.infrastructure.sequence.FlightNumberAllocator;
+import com.example.challenge.repository.FlightRepository;
+import com.example.challenge.repository.PaymentRepository;
+import com.example.challenge.repository.SeatRepository;
+import com.example.challenge.service.AsyncBankService;
+import com.example.challenge.web.model.v1.request.PaymentRequest;
+import com.example.challenge.web.model.v1.response.BankPaymentResponse;
+import com.example.challenge.web.model.v1.response.PaymentResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs purchases of one seat through the pipeline with a bank whose answers the tests control, and checks that the
+ * payments waiting for the seat get it in turn.
+ */
+@SpringBootTest
+class SeatPurchaseQueueIntegrationTest {
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentOrchestrator paymentOrchestrator;
+
+    @Autowired
+    private FlightRepository flightRepository;
+
+    @Autowired
+    private SeatRepository seatRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private FlightNumberAllocator flightNumberAllocator;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    private AsyncBankService asyncBankService;
+
+    private final BlockingQueue<CompletableFuture<BankPaymentResponse>> bankCalls = new LinkedBlockingQueue<>();
+
+    private Flight flight;
+    private Seat seat;
+
+    @BeforeEach
+    void setUp() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        when(asyncBankService.pay(any())).thenAnswer(invocation -> {
+            CompletableFuture<BankPaymentResponse> response = new CompletableFuture<>();
+            bankCalls.add(response);
+            return response;
+        });
+        flight = flightRepository.saveAndFlush(Flight.builder()
+                .flightNumber(flightNumberAllocator.allocate("Oslo", "Lisbon"))
+                .origin("Oslo")
+                .destination("Lisbon")
+                .departureTime(LocalDateTime.now().plusDays(3))
+                .arrivalTime(LocalDateTime.now().plusDays(3).plusHours(4))
+                .seatCapacity(1)
+                .build());
+        seat = seatRepository.saveAndFlush(Seat.builder()
+                .seatNumber("1")
+                .price(BigDecimal.valueOf(200.00))
+                .status(SeatStatus.AVAILABLE)
+                .flight(flight)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Nothing is rolled back in these tests, so remove the committed rows explicitly
+        RequestContextHolder.resetRequestAttributes();
+        jdbcTemplate.update("DELETE FROM payment WHERE seat_id = ?", seat.getId());
+        jdbcTemplate.update("DELETE FROM seat WHERE id = ?", seat.getId());
+        jdbcTemplate.update("DELETE FROM flight WHERE id = ?", flight.getId());
+    }
+
+    @Test
+    void purchaseSeat_ShouldHandSeatToNextWaitingPayment_WhenHolderFails() throws Exception {
+        // Arrange
+        PaymentResponse first = purchase();
+        PaymentResponse second = purchase();
+        PaymentResponse third = purchase();
+        assertEquals(PaymentStatus.PENDING.name(), first.getStatus());
+        assertEquals(PaymentStatus.WAITING.name(), second.getStatus());
+        assertEquals(PaymentStatus.WAITING.name(), third.getStatus());
+
+        // Act: the bank declines the first payment
+        nextBankCall().complete(new BankPaymentResponse(BankResponseCode.FAILED.getCode()));
+
+        // Assert: the seat stays held, now for the second payment, which is sent to the bank
+        CompletableFuture<BankPaymentResponse> secondBankCall = nextBankCall();
+        awaitStatus(first, PaymentStatus.FAILED);
+        assertEquals(PaymentStatus.PENDING, statusOf(second));
+        assertEquals(PaymentStatus.WAITING, statusOf(third));
+        assertEquals(SeatStatus.HELD, seatStatus());
+
+        // Act: the bank accepts the second payment
+        secondBankCall.complete(new BankPaymentResponse(BankResponseCode.SUCCESS.getCode()));
+
+        // Assert: the seat is sold and the payment still waiting for it fails without calling the bank
+        awaitStatus(second, PaymentStatus.SUCCESS);
+        awaitStatus(third, PaymentStatus.FAILED);
+        assertEquals(SeatStatus.UNAVAILABLE, seatStatus());
+        assertNull(bankCalls.poll(500, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void restoreSeatQueues_ShouldPromoteWaitingPayment_WhenItsSeatIsAvailable() throws Exception {
+        // Arrange: a payment left WAITING for a seat released while the application was down
+        Payment waiting = paymentRepository.saveAndFlush(Payment.builder()
+                .createdAt(LocalDateTime.now())
+                .seat(seat)
+                .price(seat.getPrice())
+                .status(PaymentStatus.WAITING)
+                .build());
+
+        // Act
+        paymentOrchestrator.restoreSeatQueues();
+
+        // Assert
+        CompletableFuture<BankPaymentResponse> bankCall = nextBankCall();
+        assertEquals(PaymentStatus.PENDING, paymentRepository.findById(waiting.getId()).orElseThrow().getStatus());
+        assertEquals(SeatStatus.HELD, seatStatus());
+
+        bankCall.complete(new BankPaymentResponse(BankResponseCode.SUCCESS.getCode()));
+        await().atMost(Duration.ofSeconds(5)).until(() -> seatStatus() == SeatStatus.UNAVAILABLE);
+        assertEquals(PaymentStatus.SUCCESS, paymentRepository.findById(waiting.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void restoreSeatQueues_ShouldResumePendingPayment_WhenItsSeatIsStillHeld() throws Exception {
+        // Arrange: the application stopped while a payment holding the seat was at the bank, with another waiting
+        jdbcTemplate.update("UPDATE seat SET status = 'HELD', version = version + 1 WHERE id = ?", seat.getId());
+        Payment pending = paymentRepository.saveAndFlush(Payment.builder()
+                .createdAt(LocalDateTime.now())
+                .seat(seat)
+                .price(seat.getPrice())
+                .status(PaymentStatus.PENDING)
+                .build());
+        Payment waiting = paymentRepository.saveAndFlush(Payment.builder()
+                .createdAt(LocalDateTime.now())
+                .seat(seat)
+                .price(seat.getPrice())
+                .status(PaymentStatus.WAITING)
+                .build());
+
+        // Act
+        paymentOrchestrator.restoreSeatQueues();
+
+        // Assert: the pending payment is sent to the bank again, and the waiting one gets the seat when it fails
+        nextBankCall().complete(new BankPaymentResponse(BankResponseCode.FAILED.getCode()));
+        CompletableFuture<BankPaymentResponse> waitingBankCall = nextBankCall();
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> paymentRepository.findById(pending.getId()).orElseThrow().getStatus() == PaymentStatus.FAILED);
+        assertEquals(PaymentStatus.PENDING, paymentRepository.findById(waiting.getId()).orElseThrow().getStatus());
+
+        waitingBankCall.complete(new BankPaymentResponse(BankResponseCode.SUCCESS.getCode()));
+        await().atMost(Duration.ofSeconds(5)).until(() -> seatStatus() == SeatStatus.UNAVAILABLE);
+        assertEquals(PaymentStatus.SUCCESS, paymentRepository.findById(waiting.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void restoreSeatQueues_ShouldFailWaitingPayment_WhenItsSeatWasRepriced() throws Exception {
+        // Arrange: a payment left WAITING for a seat released and repriced while the application was down
+        Payment waiting = paymentRepository.saveAndFlush(Payment.builder()
+                .createdAt(LocalDateTime.now())
+                .seat(seat)
+                .price(seat.getPrice())
+                .status(PaymentStatus.WAITING)
+                .build());
+        jdbcTemplate.update("UPDATE seat SET price = 250.00, version = version + 1 WHERE id = ?", seat.getId());
+
+        // Act
+        paymentOrchestrator.restoreSeatQueues();
+
+        // Assert: the payment does not buy the seat at the old price, and the seat is available again
+        assertEquals(PaymentStatus.FAILED, paymentRepository.findById(waiting.getId()).orElseThrow().getStatus());
+        assertEquals(SeatStatus.AVAILABLE, seatStatus());
+        assertNull(bankCalls.poll(500, TimeUnit.MILLISECONDS));
+    }
+
+    private PaymentResponse purchase() {
+        return paymentService.purchaseSeat(PaymentRequest.builder()
+                .seatId(seat.getId())
+                .price(seat.getPrice())
+                .build());
+    }
+
+    private CompletableFuture<BankPaymentResponse> nextBankCall() throws InterruptedException {
+        CompletableFuture<BankPaymentResponse> bankCall = bankCalls.poll(5, TimeUnit.SECONDS);
+        assertNotNull(bankCall, "The bank was not called");
+        return bankCall;
+    }
+
+    private void awaitStatus(PaymentResponse payment, PaymentStatus status) {
+        await().atMost(Duration.ofSeconds(5)).until(() -> statusOf(payment) == status);
+    }
+
+    private PaymentStatus statusOf(PaymentResponse payment) {
+        return paymentRepository.findById(payment.getPaymentId()).orElseThrow().getStatus();
+    }
+
+    private SeatStatus seatStatus() {
+        return seatRepository.findStatusById(seat.getId()).orElseThrow();
+    }
+}
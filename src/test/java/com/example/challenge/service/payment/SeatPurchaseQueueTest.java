@@ -0,0 +1,178 @@
+package com.example.challenge.service.payment;
+
+import com.example.challenge.domain.entity.Payment;
+import com.example.challenge.domain.entity.Seat;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SeatPurchaseQueueTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SeatPurchaseQueue queue = new SeatPurchaseQueue(meterRegistry, 2);
+
+    @Test
+    void poll_ShouldReturnPaymentsOfASeatInArrivalOrder() {
+        // Arrange
+        queue.park(payment(1L, 10L));
+        queue.park(payment(2L, 20L));
+        queue.park(payment(3L, 10L));
+
+        // Act & Assert
+        assertEquals(1L, queue.poll(10L).getId());
+        assertEquals(3L, queue.poll(10L).getId());
+        assertNull(queue.poll(10L));
+        assertTrue(queue.isEmpty(10L));
+        assertFalse(queue.isEmpty(20L));
+        assertEquals(1, meterRegistry.get("payment.seat.queue.waiting").gauge().value());
+    }
+
+    @Test
+    void drain_ShouldRemoveEveryPaymentOfTheSeat() {
+        // Arrange
+        queue.park(payment(1L, 10L));
+        queue.park(payment(2L, 10L));
+        queue.park(payment(3L, 20L));
+
+        // Act
+        List<Payment> drained = queue.drain(10L);
+
+        // Assert
+        assertEquals(List.of(1L, 2L), List.of(drained.get(0).getId(), drained.get(1).getId()));
+        assertTrue(queue.isEmpty(10L));
+        assertTrue(queue.drain(10L).isEmpty());
+        assertEquals(1, queue.getWaitingCount());
+    }
+
+    @Test
+    void tryReserve_ShouldBeFalse_WhenSeatHasMaxWaitingAndReservedPayments() {
+        // Arrange: one payment parked in its reserved place, one place reserved
+        assertTrue(queue.tryReserve(10L));
+        queue.park(payment(1L, 10L));
+        assertTrue(queue.tryReserve(10L));
+
+        // Act & Assert
+        assertFalse(queue.tryReserve(10L));
+        assertTrue(queue.tryReserve(20L));
+        assertEquals(1, queue.getWaitingCount());
+    }
+
+    @Test
+    void tryReserve_ShouldGiveBackPlace_OnlyWhenTransactionDoesNotCommit() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            assertTrue(queue.tryReserve(10L));
+            assertTrue(queue.tryReserve(10L));
+            assertFalse(queue.tryReserve(10L));
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+
+            // Act: the first transaction commits, the second rolls back
+            synchronizations.get(0).afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            synchronizations.get(1).afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Assert: the committed payment keeps its place until it is parked, and a reserved place is not a payment
+        assertTrue(queue.isEmpty(10L));
+        assertTrue(queue.tryReserve(10L));
+        assertFalse(queue.tryReserve(10L));
+    }
+
+    @Test
+    void tryReserve_ShouldNotExceedMaxWaiting_WhenCalledConcurrently() throws Exception {
+        // Arrange
+        SeatPurchaseQueue bounded = new SeatPurchaseQueue(new SimpleMeterRegistry(), 50);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> futures = new ArrayList<>();
+
+        // Act
+        try {
+            for (int i = 0; i < 400; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return bounded.tryReserve(10L);
+                }));
+            }
+            start.countDown();
+            int reserved = 0;
+            for (Future<Boolean> future : futures) {
+                reserved += future.get(30, TimeUnit.SECONDS) ? 1 : 0;
+            }
+
+            // Assert
+            assertEquals(50, reserved);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void parkAndPoll_ShouldNotLoseOrDuplicatePayments_WhenCalledConcurrently() throws Exception {
+        // Arrange
+        SeatPurchaseQueue unbounded = new SeatPurchaseQueue(new SimpleMeterRegistry(), Integer.MAX_VALUE);
+        int threads = 8;
+        int paymentsPerThread = 1000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Payment> polled = new ArrayList<>();
+
+        // Act: every thread parks payments for four seats and polls as many as it parked
+        try {
+            List<Future<List<Payment>>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                long firstId = (long) t * paymentsPerThread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    List<Payment> taken = new ArrayList<>();
+                    for (long id = firstId; id < firstId + paymentsPerThread; id++) {
+                        unbounded.park(payment(id, id % 4));
+                        Payment payment = unbounded.poll(id % 4);
+                        if (payment != null) {
+                            taken.add(payment);
+                        }
+                    }
+                    return taken;
+                }));
+            }
+            start.countDown();
+            for (Future<List<Payment>> future : futures) {
+                polled.addAll(future.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        for (long seatId = 0; seatId < 4; seatId++) {
+            polled.addAll(unbounded.drain(seatId));
+        }
+
+        // Assert
+        Set<Long> ids = new HashSet<>();
+        polled.forEach(payment -> ids.add(payment.getId()));
+        assertEquals(threads * paymentsPerThread, polled.size());
+        assertEquals(threads * paymentsPerThread, ids.size());
+        assertEquals(0, unbounded.getWaitingCount());
+    }
+
+    private static Payment payment(Long id, Long seatId) {
+        return Payment.builder()
+                .id(id)
+                .seat(Seat.builder().id(seatId).build())
+                .build();
+    }
+}
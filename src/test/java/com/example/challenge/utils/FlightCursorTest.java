@@ -0,0 +1,36 @@
+package com.example.challenge.utils;
+
+import com.example.challenge.infrastructure.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightCursorTest {
+
+    @Test
+    void decode_ShouldRestoreEncodedPosition() {
+        // Arrange
+        FlightCursor cursor = new FlightCursor(LocalDateTime.of(2030, 1, 15, 10, 30, 0, 123456000), 42L);
+
+        // Act
+        String token = cursor.encode();
+        FlightCursor decoded = FlightCursor.decode(token);
+
+        // Assert
+        assertEquals(cursor, decoded);
+        assertTrue(token.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    void decode_ShouldThrowException_WhenTokenIsMalformed() {
+        // Act & Assert
+        for (String token : new String[]{"%%%", "bm8tc2VwYXJhdG9y", "MjAzMC0wMS0xNXxhYmM"}) {
+            BusinessException exception = assertThrows(BusinessException.class, () -> FlightCursor.decode(token));
+            assertEquals("business.error.invalid_cursor", exception.getMessageKey());
+            assertEquals(HttpStatus.BAD_REQUEST, exception.getStatus());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.challenge.utils;
+
+import com.example.challenge.domain.enums.SeatStatus;
+import com.example.challenge.domain.projection.FlightSeatRow;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightNdjsonWriterTest {
+
+    private static final LocalDateTime DEPARTURE = LocalDateTime.of(2030, 5, 1, 10, 0);
+
+    @Test
+    void write_ShouldWriteOneLinePerFlight_WithSeatsSplitByStatus() throws Exception {
+        // Arrange
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        JsonGenerator generator = new ObjectMapper().findAndRegisterModules().getFactory().createGenerator(output);
+        FlightNdjsonWriter writer = new FlightNdjsonWriter(generator);
+
+        // Act
+        writer.write(row(1L, 10L, "1", SeatStatus.AVAILABLE));
+        writer.write(row(1L, 11L, "2", SeatStatus.UNAVAILABLE));
+        writer.write(row(2L, null, null, null));
+        writer.write(row(3L, 30L, "1", SeatStatus.AVAILABLE));
+        writer.finish();
+
+        // Assert
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("{\"flight\":{\"flightId\":1,"));
+        assertTrue(lines[0].endsWith("\"availableSeats\":[{\"seatId\":10,\"seatNumber\":\"1\",\"seatPrice\":99.50}],"
+                + "\"unavailableSeats\":[{\"seatId\":11,\"seatNumber\":\"2\"}]}"));
+        assertTrue(lines[1].endsWith("\"availableSeats\":[],\"unavailableSeats\":[]}"));
+        assertTrue(lines[2].endsWith("\"availableSeats\":[{\"seatId\":30,\"seatNumber\":\"1\",\"seatPrice\":99.50}],"
+                + "\"unavailableSeats\":[]}"));
+    }
+
+    @Test
+    void finish_ShouldWriteNothing_WhenThereAreNoFlights() throws Exception {
+        // Arrange
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        FlightNdjsonWriter writer = new FlightNdjsonWriter(new ObjectMapper().getFactory().createGenerator(output));
+
+        // Act
+        writer.finish();
+
+        // Assert
+        assertEquals(0, output.size());
+    }
+
+    private static FlightSeatRow row(Long flightId, Long seatId, String seatNumber, SeatStatus status) {
+        return new FlightSeatRow(flightId, "BEPA1234", "Berlin", "Paris", DEPARTURE, DEPARTURE.plusHours(2), 2,
+                seatId, seatNumber, seatId != null ? new BigDecimal("99.50") : null, status);
+    }
+}
@@ -34,62 +34,28 @@ class FlightUtilsTest {
     }
 
     @Test
-    void getNextSeatNumber_ShouldReturnNextAvailableSeatNumber() {
-        // Arrange
-        Flight flight = new Flight();
-        Seat seat1 = new Seat();
-        seat1.setSeatNumber("1");
-        Seat seat2 = new Seat();
-        seat2.setSeatNumber("2");
-        flight.setSeats(List.of(seat1, seat2));
-
-        // Act
-        String nextSeatNumber = FlightUtils.getNextSeatNumber(flight);
-
-        // Assert
-        assertEquals("3", nextSeatNumber);
-    }
-
-    @Test
-    void getNextSeatNumber_ShouldReturnOneWhenNoSeatsExist() {
-        // Arrange
-        Flight flight = new Flight();
-        flight.setSeats(List.of());
-
-        // Act
-        String nextSeatNumber = FlightUtils.getNextSeatNumber(flight);
-
-        // Assert
-        assertEquals("1", nextSeatNumber);
-    }
-
-    @Test
-    void generateFlightNumber_ShouldGenerateValidFlightNumber() {
+    void getFlightNumberPrefix_ShouldCombineRouteCodes() {
         // Arrange
         String origin = "New York";
         String destination = "London";
 
         // Act
-        String flightNumber = FlightUtils.generateFlightNumber(origin, destination);
+        String prefix = FlightUtils.getFlightNumberPrefix(origin, destination);
 
         // Assert
-        assertTrue(flightNumber.startsWith("NELO"));
-        assertEquals(8, flightNumber.length());
-        assertDoesNotThrow(() -> Integer.parseInt(flightNumber.substring(4)));
+        assertEquals("NELO", prefix);
     }
 
     @Test
-    void generateFlightNumber_ShouldHandleSingleCharacterOriginAndDestination() {
+    void getFlightNumberPrefix_ShouldHandleSingleCharacterOriginAndDestination() {
         // Arrange
         String origin = "A";
-        String destination = "B";
+        String destination = "b";
 
         // Act
-        String flightNumber = FlightUtils.generateFlightNumber(origin, destination);
+        String prefix = FlightUtils.getFlightNumberPrefix(origin, destination);
 
         // Assert
-        assertTrue(flightNumber.startsWith("AB"));
-        assertEquals(6, flightNumber.length());
-        assertDoesNotThrow(() -> Integer.parseInt(flightNumber.substring(2)));
+        assertEquals("AB", prefix);
     }
 }
@@ -0,0 +1,45 @@
+package com.example.challenge.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NdjsonLineReaderTest {
+
+    @Test
+    void next_ShouldReadLinesWithoutLineBreaks() throws Exception {
+        // Arrange
+        NdjsonLineReader reader = new NdjsonLineReader(new StringReader("{\"a\":1}\r\n\n{\"b\":2}"), 100);
+
+        // Act & Assert
+        assertTrue(reader.next());
+        assertEquals("{\"a\":1}", reader.getLine());
+        assertTrue(reader.next());
+        assertEquals("", reader.getLine());
+        assertTrue(reader.next());
+        assertEquals("{\"b\":2}", reader.getLine());
+        assertEquals(3, reader.getLineNumber());
+        assertFalse(reader.next());
+    }
+
+    @Test
+    void next_ShouldSkipRestOfTooLongLine_AndContinueWithNextLine() throws Exception {
+        // Arrange
+        NdjsonLineReader reader = new NdjsonLineReader(new StringReader("x".repeat(1000) + "\n{}\n"), 10);
+
+        // Act
+        boolean first = reader.next();
+        String tooLong = reader.getLine();
+        boolean second = reader.next();
+
+        // Assert
+        assertTrue(first);
+        assertNull(tooLong);
+        assertTrue(second);
+        assertEquals("{}", reader.getLine());
+        assertEquals(2, reader.getLineNumber());
+        assertFalse(reader.next());
+    }
+}
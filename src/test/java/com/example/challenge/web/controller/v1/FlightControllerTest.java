@@ -0,0 +1,112 @@
+package com.example.challenge.web.controller.v1;
+
+import com.example.challenge.service.FlightImportService;
+import com.example.challenge.service.FlightScheduleService;
+import com.example.challenge.service.FlightService;
+import com.example.challenge.service.SeatService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class FlightControllerTest {
+
+    private static final String ETAG = "\"flight-1-3\"";
+    private static final String GZIP_ETAG = "\"flight-1-3-gzip\"";
+
+    @Mock
+    private FlightService flightService;
+
+    @Mock
+    private FlightImportService flightImportService;
+
+    @Mock
+    private FlightScheduleService flightScheduleService;
+
+    @Mock
+    private SeatService seatService;
+
+    @InjectMocks
+    private FlightController flightController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        mockMvc = MockMvcBuilders.standaloneSetup(flightController).build();
+        when(flightService.getFlightDetailsETag(1L)).thenReturn(ETAG);
+        when(flightService.getEncodedFlightDetails(anyLong(), anyString(), anyBoolean())).thenReturn(new byte[]{'{', '}'});
+    }
+
+    @Test
+    void getFlightDetails_ShouldServeGzipWithItsOwnETag_WhenGzipIsAccepted() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/flights/1/details").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, GZIP_ETAG))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING));
+        verify(flightService).getEncodedFlightDetails(1L, ETAG, true);
+    }
+
+    @Test
+    void getFlightDetails_ShouldServeIdentity_WhenGzipIsRefused() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/flights/1/details").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING));
+        verify(flightService).getEncodedFlightDetails(1L, ETAG, false);
+    }
+
+    @Test
+    void getFlightDetails_ShouldNotMatchIdentityETag_WhenGzipIsAccepted() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/flights/1/details")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, GZIP_ETAG));
+    }
+
+    @Test
+    void getFlightDetails_ShouldReturnNotModified_WhenGzipETagMatches() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/v1/flights/1/details")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .header(HttpHeaders.IF_NONE_MATCH, GZIP_ETAG))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, GZIP_ETAG))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING));
+        verify(flightService, never()).getEncodedFlightDetails(anyLong(), anyString(), anyBoolean());
+    }
+
+    @Test
+    void acceptsGzip_ShouldHonourQualityValues() {
+        // Act & Assert
+        assertFalse(FlightController.acceptsGzip(null));
+        assertFalse(FlightController.acceptsGzip("identity"));
+        assertFalse(FlightController.acceptsGzip("gzip;q=0"));
+        assertFalse(FlightController.acceptsGzip("br, gzip; q=0.0"));
+        assertFalse(FlightController.acceptsGzip("*, gzip;q=0"));
+        assertFalse(FlightController.acceptsGzip("*;q=0"));
+        assertTrue(FlightController.acceptsGzip("gzip"));
+        assertTrue(FlightController.acceptsGzip("deflate, GZIP;q=0.5"));
+        assertTrue(FlightController.acceptsGzip("x-gzip"));
+        assertTrue(FlightController.acceptsGzip("br, *"));
+    }
+}